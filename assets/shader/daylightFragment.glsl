@@ -0,0 +1,16 @@
+#ifdef GL_ES
+precision mediump float;
+#endif
+
+uniform sampler2D u_texture;
+uniform vec4 u_tint;
+
+varying vec4 v_color;
+varying vec2 v_texCoord0;
+
+void main()
+{
+    vec4 color = v_color * texture2D(u_texture, v_texCoord0);
+    // Fade towards the tint's colour by its alpha, keeping the pixel's own alpha for blending
+    gl_FragColor = vec4(mix(color.rgb, u_tint.rgb, u_tint.a), color.a);
+}
@@ -12,4 +12,4 @@ void main()
     v_color = a_color;
     v_texCoord0 = a_texCoord0;
     gl_Position = u_projTrans * a_position;
-}
\ No newline at end of file
+}
@@ -0,0 +1,214 @@
+/**
+ * Benchmarks of the work done while the player walks around campus: moving the player against the campus
+ * collision tiles, finding the buildings the player is near, and working out the score and achievements
+ * at the end of the week.
+ * The game is created once for each fork and kept between iterations, as it is while the game is played.
+ */
+package com.eng1.heslingtonhustle.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.eng1.heslingtonhustle.building.Building;
+import com.eng1.heslingtonhustle.game.FixedTimestep;
+import com.eng1.heslingtonhustle.game.Game;
+import com.eng1.heslingtonhustle.gameobjects.Day;
+import com.eng1.heslingtonhustle.helper.AchievementManager;
+import com.eng1.heslingtonhustle.map.MapManager;
+import com.eng1.heslingtonhustle.player.Movement;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameplayBenchmark {
+    private static final int TICKS_PER_DIRECTION = 60;
+    private static final int SWEEP_STEPS = 200;
+    private static final float SWEEP_STEP = 4;
+    private static final int DAYS_IN_WEEK = 7;
+
+    private Game game;
+    private Movement movement;
+    private List<Building> buildings;
+    private final AchievementManager achievementManager = new AchievementManager();
+    private final List<Day> week = new ArrayList<>();
+    private final Vector2 spawn = new Vector2();
+    private final Vector2 sweepStart = new Vector2();
+    private final Vector2 sweepPosition = new Vector2();
+    private int tick;
+    private int step;
+
+    /**
+     * Creates the game, with the player at the spawn point, and the week that is scored.
+     * The player is swept past the library once first, so that the maps the sweep prefetches have loaded.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        HeadlessEnvironment.start();
+        game = HeadlessEnvironment.createGame();
+        movement = game.playerManager.getMovement();
+        buildings = game.buildings;
+        spawn.set(movement.getPosition());
+
+        Building library = null;
+        for (Building building : buildings) {
+            if (building.getName().equals("Library")) {
+                library = building;
+            }
+        }
+        if (library == null) {
+            throw new GdxRuntimeException("The library is not on campus");
+        }
+        sweepStart.set(library.getInteractSpot()).sub(SWEEP_STEPS * SWEEP_STEP / 2, 0);
+
+        for (int i = 0; i < SWEEP_STEPS * 2; i++) {
+            proximityUpdate();
+            game.mapManager.update(FixedTimestep.TICK_SECONDS);
+        }
+        while (game.mapManager.isLoading()) {
+            game.mapManager.update(FixedTimestep.TICK_SECONDS);
+        }
+        movement.setPosition(spawn);
+
+        // A week in which the player studies, eats and relaxes every day, mostly in the library
+        for (int i = 0; i < DAYS_IN_WEEK; i++) {
+            Day day = new Day();
+            day.studied();
+            day.placesStudied.add(i < DAYS_IN_WEEK - 1 ? MapManager.libraryMapPath : MapManager.compSciMapPath);
+            day.eaten();
+            day.eaten();
+            day.relaxed();
+            day.placesRelaxed.add(MapManager.cinemaMapPath);
+            day.timeSlept = 18 + i;
+            week.add(day);
+        }
+    }
+
+    /**
+     * Disposes the game.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        game.dispose();
+    }
+
+    /**
+     * Moves the player by one tick. The player walks right, up, left and down in turn, colliding with whatever
+     * is in the way, and is put back at the spawn point at the start of each lap so that it does not drift away.
+     *
+     * @return The position of the player
+     */
+    @Benchmark
+    public Vector2 movementUpdate() {
+        if (tick % TICKS_PER_DIRECTION == 0) {
+            turn(tick / TICKS_PER_DIRECTION % 4);
+        }
+        tick++;
+        movement.update(FixedTimestep.TICK_SECONDS);
+        return movement.getPosition();
+    }
+
+    /**
+     * Runs one proximity check, as the game does PROXIMITY_RATE times a second, with the player being swept back
+     * and forth past the library so that its trigger volume is entered and left.
+     *
+     * @return The building the player is in range of, or null if none
+     */
+    @Benchmark
+    public Building proximityUpdate() {
+        movement.getPosition().set(nextSweepPosition());
+        game.gameManager.update();
+        return game.gameManager.checkForBuildingInRange();
+    }
+
+    /**
+     * Checks whether a point being swept past the library is in range of each campus building.
+     *
+     * @return The number of buildings in range
+     */
+    @Benchmark
+    public int buildingInRange() {
+        Vector2 position = nextSweepPosition();
+        int inRange = 0;
+        for (int i = 0; i < buildings.size(); i++) {
+            if (buildings.get(i).inRange(position)) {
+                inRange++;
+            }
+        }
+        return inRange;
+    }
+
+    /**
+     * Works out the score for the week, as shown on the score screen at the end of the game.
+     *
+     * @return The score
+     */
+    @Benchmark
+    public int calculateScore() {
+        return game.renderingManager.getGameUI().calculateScore(week);
+    }
+
+    /**
+     * Works out which achievements were earned over the week.
+     *
+     * @return The bonus for the achievements earned
+     */
+    @Benchmark
+    public int calculateAchievements() {
+        achievementManager.calculateAchievements(week);
+        return achievementManager.getAchievementBonus();
+    }
+
+    /**
+     * Sets the direction the player is walking in.
+     *
+     * @param direction 0 for right, 1 for up, 2 for left or 3 for down
+     */
+    private void turn(int direction) {
+        movement.state.reset();
+        switch (direction) {
+            case 0:
+                movement.setPosition(spawn);
+                movement.state.moveRight();
+                break;
+            case 1:
+                movement.state.moveUp();
+                break;
+            case 2:
+                movement.state.moveLeft();
+                break;
+            default:
+                movement.state.moveDown();
+                break;
+        }
+    }
+
+    /**
+     * Retrieves the next point of the sweep past the library, which moves from one side of it to the other and back.
+     *
+     * @return The point, which is reused by the next call
+     */
+    private Vector2 nextSweepPosition() {
+        step = (step + 1) % (SWEEP_STEPS * 2);
+        int offset = step < SWEEP_STEPS ? step : SWEEP_STEPS * 2 - step;
+        return sweepPosition.set(sweepStart.x + offset * SWEEP_STEP, sweepStart.y);
+    }
+}
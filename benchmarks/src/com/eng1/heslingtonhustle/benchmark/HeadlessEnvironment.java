@@ -0,0 +1,60 @@
+/**
+ * The HeadlessEnvironment starts the headless libGDX backend the benchmarks run under.
+ * Files are read from the working directory, which the jmh task sets to the assets directory, and rendering goes
+ * through a GL20 that does nothing, so a real SpriteBatch, map renderer and stage can be used and only the game's own
+ * work is measured, as in the performance tests.
+ */
+package com.eng1.heslingtonhustle.benchmark;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.viewport.ScreenViewport;
+import com.eng1.heslingtonhustle.HeadlessGL20;
+import com.eng1.heslingtonhustle.game.Game;
+
+final class HeadlessEnvironment {
+    private static boolean started;
+
+    private HeadlessEnvironment() {
+    }
+
+    /**
+     * Starts the headless application, if it has not already been started in this JVM.
+     */
+    static synchronized void start() {
+        if (started) {
+            return;
+        }
+        new HeadlessApplication(new ApplicationAdapter() {
+        }, new HeadlessApplicationConfiguration());
+        useHeadlessGL();
+        started = true;
+    }
+
+    /**
+     * Replaces the GL20 of the headless application with one that does nothing, so that things which need GL,
+     * such as a SpriteBatch, can be created.
+     */
+    static void useHeadlessGL() {
+        HeadlessGL20 gl = new HeadlessGL20();
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+    }
+
+    /**
+     * Creates a game on campus, rendering with a real SpriteBatch, map renderer and stage.
+     * The headless application must have been started first.
+     *
+     * @return The game, with the player at the spawn point
+     */
+    static Game createGame() {
+        Game game = new Game();
+        game.testCreate(new OrthogonalTiledMapRenderer(null, Game.SCALE), new Stage(new ScreenViewport()), new SpriteBatch());
+        return game;
+    }
+}
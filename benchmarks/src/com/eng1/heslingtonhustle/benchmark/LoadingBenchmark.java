@@ -0,0 +1,182 @@
+/**
+ * Benchmarks of loading: changing to each building's map, both when it has been cached and when it has to be loaded
+ * from disk, creating the campus buildings, and reading and writing high scores.
+ * Maps are loaded through a MapManager set up as it is in the game, so the static tiles are uploaded into tile
+ * caches as well.
+ */
+package com.eng1.heslingtonhustle.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.eng1.heslingtonhustle.building.BuildingInfo;
+import com.eng1.heslingtonhustle.building.BuildingManager;
+import com.eng1.heslingtonhustle.helper.ScoreManager;
+import com.eng1.heslingtonhustle.map.MapManager;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LoadingBenchmark {
+    private MapManager mapManager;
+    private BuildingInfo[] buildingInfos;
+    private int score;
+
+    /**
+     * A MapManager with the campus map loaded, and the building map it changes to.
+     */
+    @State(Scope.Thread)
+    public static class Interior {
+        @Param({MapManager.cafeMapPath, MapManager.cinemaMapPath, MapManager.compSciMapPath,
+                MapManager.homeMapPath, MapManager.libraryMapPath})
+        public String mapPath;
+        MapManager mapManager;
+
+        /**
+         * Creates the MapManager, which loads the campus map.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            HeadlessEnvironment.start();
+            mapManager = new MapManager();
+        }
+
+        /**
+         * Disposes the MapManager and the maps it has cached.
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            mapManager.dispose();
+        }
+    }
+
+    /**
+     * A MapManager with the campus map loaded, and the building map it changes to,
+     * which is evicted from the cache before every change.
+     */
+    @State(Scope.Thread)
+    public static class ColdInterior extends Interior {
+        /**
+         * Evicts the map from the cache before each change to it, so that it is loaded from disk.
+         */
+        @Setup(Level.Invocation)
+        public void evict() {
+            mapManager.getMapCache().remove(mapPath);
+        }
+    }
+
+    /**
+     * Creates the MapManager the buildings are placed with, and reads the building information and the saved score.
+     * The score saved is the one already saved, so the benchmark never changes the high score the tests expect.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        HeadlessEnvironment.start();
+        mapManager = new MapManager();
+        buildingInfos = BuildingManager.readBuildingInfo();
+        score = Math.max(1, ScoreManager.loadHighScore(ScoreManager.HIGHSCORE_TESTING_KEY));
+    }
+
+    /**
+     * Disposes the MapManager and the maps it has cached.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mapManager.dispose();
+    }
+
+    /**
+     * Changes to a building's map and back to campus, with both maps cached, as when the player enters and leaves
+     * a building that has been visited before.
+     *
+     * @param interior The MapManager and building map
+     * @return The collidable tiles of the campus map
+     */
+    @Benchmark
+    public Array<Rectangle> changeMapCached(Interior interior) {
+        interior.mapManager.changeMap(interior.mapPath);
+        interior.mapManager.changeMapToCampus();
+        return interior.mapManager.getCollidableTiles();
+    }
+
+    /**
+     * Changes to a building's map that has to be loaded from disk and back to campus, as when the player enters
+     * a building for the first time without it having been prefetched.
+     *
+     * @param interior The MapManager and building map, which is evicted from the cache before each change
+     * @return The collidable tiles of the campus map
+     */
+    @Benchmark
+    public Array<Rectangle> changeMapCold(ColdInterior interior) {
+        interior.mapManager.changeMap(interior.mapPath);
+        interior.mapManager.changeMapToCampus();
+        return interior.mapManager.getCollidableTiles();
+    }
+
+    /**
+     * Creates the campus buildings, reading the building information from disk, as when the game starts.
+     *
+     * @return The BuildingManager
+     */
+    @Benchmark
+    public BuildingManager createBuildingManager() {
+        return new BuildingManager(mapManager);
+    }
+
+    /**
+     * Creates the campus buildings from building information that has already been read,
+     * as when it has been read on the startup loader's worker thread.
+     *
+     * @return The BuildingManager
+     */
+    @Benchmark
+    public BuildingManager createBuildingManagerFromInfo() {
+        return new BuildingManager(mapManager, buildingInfos);
+    }
+
+    /**
+     * Loads a high score.
+     *
+     * @return The high score
+     */
+    @Benchmark
+    public int loadHighScore() {
+        return ScoreManager.loadHighScore(ScoreManager.HIGHSCORE_TESTING_KEY);
+    }
+
+    /**
+     * Saves a high score, writing the preferences to disk.
+     */
+    @Benchmark
+    public void saveHighScore() {
+        ScoreManager.saveHighScore(score, ScoreManager.HIGHSCORE_TESTING_KEY);
+    }
+
+    /**
+     * Loads the names of every user with a saved score, as when the leaderboard is built.
+     *
+     * @return The names, separated by commas
+     */
+    @Benchmark
+    public String getAllUsers() {
+        return ScoreManager.getAllUsers();
+    }
+}
@@ -0,0 +1,692 @@
+/**
+ * The PlaythroughBenchmark plays the game through a scripted week and reports how long its frames take.
+ * Each day the player walks across campus to study, eat, relax and sleep, entering every building over the week,
+ * until the week is over and the score screen is shown. The real game loop is run against a GL20 that does nothing,
+ * so every frame does the game's own update and render work, including map loads and transitions.
+ * The 50th, 95th and 99th percentile and longest frame times are reported for each week, along with the time spent
+ * in map transitions. The first week includes the JIT warming up and the first loads of each map.
+ * The player finds its way around walls on a grid of the map. A player that still gets stuck is placed where it was
+ * walking to, and the number of walks cut short is reported, so a map change that breaks the script shows up.
+ */
+package com.eng1.heslingtonhustle.benchmark;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.ui.Dialog;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Pools;
+import com.eng1.heslingtonhustle.building.Building;
+import com.eng1.heslingtonhustle.game.FixedTimestep;
+import com.eng1.heslingtonhustle.game.Game;
+import com.eng1.heslingtonhustle.helper.AssetRegistry;
+import com.eng1.heslingtonhustle.map.ActivityTile;
+import com.eng1.heslingtonhustle.map.MapManager;
+import com.eng1.heslingtonhustle.map.SpatialGrid;
+import com.eng1.heslingtonhustle.player.Movement;
+import com.eng1.heslingtonhustle.player.State;
+
+public class PlaythroughBenchmark extends ApplicationAdapter {
+    private static final int DEFAULT_WEEKS = 2;
+    private static final int DAYS_IN_WEEK = 7;
+    // A step that takes longer than this has gone wrong, such as the player not being where the script expects
+    private static final int MAX_STEP_FRAMES = 60 * 60;
+    private static final float WAYPOINT_DISTANCE = NavGrid.CELL_SIZE / 2f;
+    private static final int STUCK_FRAMES = 30;
+    private static final int SCORE_SCREEN_FRAMES = 120;
+    private static final String[] STUDY_BUILDINGS = {"Library", "Computer Science Building"};
+    private static final String[] RELAX_BUILDINGS = {"Cinema", "Pier", "Bus Stop"};
+
+    private final String reportPath;
+    private final int weeks;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private final Array<Step> steps = new Array<>();
+    private final Array<WeekResult> results = new Array<>();
+    private final LongArray frameNanos = new LongArray();
+    private final ObjectMap<String, NavGrid> navGrids = new ObjectMap<>();
+    private final Array<Vector2> path = new Array<>();
+    private final Vector2 checkpoint = new Vector2();
+    private Rectangle walkArea;
+    private int walkFrames;
+    private int waypoint;
+    private Game game;
+    private Movement movement;
+    private State state;
+    private int currentStep;
+    private int stepFrames;
+    private long transitionNanos;
+    private int transitions;
+    private boolean wasTransitioning;
+    private int walksCutShort;
+    private Throwable failure;
+
+    /**
+     * A part of the script, run once a frame before the frame is rendered.
+     */
+    private interface Step {
+        /**
+         * Runs the step for this frame.
+         *
+         * @return True if the step has finished, or false to run it again on the next frame
+         */
+        boolean run();
+    }
+
+    /**
+     * The frame times of one week of play.
+     */
+    private static class WeekResult {
+        final int frames;
+        final float p50Millis;
+        final float p95Millis;
+        final float p99Millis;
+        final float maxMillis;
+        final float totalMillis;
+        final int transitions;
+        final float transitionMillis;
+        final int walksCutShort;
+
+        /**
+         * Constructs a new WeekResult from the time each frame took.
+         *
+         * @param frameNanos       The time each frame took, in nanoseconds
+         * @param transitions      The number of map transitions
+         * @param transitionNanos  The time spent in frames during which a map transition was in progress
+         * @param walksCutShort    The number of walks in which the player was placed at the end
+         */
+        WeekResult(LongArray frameNanos, int transitions, long transitionNanos, int walksCutShort) {
+            long[] sorted = frameNanos.toArray();
+            Arrays.sort(sorted);
+            long total = 0;
+            for (long nanos : sorted) {
+                total += nanos;
+            }
+            this.frames = sorted.length;
+            this.p50Millis = toMillis(percentile(sorted, 50));
+            this.p95Millis = toMillis(percentile(sorted, 95));
+            this.p99Millis = toMillis(percentile(sorted, 99));
+            this.maxMillis = toMillis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+            this.totalMillis = toMillis(total);
+            this.transitions = transitions;
+            this.transitionMillis = toMillis(transitionNanos);
+            this.walksCutShort = walksCutShort;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d frames: p50 %.3f ms, p95 %.3f ms, p99 %.3f ms, max %.3f ms, total %.0f ms; "
+                            + "%d map transitions took %.0f ms; %d walks cut short",
+                    frames, p50Millis, p95Millis, p99Millis, maxMillis, totalMillis,
+                    transitions, transitionMillis, walksCutShort);
+        }
+    }
+
+    /**
+     * The places on a map the player can stand, on a grid, for finding paths around walls.
+     */
+    private static class NavGrid {
+        static final int CELL_SIZE = 20;
+        // The size of the player's collision box in Movement
+        private static final float PLAYER_WIDTH = 16;
+        private static final float PLAYER_HEIGHT = 20;
+        // The player only stops within half a cell of each point of a path, so cells must be clear for that far around
+        private static final float MARGIN = CELL_SIZE / 2f + 1;
+
+        private final float originX;
+        private final float originY;
+        private final int columns;
+        private final int rows;
+        private final boolean[] walkable;
+
+        /**
+         * Constructs the grid of the map being shown, covering its collidable, exit and activity tiles.
+         *
+         * @param mapManager The MapManager showing the map
+         */
+        NavGrid(MapManager mapManager) {
+            Rectangle bounds = new Rectangle(mapManager.getCollidableTiles().first());
+            for (Rectangle tile : mapManager.getCollidableTiles()) {
+                bounds.merge(tile);
+            }
+            for (Rectangle tile : mapManager.getExitTiles()) {
+                bounds.merge(tile);
+            }
+            for (ActivityTile tile : mapManager.getActivityTiles()) {
+                bounds.merge(tile.getRectangle());
+            }
+            originX = bounds.x;
+            originY = bounds.y;
+            columns = (int) Math.ceil(bounds.width / CELL_SIZE) + 1;
+            rows = (int) Math.ceil(bounds.height / CELL_SIZE) + 1;
+            walkable = new boolean[columns * rows];
+
+            SpatialGrid<Rectangle> collisionGrid = mapManager.getCollisionGrid();
+            Array<Rectangle> nearby = new Array<>();
+            Rectangle body = new Rectangle();
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    body.set(originX + column * CELL_SIZE - MARGIN, originY + row * CELL_SIZE - MARGIN,
+                            PLAYER_WIDTH + MARGIN * 2, PLAYER_HEIGHT + MARGIN * 2);
+                    collisionGrid.query(body.x, body.y, body.width, body.height, nearby);
+                    boolean blocked = false;
+                    for (int i = 0; i < nearby.size && !blocked; i++) {
+                        blocked = nearby.get(i).overlaps(body);
+                    }
+                    walkable[row * columns + column] = !blocked;
+                }
+            }
+        }
+
+        /**
+         * Finds the shortest path from a position to an area, moving between neighbouring cells.
+         *
+         * @param from The position of the player
+         * @param to   The area to walk to
+         * @param path Filled with the positions to walk through, ending in the area
+         * @return True if a path was found, otherwise false
+         */
+        boolean findPath(Vector2 from, Rectangle to, Array<Vector2> path) {
+            int startColumn = Math.round((from.x - originX) / CELL_SIZE);
+            int startRow = Math.round((from.y - originY) / CELL_SIZE);
+            if (startColumn < 0 || startColumn >= columns || startRow < 0 || startRow >= rows) {
+                return false;
+            }
+            int start = startRow * columns + startColumn;
+            int[] previous = new int[walkable.length];
+            Arrays.fill(previous, -1);
+            previous[start] = start;
+            int[] queue = new int[walkable.length];
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+
+            int goal = -1;
+            while (head < tail) {
+                int cell = queue[head++];
+                if (isWellInside(to, cellX(cell), cellY(cell))) {
+                    goal = cell;
+                    break;
+                }
+                int column = cell % columns;
+                int row = cell / columns;
+                if (column > 0) {
+                    tail = visit(cell, cell - 1, previous, queue, tail);
+                }
+                if (column < columns - 1) {
+                    tail = visit(cell, cell + 1, previous, queue, tail);
+                }
+                if (row > 0) {
+                    tail = visit(cell, cell - columns, previous, queue, tail);
+                }
+                if (row < rows - 1) {
+                    tail = visit(cell, cell + columns, previous, queue, tail);
+                }
+            }
+            if (goal < 0) {
+                return false;
+            }
+
+            path.clear();
+            for (int cell = goal; cell != start; cell = previous[cell]) {
+                path.add(new Vector2(cellX(cell), cellY(cell)));
+            }
+            if (path.isEmpty()) {
+                path.add(new Vector2(from));
+            }
+            path.reverse();
+            return true;
+        }
+
+        /**
+         * Checks whether a position is far enough inside an area that the player is in the area when it stops near it.
+         *
+         * @param area The area
+         * @param x    The x coordinate of the position
+         * @param y    The y coordinate of the position
+         * @return True if the position is more than half a cell inside the area, otherwise false
+         */
+        private static boolean isWellInside(Rectangle area, float x, float y) {
+            float inset = CELL_SIZE / 2f;
+            return area.contains(x - inset, y - inset) && area.contains(x + inset, y + inset);
+        }
+
+        /**
+         * Queues a neighbouring cell to be searched, if the player can stand there and it has not been reached yet.
+         *
+         * @param from     The cell being searched from
+         * @param cell     The neighbouring cell
+         * @param previous The cell each cell was reached from, or -1 for cells not yet reached
+         * @param queue    The cells to search
+         * @param tail     The end of the queue
+         * @return The new end of the queue
+         */
+        private int visit(int from, int cell, int[] previous, int[] queue, int tail) {
+            if (!walkable[cell] || previous[cell] >= 0) {
+                return tail;
+            }
+            previous[cell] = from;
+            queue[tail] = cell;
+            return tail + 1;
+        }
+
+        /**
+         * Retrieves the x coordinate of a cell.
+         *
+         * @param cell The index of the cell
+         * @return The x coordinate of the cell's corner
+         */
+        private float cellX(int cell) {
+            return originX + (cell % columns) * CELL_SIZE;
+        }
+
+        /**
+         * Retrieves the y coordinate of a cell.
+         *
+         * @param cell The index of the cell
+         * @return The y coordinate of the cell's corner
+         */
+        private float cellY(int cell) {
+            return originY + (cell / columns) * CELL_SIZE;
+        }
+    }
+
+    /**
+     * Constructs a new PlaythroughBenchmark.
+     *
+     * @param reportPath The file the report is written to, or null to only log it
+     * @param weeks      The number of weeks to play
+     */
+    public PlaythroughBenchmark(String reportPath, int weeks) {
+        this.reportPath = reportPath;
+        this.weeks = weeks;
+    }
+
+    /**
+     * Plays the scripted weeks and reports the frame times.
+     *
+     * @param args The file to write the report to, and optionally the number of weeks to play
+     * @throws InterruptedException If interrupted while waiting for the playthrough to finish
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String reportPath = args.length > 0 ? args[0] : null;
+        int weeks = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WEEKS;
+        PlaythroughBenchmark benchmark = new PlaythroughBenchmark(reportPath, weeks);
+
+        // Frames are run back to back, rather than at the rate they would be shown
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.updatesPerSecond = 0;
+        new HeadlessApplication(benchmark, config);
+        benchmark.finished.await();
+        System.exit(benchmark.failure == null ? 0 : 1);
+    }
+
+    /**
+     * Creates the game on campus and writes the script for the first week.
+     */
+    @Override
+    public void create() {
+        try {
+            HeadlessEnvironment.useHeadlessGL();
+
+            // Each frame takes one tick, so the game plays out the same however long the frames take
+            Gdx.graphics = new MockGraphics() {
+                @Override
+                public float getDeltaTime() {
+                    return FixedTimestep.TICK_SECONDS;
+                }
+            };
+            // The score screen is built with the menu's skin, which is loaded with the menu rather than the world
+            Game.menuSkin = AssetRegistry.acquire(Game.menuSkinPath, Skin.class);
+            game = HeadlessEnvironment.createGame();
+            movement = game.playerManager.getMovement();
+            state = movement.state;
+            writeWeek();
+        } catch (RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Runs the script for this frame, then runs and times a frame of the game.
+     */
+    @Override
+    public void render() {
+        // The application runs one more frame after it is told to exit
+        if (failure != null || results.size >= weeks) {
+            return;
+        }
+        try {
+            if (runScript()) {
+                return;
+            }
+            boolean transitioning = game.mapManager.isTransitioning();
+            long start = System.nanoTime();
+            game.render();
+            long nanos = System.nanoTime() - start;
+            frameNanos.add(nanos);
+
+            transitioning |= game.mapManager.isTransitioning();
+            if (transitioning) {
+                transitionNanos += nanos;
+                if (!wasTransitioning) {
+                    transitions++;
+                }
+            }
+            wasTransitioning = transitioning;
+        } catch (RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Disposes the game and lets the launcher exit.
+     */
+    @Override
+    public void dispose() {
+        try {
+            if (game != null) {
+                game.dispose();
+            }
+        } finally {
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Runs the current step of the script, moving on to the next week or finishing once the week's steps are done.
+     *
+     * @return True if the playthrough has finished, otherwise false
+     */
+    private boolean runScript() {
+        while (currentStep < steps.size && steps.get(currentStep).run()) {
+            currentStep++;
+            stepFrames = 0;
+        }
+        if (currentStep < steps.size) {
+            if (++stepFrames > MAX_STEP_FRAMES) {
+                throw new GdxRuntimeException("Step " + currentStep + " of the script did not finish on "
+                        + game.mapManager.currentMapPath + " at " + movement.getPosition());
+            }
+            return false;
+        }
+
+        WeekResult result = new WeekResult(frameNanos, transitions, transitionNanos, walksCutShort);
+        results.add(result);
+        Gdx.app.log("Playthrough", "Week " + results.size + ": " + result);
+        if (results.size < weeks) {
+            game.resetSession();
+            writeWeek();
+            return false;
+        }
+        writeReport();
+        Gdx.app.exit();
+        return true;
+    }
+
+    /**
+     * Writes the script for a week, starting from the spawn point. Each day the player studies, eats, relaxes
+     * and then sleeps, and the week ends on the score screen.
+     */
+    private void writeWeek() {
+        steps.clear();
+        currentStep = 0;
+        stepFrames = 0;
+        frameNanos.clear();
+        transitionNanos = 0;
+        transitions = 0;
+        wasTransitioning = false;
+        walksCutShort = 0;
+
+        for (int day = 0; day < DAYS_IN_WEEK; day++) {
+            visit(STUDY_BUILDINGS[day % STUDY_BUILDINGS.length], true);
+            visit("Cafe", true);
+            visit(RELAX_BUILDINGS[day % RELAX_BUILDINGS.length], true);
+            visit("Home", day < DAYS_IN_WEEK - 1);
+        }
+        steps.add(() -> game.playerManager.gameOver());
+        int[] scoreFrames = {0};
+        steps.add(() -> ++scoreFrames[0] >= SCORE_SCREEN_FRAMES);
+    }
+
+    /**
+     * Adds the steps to walk to a building and do its activity. Buildings with a map are entered, and the activity
+     * is done at the map's first activity tile. The Pier and the Bus Stop have no map, so their activity is done
+     * outside them.
+     *
+     * @param name  The name of the building
+     * @param leave True to leave the building afterwards, or false to stay, such as when the week is over
+     */
+    private void visit(String name, boolean leave) {
+        Building building = findBuilding(name);
+        MapManager mapManager = game.mapManager;
+        String mapPath = mapManager.getMapPath(name);
+        walkTo(building::getInteractArea);
+        steps.add(this::interact);
+        if (mapPath == null) {
+            steps.add(this::answerYes);
+            steps.add(() -> !state.IN_MENU);
+            return;
+        }
+
+        steps.add(() -> mapPath.equals(mapManager.currentMapPath) && !mapManager.isTransitioning() && !state.IN_MENU);
+        walkTo(() -> mapManager.getActivityTiles().first().getRectangle());
+        steps.add(this::interact);
+        steps.add(this::answerYes);
+        steps.add(() -> !state.IN_MENU || game.playerManager.gameOver());
+        if (leave) {
+            walkTo(() -> mapManager.getExitTiles().first());
+            steps.add(this::interact);
+            steps.add(() -> MapManager.defaultMapPath.equals(mapManager.currentMapPath)
+                    && !mapManager.isTransitioning() && !state.IN_MENU);
+        }
+    }
+
+    /**
+     * Adds a step that walks the player to an area, finding a path around the walls in the way.
+     *
+     * @param area The area to walk to, found when the walk starts
+     */
+    private void walkTo(Supplier<Rectangle> area) {
+        steps.add(() -> walk(area));
+    }
+
+    /**
+     * Walks the player for a frame, towards the next point of the path to the area. If there is no path,
+     * or the player is stopped by a wall while following it, the player is placed where it was walking to.
+     *
+     * @param area The area being walked to
+     * @return True once the player is in the area, otherwise false
+     */
+    private boolean walk(Supplier<Rectangle> area) {
+        Vector2 position = movement.getPosition();
+        if (walkArea == null) {
+            walkArea = area.get();
+            walkFrames = 0;
+            waypoint = 0;
+            checkpoint.set(position);
+            NavGrid navGrid = navGrids.get(game.mapManager.currentMapPath);
+            if (navGrid == null) {
+                navGrid = new NavGrid(game.mapManager);
+                navGrids.put(game.mapManager.currentMapPath, navGrid);
+            }
+            if (!navGrid.findPath(position, walkArea, path)) {
+                path.clear();
+                path.add(walkArea.getCenter(new Vector2()));
+            }
+        }
+        walkFrames++;
+
+        if (walkArea.contains(position)) {
+            stopWalking();
+            walkArea = null;
+            return true;
+        }
+        Vector2 target = path.get(waypoint);
+        float dx = target.x - position.x;
+        float dy = target.y - position.y;
+        if (Math.abs(dx) <= WAYPOINT_DISTANCE && Math.abs(dy) <= WAYPOINT_DISTANCE && waypoint < path.size - 1) {
+            waypoint++;
+            target = path.get(waypoint);
+            dx = target.x - position.x;
+            dy = target.y - position.y;
+        }
+        if (walkFrames % STUCK_FRAMES == 0) {
+            if (checkpoint.dst2(position) < 1) {
+                movement.setPosition(target);
+                walksCutShort++;
+            }
+            checkpoint.set(position);
+        }
+        state.RIGHT = dx > WAYPOINT_DISTANCE;
+        state.LEFT = dx < -WAYPOINT_DISTANCE;
+        state.UP = dy > WAYPOINT_DISTANCE;
+        state.DOWN = dy < -WAYPOINT_DISTANCE;
+        return false;
+    }
+
+    /**
+     * Stops the player walking.
+     */
+    private void stopWalking() {
+        state.RIGHT = false;
+        state.LEFT = false;
+        state.UP = false;
+        state.DOWN = false;
+    }
+
+    /**
+     * Presses the interact key, once the player is out of any menu.
+     *
+     * @return True once the key has been pressed, otherwise false
+     */
+    private boolean interact() {
+        if (state.IN_MENU) {
+            return false;
+        }
+        state.interacting();
+        return true;
+    }
+
+    /**
+     * Chooses Yes in the activity dialog, once the player has been asked about an activity and it has been shown.
+     *
+     * @return True once Yes has been chosen, otherwise false
+     */
+    private boolean answerYes() {
+        Dialog dialog = game.gameManager.getActivityDialog();
+        if (!state.IN_MENU || dialog.getStage() == null) {
+            return false;
+        }
+        Actor yes = dialog.getButtonTable().getChildren().first();
+        ChangeListener.ChangeEvent event = Pools.obtain(ChangeListener.ChangeEvent.class);
+        yes.fire(event);
+        Pools.free(event);
+        return true;
+    }
+
+    /**
+     * Finds a campus building by its name.
+     *
+     * @param name The name of the building
+     * @return The building
+     */
+    private Building findBuilding(String name) {
+        for (Building building : game.buildings) {
+            if (building.getName().equals(name)) {
+                return building;
+            }
+        }
+        throw new GdxRuntimeException("There is no building called " + name + " on campus");
+    }
+
+    /**
+     * Writes the frame times of every week to the report file, if one was given.
+     */
+    private void writeReport() {
+        if (reportPath == null) {
+            return;
+        }
+        StringWriter writer = new StringWriter();
+        JsonWriter json = new JsonWriter(writer);
+        json.setOutputType(JsonWriter.OutputType.json);
+        try {
+            json.object();
+            json.array("weeks");
+            for (WeekResult result : results) {
+                json.object();
+                json.set("frames", result.frames);
+                json.set("p50Millis", result.p50Millis);
+                json.set("p95Millis", result.p95Millis);
+                json.set("p99Millis", result.p99Millis);
+                json.set("maxMillis", result.maxMillis);
+                json.set("totalMillis", result.totalMillis);
+                json.set("transitions", result.transitions);
+                json.set("transitionMillis", result.transitionMillis);
+                json.set("walksCutShort", result.walksCutShort);
+                json.pop();
+            }
+            json.pop();
+            json.pop();
+            json.close();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't create the playthrough report", e);
+        }
+        FileHandle file = new FileHandle(reportPath);
+        file.writeString(writer.toString(), false, "UTF-8");
+        Gdx.app.log("Playthrough", "Report written to " + file.file().getAbsolutePath());
+    }
+
+    /**
+     * Stops the playthrough because something went wrong.
+     *
+     * @param e What went wrong
+     */
+    private void fail(Throwable e) {
+        failure = e;
+        Gdx.app.error("Playthrough", "The playthrough failed", e);
+        Gdx.app.exit();
+    }
+
+    /**
+     * Retrieves a percentile of sorted times, using the nearest rank.
+     *
+     * @param sorted  The times, in ascending order
+     * @param percent The percentile, from 0 to 100
+     * @return The time at the percentile, or 0 if there are no times
+     */
+    private static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+
+    /**
+     * Converts a time to milliseconds.
+     *
+     * @param nanos The time, in nanoseconds
+     * @return The time, in milliseconds
+     */
+    private static float toMillis(long nanos) {
+        return nanos / 1_000_000f;
+    }
+}
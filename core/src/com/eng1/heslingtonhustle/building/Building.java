@@ -5,6 +5,7 @@
 package com.eng1.heslingtonhustle.building;
 
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.eng1.heslingtonhustle.helper.ResourceLoader;
 import com.eng1.heslingtonhustle.activities.*;
@@ -13,7 +14,11 @@ public class Building {
 
     private final String name;
     private Vector2 position;
+    private final Vector2 interactSpot = new Vector2();
+    private final Rectangle interactArea = new Rectangle();
+    private boolean interactSpotValid = false;
     private final TextureRegion textureRegion;
+    private final TextureRegion outlineRegion;
     private boolean isVisible = true;
     private Activity activity;
 
@@ -23,9 +28,8 @@ public class Building {
      */
     public Building(BuildingInfo buildingInfo) {
         this.name = buildingInfo.name;
-        this.textureRegion = ResourceLoader.getBuildingTextureRegion(
-                buildingInfo.textureStartX, buildingInfo.textureStartY,
-                buildingInfo.textureWidth, buildingInfo.textureHeight);
+        this.textureRegion = ResourceLoader.getBuildingTextureRegion(buildingInfo.id);
+        this.outlineRegion = ResourceLoader.getBuildingOutlineRegion(buildingInfo.id);
         int energy = buildingInfo.energy;
         int time = buildingInfo.time;
         switch (buildingInfo.activityName){
@@ -52,6 +56,7 @@ public class Building {
      */
     public void setPosition(Vector2 position) {
         this.position = position;
+        interactSpotValid = false;
     }
 
     /**
@@ -71,9 +76,9 @@ public class Building {
      * @return True if the player is within interaction range, otherwise false
      */
     public boolean inRange(Vector2 playerPosition) {
-
-        return between(playerPosition.x, getInteractSpot().x, getInteractSpot().x+32*5) &&
-                between(playerPosition.y, getInteractSpot().y, getInteractSpot().y+32*5);
+        Vector2 interactSpot = getInteractSpot();
+        return between(playerPosition.x, interactSpot.x, interactSpot.x+32*5) &&
+                between(playerPosition.y, interactSpot.y, interactSpot.y+32*5);
     }
 
     /**
@@ -83,6 +88,14 @@ public class Building {
     public TextureRegion getTextureRegion() {
         return textureRegion;
     }
+
+    /**
+     * Retrieves the white silhouette of the building, drawn behind it as an outline.
+     * @return The TextureRegion of the building's outline
+     */
+    public TextureRegion getOutlineRegion() {
+        return outlineRegion;
+    }
     
     /**
      * Retrieves the position of the building.
@@ -102,15 +115,31 @@ public class Building {
 
     /**
      * Retrieves the interaction spot of the building.
+     * It is calculated once per position, so the returned vector must not be modified.
      * @return The interaction spot of the building
      */
     public Vector2 getInteractSpot() {
-        float X  = position.x + ((float) (textureRegion.getRegionWidth() - 32) / 2) * 5;
-        float Y = position.y - 32*5;
-        if (name.equals("Home")){
-            X = position.x + ((float) (textureRegion.getRegionWidth() - 80) / 2) * 5;
+        if (!interactSpotValid) {
+            float X  = position.x + ((float) (textureRegion.getRegionWidth() - 32) / 2) * 5;
+            float Y = position.y - 32*5;
+            if (name.equals("Home")){
+                X = position.x + ((float) (textureRegion.getRegionWidth() - 80) / 2) * 5;
+            }
+            interactSpot.set(X, Y);
+            interactArea.set(X, Y, 32*5, 32*5);
+            interactSpotValid = true;
         }
-        return new Vector2(X,Y);
+        return interactSpot;
+    }
+
+    /**
+     * Retrieves the area the player must be within to interact with the building.
+     * It is calculated once per position, so the returned rectangle must not be modified.
+     * @return The rectangle covering the area checked by inRange
+     */
+    public Rectangle getInteractArea() {
+        getInteractSpot();
+        return interactArea;
     }
 
     /**
@@ -7,15 +7,13 @@ package com.eng1.heslingtonhustle.building;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.maps.MapObject;
-import com.badlogic.gdx.maps.tiled.TiledMap;
-import com.badlogic.gdx.maps.tiled.TmxMapLoader;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.OrderedMap;
+import com.eng1.heslingtonhustle.helper.LoadProfiler;
 import com.eng1.heslingtonhustle.map.MapManager;
+import com.eng1.heslingtonhustle.map.SpatialGrid;
 import com.google.gson.Gson;
 
-import static com.eng1.heslingtonhustle.game.Game.SCALE;
-
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -27,53 +25,78 @@ import java.util.Map;
 public class BuildingManager {
 
     private final List<Building> campusBuildings;
+    private final SpatialGrid<Building> buildingGrid = new SpatialGrid<>();
     public static final String buildingInfo = "buildings.json";
 
     /**
      * Constructs a new BuildingManager and loads building information from a JSON file.
      * It creates building instances based on the loaded information.
+     * @param mapManager The MapManager, used to find where the buildings are placed on the campus map.
      */
-    public BuildingManager() {
-        Map<String, Building> buildingMap = loadBuildingInfo();
-        campusBuildings = createBuildings(buildingMap);
+    public BuildingManager(MapManager mapManager) {
+        this(mapManager, readBuildingInfo());
     }
 
     /**
-     * Loads building information from a JSON file and creates a map of building IDs to building instances.
-     * @return A map containing building IDs as keys and corresponding building instances as values
+     * Constructs a new BuildingManager from building information that has already been read.
+     * @param mapManager The MapManager, used to find where the buildings are placed on the campus map.
+     * @param buildingInfos The building information read by readBuildingInfo
      */
-    private static Map<String, Building> loadBuildingInfo() {
+    public BuildingManager(MapManager mapManager, BuildingInfo[] buildingInfos) {
+        Map<String, Building> buildingMap = createBuildingMap(buildingInfos);
+        campusBuildings = createBuildings(buildingMap, mapManager.getMap(MapManager.defaultMapPath).getBuildingCorners());
+        for (Building building : campusBuildings) {
+            buildingGrid.insert(building, building.getInteractArea());
+        }
+    }
+
+    /**
+     * Reads the building information from the JSON file. Nothing is loaded onto the GPU,
+     * so this can be called from a thread other than the render thread.
+     * @return The information of every building, or an empty array if the file can't be read
+     */
+    public static BuildingInfo[] readBuildingInfo() {
+        long start = LoadProfiler.begin();
         Gson gson = new Gson();
-        Map<String, Building> buildingMap = new HashMap<>();
         FileHandle fileHandle = Gdx.files.internal(buildingInfo);
 
         try (InputStream inputStream = fileHandle.read();
              InputStreamReader reader = new InputStreamReader(inputStream)) {
             BuildingInfo[] buildingInfos = gson.fromJson(reader, BuildingInfo[].class);
-            for (BuildingInfo buildingInfo : buildingInfos) {
-                buildingMap.put(buildingInfo.id, new Building(buildingInfo));
-            }
+            LoadProfiler.end("json", buildingInfo, start, fileHandle.length());
+            return buildingInfos;
         } catch (IOException e) {
             e.printStackTrace();
         }
+        return new BuildingInfo[0];
+    }
+
+    /**
+     * Creates a map of building IDs to building instances.
+     * @param buildingInfos The information of every building
+     * @return A map containing building IDs as keys and corresponding building instances as values
+     */
+    private static Map<String, Building> createBuildingMap(BuildingInfo[] buildingInfos) {
+        Map<String, Building> buildingMap = new HashMap<>();
+        for (BuildingInfo buildingInfo : buildingInfos) {
+            buildingMap.put(buildingInfo.id, new Building(buildingInfo));
+        }
         return buildingMap;
     }
 
     /**
      * Creates building instances based on the provided building map and campus layout.
      * @param buildingMap A map containing building IDs as keys and corresponding building instances as values
+     * @param buildingCorners The corners of the buildings on the campus map, in world units, keyed by building ID
      * @return A list of created building instances
      */
-    private List<Building> createBuildings(Map<String, Building> buildingMap) {
+    private List<Building> createBuildings(Map<String, Building> buildingMap, OrderedMap<String, Vector2> buildingCorners) {
         List<Building> buildings = new ArrayList<>();
-        TiledMap map = new TmxMapLoader().load(MapManager.defaultMapPath);
-        for (MapObject buildingCorner : (map.getLayers().get("buildingCorners").getObjects())) {
-            String id = (String) buildingCorner.getProperties().get("name");
+        for (OrderedMap.Entry<String, Vector2> buildingCorner : buildingCorners) {
+            String id = buildingCorner.key;
             if (buildingMap.containsKey(id)) {
-                float buildingX = Float.parseFloat(buildingCorner.getProperties().get("x").toString()) * SCALE;
-                float buildingY = Float.parseFloat(buildingCorner.getProperties().get("y").toString()) * SCALE;
                 Building building = buildingMap.get(id);
-                building.setPosition(new Vector2(buildingX, buildingY));
+                building.setPosition(new Vector2(buildingCorner.value));
                 buildings.add(building);
             }
         }
@@ -88,6 +111,14 @@ public class BuildingManager {
         return campusBuildings;
     }
 
+    /**
+     * Retrieves the spatial grid of campus buildings, indexed by the area they can be interacted with from.
+     * @return The grid of campus buildings
+     */
+    public SpatialGrid<Building> getBuildingGrid() {
+        return buildingGrid;
+    }
+
     /**
      * Sets the visibility of all campus buildings to false, making them disappear.
      */
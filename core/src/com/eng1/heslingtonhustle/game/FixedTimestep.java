@@ -0,0 +1,51 @@
+/**
+ * The FixedTimestep class decouples the simulation from the frame rate. Frame times are added up, and the
+ * simulation is advanced in ticks of a fixed length, so movement and collision behave the same at any refresh rate
+ * and the cost of the simulation does not grow with it. The time left over is used to interpolate what is drawn
+ * between the last two ticks. After a hitch, at most MAX_TICKS_PER_FRAME ticks are run and the rest of the time
+ * is dropped, so the game slows down for a moment instead of taking one huge step.
+ */
+package com.eng1.heslingtonhustle.game;
+
+public class FixedTimestep {
+    public static final int TICK_RATE = 60;
+    public static final float TICK_SECONDS = 1f / TICK_RATE;
+    public static final int MAX_TICKS_PER_FRAME = 5;
+
+    private float accumulator;
+
+    /**
+     * Adds the time the last frame took and retrieves how many ticks the simulation should be advanced by.
+     *
+     * @param deltaTime The time the last frame took, in seconds
+     * @return The number of ticks to run, from 0 to MAX_TICKS_PER_FRAME
+     */
+    public int advance(float deltaTime) {
+        accumulator += Math.max(0, deltaTime);
+        int ticks = (int) (accumulator / TICK_SECONDS);
+        if (ticks > MAX_TICKS_PER_FRAME) {
+            ticks = MAX_TICKS_PER_FRAME;
+            accumulator = 0;
+        } else {
+            accumulator -= ticks * TICK_SECONDS;
+        }
+        return ticks;
+    }
+
+    /**
+     * Retrieves how far the time left over is through the next tick,
+     * which is how far between the last two ticks the scene should be drawn.
+     *
+     * @return The fraction of a tick left over, from 0 to 1
+     */
+    public float getAlpha() {
+        return Math.min(1, accumulator / TICK_SECONDS);
+    }
+
+    /**
+     * Drops any time left over, such as when the game is started or restarted.
+     */
+    public void reset() {
+        accumulator = 0;
+    }
+}
@@ -13,6 +13,7 @@ import com.badlogic.gdx.Preferences;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
@@ -24,12 +25,19 @@ import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.async.AsyncResult;
 import com.eng1.heslingtonhustle.building.Building;
+import com.eng1.heslingtonhustle.building.BuildingInfo;
 import com.eng1.heslingtonhustle.building.BuildingManager;
 import com.eng1.heslingtonhustle.graphics.CameraManager;
+import com.eng1.heslingtonhustle.graphics.DynamicResolution;
 import com.eng1.heslingtonhustle.graphics.RenderingManager;
+import com.eng1.heslingtonhustle.helper.AssetRegistry;
+import com.eng1.heslingtonhustle.helper.LoadProfiler;
 import com.eng1.heslingtonhustle.helper.ResourceLoader;
 import com.eng1.heslingtonhustle.helper.ScoreManager;
+import com.eng1.heslingtonhustle.map.MapCache;
 import com.eng1.heslingtonhustle.map.MapManager;
 import com.eng1.heslingtonhustle.player.InputHandler;
 import com.eng1.heslingtonhustle.player.PlayerManager;
@@ -38,6 +46,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Objects;
 
 public class Game extends ApplicationAdapter {
 
@@ -50,6 +59,18 @@ public class Game extends ApplicationAdapter {
     public CameraManager cameraManager;
     public GameManager gameManager;
     public MapManager mapManager;
+    public RenderScheduler renderScheduler;
+    public final FixedTimestep fixedTimestep = new FixedTimestep();
+    public final SubsystemScheduler subsystemScheduler = new SubsystemScheduler();
+    // Builds the world behind the title screen
+    public final StartupLoader startupLoader = new StartupLoader();
+    private BuildingManager buildingManager;
+    private boolean firstFrameRendered;
+    // Where the player starts, and is put back when the game is restarted
+    private final Vector2 spawn = new Vector2();
+    // How many times a second the player is checked against buildings and zones, and the HUD is checked for changes
+    public static final float PROXIMITY_RATE = 20;
+    public static final float HUD_RATE = 10;
     public static final String bgMusic = "bgtrack.mp3";
     public Music backgroundMusic;
 
@@ -63,19 +84,25 @@ public class Game extends ApplicationAdapter {
     public Table leaderboard;
     public ResourceLoader resourceLoader;
     private Texture tutorialTexture;
+    private Texture backgroundTexture;
+    // The paths of the assets this game holds, released when it is restarted or closed
+    private final Array<String> acquiredAssets = new Array<>();
     private int tutorialWidth = 1440;
     private int tutorialHeight = 810;
 
     /**
-     * Initialises the game.
+     * Initialises the game. Only the title screen is created before the first frame,
+     * and the world is built behind it over the frames that follow.
      */
     @Override
     public void create() {
+        long start = LoadProfiler.begin();
     	isStartGame = false;
     	showTutorial = false;
-    	menuSkin = new Skin(Gdx.files.internal(menuSkinPath));
+    	menuSkin = acquire(menuSkinPath, Skin.class);
     	resourceLoader = new ResourceLoader();
-    	tutorialTexture = new Texture(Gdx.files.internal(tutorialImage));
+    	tutorialTexture = acquire(tutorialImage, Texture.class);
+    	backgroundTexture = acquire(backgroundPath, Texture.class);
     	
     	// Load saved user settings
         Preferences prefs = Gdx.app.getPreferences("HeslingtonHustleData");
@@ -91,30 +118,18 @@ public class Game extends ApplicationAdapter {
         }
     	
         // Import and play background music
-        backgroundMusic = Gdx.audio.newMusic(Gdx.files.internal(bgMusic));
+        backgroundMusic = acquire(bgMusic, Music.class);
         backgroundMusic.play();
         backgroundMusic.setLooping(true);
         backgroundMusic.setVolume(prefs.getFloat("volume", 0.5f));
 
-        // Create manager objects
-        cameraManager = new CameraManager();
-        mapManager = new MapManager();
-        BuildingManager buildingManager = new BuildingManager();
-        stage = new Stage(cameraManager.getViewport());
-
-        // Set spawn location and spawn player
-        Vector2 spawn = new Vector2(6200, 1780);
-        playerManager = new PlayerManager(spawn, 320 * 2, this);
-
-        // Set tile collision fields
-        playerManager.getMovement().setCollidableTiles(mapManager.getCollidableTiles());
-
-        // Initialise buildings
-        buildings = buildingManager.getCampusBuildings();
-        renderingManager = new RenderingManager(cameraManager, mapManager, playerManager, this);
-        gameManager = new GameManager(stage, mapManager, playerManager, buildingManager, renderingManager);
+        LoadProfiler.end("startup", "menu assets", start, 0);
 
+        // Only the title screen is created here, and the world is built behind it by the StartupLoader
+        long menuStart = LoadProfiler.begin();
+        cameraManager = new CameraManager();
         menuStage = new Stage(cameraManager.getViewport());
+        renderScheduler = new RenderScheduler(menuStage);
         
     	// Start menu
         CreateLeaderboard();
@@ -122,17 +137,24 @@ public class Game extends ApplicationAdapter {
         
         Table rootTable = new Table(menuSkin);
         rootTable.setFillParent(true);
-        rootTable.background(new TextureRegionDrawable(new Texture(backgroundPath)));
+        TextureRegionDrawable backgroundDrawable = new TextureRegionDrawable(backgroundTexture);
+        TextureRegionDrawable tutorialDrawable = new TextureRegionDrawable(tutorialTexture);
+        rootTable.background(backgroundDrawable);
 
         rootTable.add("HESLINGTON HUSTLE").pad(64).row();
-        TextButton startButton = new TextButton("START", menuSkin);
+        TextButton startButton = new TextButton("LOADING", menuSkin);
+        startButton.setDisabled(true);
         startButton.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent event, float x, float y) {
+                if (!startupLoader.isFinished()) {
+                    return;
+                }
             	prefs.putFloat("volume", backgroundMusic.getVolume());
             	prefs.putBoolean("fullscreen", Gdx.graphics.isFullscreen());
             	prefs.flush();
                 isStartGame = true;
+                fixedTimestep.reset();
             }
         });
         rootTable.add(startButton).pad(16).row();
@@ -142,9 +164,11 @@ public class Game extends ApplicationAdapter {
             @Override
             public void clicked(InputEvent event, float x, float y) {
             	resourceLoader.character++;
-            	if(resourceLoader.character == 4) resourceLoader.character = 1;
+            	if(resourceLoader.character > ResourceLoader.CHARACTER_COUNT) resourceLoader.character = 1;
             	changeCharacterButton.setText("CHARACTER " + resourceLoader.character);
-            	playerManager.movement.refreshAnimations();
+            	if (playerManager != null) {
+            	    playerManager.movement.refreshAnimations();
+            	}
             }
         });
         rootTable.add(changeCharacterButton).pad(16).row();
@@ -187,6 +211,10 @@ public class Game extends ApplicationAdapter {
                 Gdx.graphics.setForegroundFPS(frameRateList[frameRateIndex % frameRateList.length]);
                 frameRateButton.setText("FRAME RATE: " + frameRateList[frameRateIndex % frameRateList.length] + " HZ");
                 prefs.putInteger("FPS", frameRateList[frameRateIndex % frameRateList.length]);
+                DynamicResolution dynamicResolution = getDynamicResolution();
+                if (dynamicResolution != null) {
+                    dynamicResolution.setTargetFrameRate(frameRateList[frameRateIndex % frameRateList.length]);
+                }
                 frameRateIndex++;
             }
         });
@@ -212,7 +240,7 @@ public class Game extends ApplicationAdapter {
             	showTutorial = false;
             	menuStage.addActor(rootTable);
             	menuStage.addActor(leaderboard);
-            	rootTable.background(new TextureRegionDrawable(new Texture(backgroundPath)));
+            	rootTable.background(backgroundDrawable);
             }
         });
         
@@ -221,7 +249,7 @@ public class Game extends ApplicationAdapter {
             @Override
             public void clicked(InputEvent event, float x, float y) {
                 showTutorial = true;
-                rootTable.background(new TextureRegionDrawable(new Texture(tutorialImage)));
+                rootTable.background(tutorialDrawable);
                 rootTable.remove();
                 leaderboard.remove();
                 menuStage.addActor(returnButton);
@@ -245,9 +273,103 @@ public class Game extends ApplicationAdapter {
         menuStage.addActor(rootTable);
         menuStage.addActor(leaderboard);
         
+        // The menu takes input until the world is ready
+        Gdx.input.setInputProcessor(menuStage);
+        queueWorldStartup(prefs, optionDialog, startButton);
+        LoadProfiler.end("startup", "menu", menuStart, 0);
+        LoadProfiler.mark("created");
+    }
 
-        // Initialise input system
-        inputSetup();
+    /**
+     * Queues the stages that build the world behind the title screen. The campus map and the building information
+     * are read on background threads. The work that needs the GL context, such as the sprites, shaders and
+     * framebuffers, is spread over the frames the menu is drawn on. START is enabled once everything is ready.
+     *
+     * @param prefs        The saved user settings
+     * @param optionDialog The options dialog, which the dynamic resolution setting is added to
+     * @param startButton  The START button
+     */
+    private void queueWorldStartup(Preferences prefs, Dialog optionDialog, TextButton startButton) {
+        AsyncResult<BuildingInfo[]> buildingInfo = startupLoader.submit(BuildingManager::readBuildingInfo);
+        startupLoader.add("map", () -> {
+            mapManager = new MapManager(MapCache.DEFAULT_BUDGET_BYTES, false);
+            return true;
+        });
+        startupLoader.add("campus", () -> {
+            mapManager.update(Gdx.graphics.getDeltaTime());
+            return mapManager.isReady();
+        });
+        startupLoader.add("sprites", () -> {
+            ResourceLoader.getAtlas();
+            return true;
+        });
+        startupLoader.add("buildings", () -> {
+            if (!buildingInfo.isDone()) {
+                return false;
+            }
+            buildingManager = new BuildingManager(mapManager, buildingInfo.get());
+            buildings = buildingManager.getCampusBuildings();
+            return true;
+        });
+        startupLoader.add("player", () -> {
+            // Set spawn location and spawn player
+            spawn.set(6200, 1780);
+            playerManager = new PlayerManager(new Vector2(spawn), 320 * 2, this);
+            playerManager.getMovement().setCollisionGrid(mapManager.getCollisionGrid());
+            return true;
+        });
+        startupLoader.add("rendering", () -> {
+            stage = new Stage(cameraManager.getViewport());
+            renderingManager = new RenderingManager(cameraManager, mapManager, playerManager, this);
+            renderingManager.getGameUI().getUiStage().getViewport().update(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+            return true;
+        });
+        startupLoader.add("game", () -> {
+            gameManager = new GameManager(stage, mapManager, playerManager, buildingManager, renderingManager);
+            DynamicResolution dynamicResolution = renderingManager.getDynamicResolution();
+            if (dynamicResolution != null) {
+                dynamicResolution.setTargetFrameRate(prefs.getInteger("FPS", 60));
+                dynamicResolution.setEnabled(prefs.getBoolean("dynamicResolution", true));
+                addDynamicResolutionOption(optionDialog, dynamicResolution, prefs);
+            }
+            renderScheduler.watch(stage);
+            renderScheduler.watch(renderingManager.getGameUI().getUiStage());
+            registerSubsystems();
+            inputSetup();
+            startButton.setText("START");
+            startButton.setDisabled(false);
+            return true;
+        });
+    }
+
+    /**
+     * Adds the setting to turn dynamic resolution on and off to the options dialog.
+     *
+     * @param optionDialog      The options dialog
+     * @param dynamicResolution The dynamic resolution of the world
+     * @param prefs             The saved user settings
+     */
+    private void addDynamicResolutionOption(Dialog optionDialog, DynamicResolution dynamicResolution, Preferences prefs) {
+        TextButton dynamicResolutionButton = new TextButton("DYNAMIC RESOLUTION: OFF", menuSkin);
+        if (dynamicResolution.isEnabled()) dynamicResolutionButton.setText("DYNAMIC RESOLUTION: ON");
+        dynamicResolutionButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                dynamicResolution.setEnabled(!dynamicResolution.isEnabled());
+                dynamicResolutionButton.setText("DYNAMIC RESOLUTION: " + (dynamicResolution.isEnabled() ? "ON" : "OFF"));
+                prefs.putBoolean("dynamicResolution", dynamicResolution.isEnabled());
+            }
+        });
+        optionDialog.getContentTable().add(dynamicResolutionButton).pad(16).row();
+    }
+
+    /**
+     * Retrieves the dynamic resolution of the world.
+     *
+     * @return The dynamic resolution, or null if the world has not been built yet or it could not be set up
+     */
+    private DynamicResolution getDynamicResolution() {
+        return renderingManager == null ? null : renderingManager.getDynamicResolution();
     }
 
     /**
@@ -261,21 +383,35 @@ public class Game extends ApplicationAdapter {
         // Create manager objects
     	resourceLoader = new ResourceLoader();
         cameraManager = new CameraManager();
-        MapManager mapManager = new MapManager(mapRendererMock);
-        BuildingManager buildingManager = new BuildingManager();
+        mapManager = new MapManager(mapRendererMock);
+        BuildingManager buildingManager = new BuildingManager(mapManager);
         stage = stageMock;
+        isStartGame = true;
 
         // Set spawn location and spawn player
-        Vector2 spawn = new Vector2(4608, 960);
-        playerManager = new PlayerManager(spawn, 320 * 2, this);
+        spawn.set(4608, 960);
+        playerManager = new PlayerManager(new Vector2(spawn), 320 * 2, this);
 
         // Set tile collision fields
-        playerManager.getMovement().setCollidableTiles(mapManager.getCollidableTiles());
+        playerManager.getMovement().setCollisionGrid(mapManager.getCollisionGrid());
 
         // Initialise buildings
         buildings = buildingManager.getCampusBuildings();
         renderingManager = new RenderingManager(cameraManager, mapManager, playerManager, spriteBatchMock);
         gameManager = new GameManager(stage, mapManager, playerManager, buildingManager, renderingManager);
+        renderScheduler = new RenderScheduler(renderingManager.getGameUI().getUiStage());
+        registerSubsystems();
+    }
+
+    /**
+     * Registers the parts of the simulation with the scheduler, each at the rate it needs to run.
+     * Only movement runs on every tick.
+     */
+    private void registerSubsystems() {
+        subsystemScheduler.clear();
+        subsystemScheduler.register("movement", SubsystemScheduler.EVERY_TICK, delta -> playerManager.getMovement().update(delta));
+        subsystemScheduler.register("proximity", PROXIMITY_RATE, delta -> gameManager.update());
+        subsystemScheduler.register("hud", HUD_RATE, delta -> renderingManager.getGameUI().updateProgressBar());
     }
 
     /*
@@ -298,10 +434,82 @@ public class Game extends ApplicationAdapter {
     @Override
     public void resize(int width, int height) {
         cameraManager.getViewport().update(width, height, true);
-        renderingManager.getGameUI().getUiStage().getViewport().update(width, height);
+        if (renderingManager != null) {
+            renderingManager.getGameUI().getUiStage().getViewport().update(width, height);
+        }
         menuStage.getViewport().update(width, height, true);
     }
     
+    /**
+     * Restarts the game from the title screen. Only the state of the session is reset,
+     * so the maps, textures, skins, music and shaders already loaded are kept.
+     */
+    public void restart() {
+        backgroundMusic.stop();
+        backgroundMusic.play();
+        resetSession();
+        isStartGame = false;
+        showTutorial = false;
+
+        // Scores may have been saved, so the leaderboard is built again
+        leaderboard.remove();
+        CreateLeaderboard();
+        menuStage.addActor(leaderboard);
+    }
+
+    /**
+     * Resets the player, the map, the buildings and the HUD to how they are at the start of a game.
+     */
+    public void resetSession() {
+        gameManager.reset(spawn);
+        fixedTimestep.reset();
+    }
+
+    /**
+     * Disposes everything the game holds when it closes.
+     */
+    @Override
+    public void dispose() {
+        if (renderingManager != null) {
+            renderingManager.dispose();
+        }
+        if (gameManager != null) {
+            gameManager.dispose();
+        }
+        if (mapManager != null) {
+            mapManager.dispose();
+        }
+        startupLoader.dispose();
+        releaseAll(acquiredAssets);
+        ResourceLoader.dispose();
+        AssetRegistry.dispose();
+    }
+
+    /**
+     * Acquires an asset from the AssetRegistry, to be released when the game is restarted or closed.
+     *
+     * @param path The path of the asset
+     * @param type The type of the asset
+     * @param <T>  The type of the asset
+     * @return The shared instance of the asset
+     */
+    private <T> T acquire(String path, Class<T> type) {
+        acquiredAssets.add(path);
+        return AssetRegistry.acquire(path, type);
+    }
+
+    /**
+     * Releases assets acquired by the game.
+     *
+     * @param paths The paths of the assets, which is cleared
+     */
+    private static void releaseAll(Array<String> paths) {
+        for (int i = 0; i < paths.size; i++) {
+            AssetRegistry.release(paths.get(i));
+        }
+        paths.clear();
+    }
+
     /**
      * Renders the game and its components. Called every frame.
      */
@@ -311,17 +519,35 @@ public class Game extends ApplicationAdapter {
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
         float deltaTime = Gdx.graphics.getDeltaTime();
         if (isStartGame) {
-            playerManager.getMovement().update(deltaTime);
-            gameManager.update();
+            long frameStart = System.nanoTime();
+            // The first frame after rendering was idle, and frames that load or change the map, are not timed
+            boolean timed = !renderScheduler.isIdle() && !mapManager.isLoading();
+            String mapPath = mapManager.currentMapPath;
+            mapManager.update(deltaTime);
+            timed &= Objects.equals(mapPath, mapManager.currentMapPath);
+            int ticks = fixedTimestep.advance(deltaTime);
+            for (int i = 0; i < ticks; i++) {
+                subsystemScheduler.update(FixedTimestep.TICK_SECONDS);
+            }
+            playerManager.getMovement().interpolate(fixedTimestep.getAlpha());
             renderingManager.render(buildings, playerManager);
             stage.act();
             stage.draw();
+
+            // Only the frame's work is timed, not the wait for vsync or the frame rate limit
+            DynamicResolution dynamicResolution = getDynamicResolution();
+            if (timed && dynamicResolution != null) {
+                dynamicResolution.update((System.nanoTime() - frameStart) / 1e9f);
+            }
         }
         
         else if(showTutorial) {
-        	renderingManager.batch.begin();
-        	renderingManager.batch.draw(tutorialTexture, 0, 0, tutorialWidth, tutorialHeight);
-        	renderingManager.batch.end();
+        	// Drawn in screen pixels with the menu's batch, which sets its own projection again when the menu is drawn
+        	Batch batch = menuStage.getBatch();
+        	batch.getProjectionMatrix().setToOrtho2D(0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        	batch.begin();
+        	batch.draw(tutorialTexture, 0, 0, tutorialWidth, tutorialHeight);
+        	batch.end();
         	
             menuStage.act();
             menuStage.draw();
@@ -331,6 +557,31 @@ public class Game extends ApplicationAdapter {
             menuStage.act();
             menuStage.draw();
         }
+
+        if (!firstFrameRendered) {
+            firstFrameRendered = true;
+            LoadProfiler.mark("firstFrame");
+        }
+
+        // The world is built after the menu has been drawn, so the menu is shown as soon as possible
+        if (!startupLoader.isFinished() && startupLoader.update()) {
+            LoadProfiler.mark("worldReady");
+            LoadProfiler.writeReport();
+        }
+        renderScheduler.update(isSceneStatic());
+    }
+
+    /**
+     * Checks whether nothing on screen changes without input, which is the case in the menus,
+     * while the game is paused and on the end screen, unless the map is still changing.
+     *
+     * @return True if the scene is static, otherwise false.
+     */
+    public boolean isSceneStatic() {
+        if (!isStartGame) {
+            return startupLoader.isFinished();
+        }
+        return !playerManager.getMovement().movementEnabled && !mapManager.isTransitioning() && !mapManager.isLoading();
     }
     
     /**
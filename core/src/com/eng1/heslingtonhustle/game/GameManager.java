@@ -4,7 +4,6 @@
  */
 package com.eng1.heslingtonhustle.game;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.math.Interpolation;
 import com.badlogic.gdx.math.Rectangle;
@@ -12,20 +11,22 @@ import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.actions.Actions;
 import com.badlogic.gdx.scenes.scene2d.ui.Dialog;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.utils.Timer;
 import com.eng1.heslingtonhustle.building.Building;
 import com.eng1.heslingtonhustle.building.BuildingManager;
 import com.eng1.heslingtonhustle.gameobjects.Day;
+import com.eng1.heslingtonhustle.helper.AssetRegistry;
 import com.eng1.heslingtonhustle.graphics.RenderingManager;
 import com.eng1.heslingtonhustle.map.ActivityTile;
 import com.eng1.heslingtonhustle.map.MapManager;
+import com.eng1.heslingtonhustle.map.MapPrefetcher;
+import com.eng1.heslingtonhustle.map.TriggerVolumes;
 import com.eng1.heslingtonhustle.player.PlayerManager;
 import com.eng1.heslingtonhustle.activities.Activity;
 import com.eng1.heslingtonhustle.activities.Relax;
 
-import java.util.List;
-
 import static com.badlogic.gdx.scenes.scene2d.actions.Actions.sequence;
 
 public class GameManager {
@@ -34,11 +35,47 @@ public class GameManager {
     public final PlayerManager playerManager;
     private final BuildingManager buildingManager;
     private final RenderingManager renderingManager;
+    private final MapPrefetcher mapPrefetcher;
+    private final Skin dialogSkin;
+    private final Label activityLabel;
+    private final Dialog activityDialog;
+    private final Dialog errorDialog;
+    private Activity pendingActivity;
     private Vector2 respawnLocation;
     private boolean playerInBuilding = false;
     private Building currentBuilding;
+    private final TriggerVolumes<Building> buildingTriggers;
+    private final TriggerVolumes<Rectangle> exitTriggers;
+    private final TriggerVolumes<ActivityTile> activityTriggers;
     
     
+    // The fade actions are taken from the scene2d action pools and returned to them once they finish
+    private final Timer.Task showActivityTask = new Timer.Task() {
+        @Override
+        public void run() {
+            Vector2 playerPosition = playerManager.getPosition();
+            activityDialog.show(stage, sequence(Actions.alpha(0), Actions.fadeIn(0.4f, Interpolation.fade)));
+            activityDialog.setPosition(playerPosition.x - 225, playerPosition.y + 50);
+            activityDialog.setSize(450, 100);
+        }
+    };
+    private final Timer.Task showErrorTask = new Timer.Task() {
+        @Override
+        public void run() {
+            Vector2 playerPosition = playerManager.getPosition();
+            errorDialog.show(stage, sequence(Actions.alpha(0), Actions.fadeIn(0.1f, Interpolation.fade), Actions.delay(.25f),
+                    Actions.fadeOut(0.1f, Interpolation.fade), Actions.removeActor()));
+            errorDialog.setSize(200, 100);
+            errorDialog.setPosition(playerPosition.x - 100, playerPosition.y + 50);
+        }
+    };
+    private final Timer.Task leftMenuTask = new Timer.Task() {
+        @Override
+        public void run() {
+            playerManager.getState().leftMenu();
+        }
+    };
+
     public static final String uiSkin = "skin/default/uiskin.json";
 
     /**
@@ -57,68 +94,158 @@ public class GameManager {
         Day day = new Day();
         playerManager.setCurrentDay(day);
         this.renderingManager = renderManager;
+        this.mapPrefetcher = new MapPrefetcher(mapManager);
+        this.dialogSkin = AssetRegistry.acquire(uiSkin, Skin.class);
+
+        // The dialogs are built once and shown again whenever they are needed
+        activityLabel = new Label("", dialogSkin);
+        activityDialog = createActivityDialog();
+        errorDialog = createErrorDialog();
+
+        // Buildings can be entered on campus, and exit and activity tiles are only used inside buildings
+        buildingTriggers = new TriggerVolumes<>(buildingManager.getBuildingGrid());
+        exitTriggers = new TriggerVolumes<>(mapManager.getExitGrid());
+        activityTriggers = new TriggerVolumes<>(mapManager.getActivityGrid());
+        exitTriggers.setEnabled(false);
+        activityTriggers.setEnabled(false);
+        renderingManager.watchBuildingTriggers(buildingTriggers);
+        renderingManager.getGameUI().watchInteractTriggers(buildingTriggers);
+        renderingManager.getGameUI().watchInteractTriggers(exitTriggers);
+        renderingManager.getGameUI().watchInteractTriggers(activityTriggers);
+    }
+
+    /**
+     * Cancels any dialog tasks still waiting to run and releases the skin the dialogs are built with.
+     */
+    public void dispose() {
+        showActivityTask.cancel();
+        showErrorTask.cancel();
+        leftMenuTask.cancel();
+        AssetRegistry.release(uiSkin);
+    }
+
+    /**
+     * Starts a new session without loading anything again. Any map transition is finished, the campus is shown
+     * with its buildings, the dialogs are taken down and the player is put back at the spawn point on the first day.
+     * @param spawn The position the player starts at
+     */
+    public void reset(Vector2 spawn) {
+        showActivityTask.cancel();
+        showErrorTask.cancel();
+        leftMenuTask.cancel();
+        activityDialog.remove();
+        errorDialog.remove();
+        pendingActivity = null;
+
+        mapManager.finishTransition();
+        if (!mapManager.currentMapPath.equals(MapManager.defaultMapPath)) {
+            mapManager.changeMapToCampus();
+        }
+        buildingManager.makeBuildingsAppear();
+        playerInBuilding = false;
+        currentBuilding = null;
+        respawnLocation = null;
+        exitTriggers.setEnabled(false);
+        activityTriggers.setEnabled(false);
+        buildingTriggers.reset();
+        buildingTriggers.setEnabled(true);
+
+        playerManager.reset(spawn);
+        renderingManager.reset();
     }
 
     /**
-     * Checks if any building is within the player's interaction range.
+     * Retrieves the building whose interaction range the player is in.
      * @return The building in range, or null if none.
      */
     public Building checkForBuildingInRange() {
-        List<Building> buildings = buildingManager.getCampusBuildings();
-        Vector2 position = playerManager.getPosition();
-        for (Building building : buildings) {
-            if (building.inRange(position)) {
-                return building;
-            }
-        }
-        return null;
+        return buildingTriggers.first();
     }
 
     /**
-     * Interacts with the specified building if the player is in the INTERACTING state.
+     * Interacts with the specified building if the player is pressing the interact key, or has pressed it since the last update.
      * @param building The building to interact with
      */
     public void interactWithBuilding(Building building) {
-        if (playerManager.getState().isINTERACTING()) {
+        if (playerManager.getState().isInteractPressed()) {
             playerManager.getState().stopInteracting();
             enterBuilding(building);
         }
     }
     
     /**
-     * Shows an error dialog indicating that the player can't perform an activity.
+     * Shows the error dialog indicating that the player can't perform an activity,
+     * returning the player from the menu state once it has faded out.
      */
     private void showErrorDialog() {
-        Dialog dialog = createDialog();
-        Timer.schedule(new Timer.Task() {
-            @Override
-            public void run() {
-                dialog.show(stage, sequence(Actions.alpha(0), Actions.fadeIn(0.1f, Interpolation.fade), Actions.delay(.25f), Actions.fadeOut(0.1f, Interpolation.fade)));
-            }
-        }, 0f);
-        Timer.schedule(new Timer.Task() {
-            @Override
-            public void run() {
-                playerManager.getState().leftMenu();
-            }
-        }, .45f);
+        schedule(showErrorTask, 0f);
+        schedule(leftMenuTask, .45f);
     }
 
     /**
-     * Creates a dialog with an error message.
+     * Creates the dialog shown when an activity can't be performed. It is built once and shown again each time.
      * @return The created dialog.
      */
-    public Dialog createDialog() {
-        Skin skin = new Skin(Gdx.files.internal(uiSkin));
-        Dialog dialog = new Dialog("Can't do activity.", skin);
+    private Dialog createErrorDialog() {
+        Dialog dialog = new Dialog("Can't do activity.", dialogSkin);
         dialog.text("Can't perform activity.");
-        dialog.setSize(200, 100);
-        dialog.setPosition(playerManager.getPosition().x - 100, playerManager.getPosition().y + 50);
         return dialog;
     }
 
     /**
-     * Enters the specified building, changes the map, and updates player state.
+     * Creates the dialog asking the player whether to perform an activity. It is built once,
+     * and its text is changed to the activity being asked about each time it is shown.
+     * @return The created dialog.
+     */
+    private Dialog createActivityDialog() {
+        Dialog dialog = new Dialog("Activity", dialogSkin) {
+            @Override
+            protected void result(Object object) {
+                Activity activity = pendingActivity;
+                pendingActivity = null;
+                boolean choice = (Boolean) object;
+                if (!choice || activity == null) {
+                    playerManager.getState().leftMenu();
+                    return;
+                }
+                handleActivity(activity);
+            }
+        };
+        dialog.text(activityLabel);
+        dialog.button("Yes", true);
+        dialog.button("No", false);
+        return dialog;
+    }
+
+    /**
+     * Schedules a task, cancelling it first if it is still waiting to run, as a task can only be scheduled once at a time.
+     * @param task The task to schedule
+     * @param delaySeconds How long to wait before running the task, in seconds
+     */
+    private void schedule(Timer.Task task, float delaySeconds) {
+        task.cancel();
+        Timer.schedule(task, delaySeconds);
+    }
+
+    /**
+     * Retrieves the dialog asking the player whether to perform an activity.
+     * @return The activity dialog
+     */
+    public Dialog getActivityDialog() {
+        return activityDialog;
+    }
+
+    /**
+     * Retrieves the dialog shown when an activity can't be performed.
+     * @return The error dialog
+     */
+    public Dialog getErrorDialog() {
+        return errorDialog;
+    }
+
+    /**
+     * Enters the specified building. The building's map is loaded in the background behind a fade,
+     * and the player stays in the menu state until the transition has finished.
      * @param building The building to enter
      */
     private void enterBuilding(Building building) {
@@ -133,58 +260,36 @@ public class GameManager {
         respawnLocation = new Vector2(playerManager.getPosition());
         playerInBuilding = true;
         currentBuilding = building;
+        buildingTriggers.setEnabled(false);
         
-        mapManager.changeMap(newMapPath);
-        buildingManager.makeBuildingsDisappear();
-        playerManager.movement.setPosition(new Vector2(400, 150));
-        Timer.schedule(new Timer.Task() {
-            @Override
-            public void run() {
-                playerManager.getState().leftMenu();
-            }
-        }, .05f);
-    }
-
-    /**
-     * Checks if the player is within an exit zone.
-     * @param position The position to check
-     * @return True if the player is within an exit zone, otherwise false
-     */
-    private boolean playerInExitZone(Vector2 position) {
-        for (Rectangle exitZone : mapManager.getExitTiles()) {
-            if (exitZone.contains(position.x, position.y)) {
-                return true;
-            }
-        }
-        return false;
+        mapPrefetcher.mapEntered(newMapPath);
+        mapManager.transitionTo(newMapPath, () -> {
+            buildingManager.makeBuildingsDisappear();
+            playerManager.movement.setPosition(new Vector2(400, 150));
+            exitTriggers.setEnabled(true);
+            activityTriggers.setEnabled(true);
+        }, () -> playerManager.getState().leftMenu());
     }
 
     /**
-     * Exits the current building if the player is in the INTERACTING state and within an exit zone.
+     * Exits the current building if the player is pressing the interact key, or has pressed it since the last update.
+     * Called while the player is within an exit zone.
+     * The campus map fades in once it is ready, and the player stays in the menu state until then.
      */
     private void exitBuilding() {
-        if (playerManager.getState().isINTERACTING() && playerInExitZone(playerManager.getPosition())) {
+        if (playerManager.getState().isInteractPressed()) {
             playerManager.getState().stopInteracting();
+            playerManager.getState().inMenu();
             playerInBuilding = false;
             currentBuilding = null;
-            mapManager.changeMapToCampus();
-            playerManager.movement.setPosition(respawnLocation);
-            buildingManager.makeBuildingsAppear();
-        }
-    }
-
-    /**
-     * Checks if the player is within an activity zone.
-     * @param position The position to check
-     * @return The ActivityTile if the player is within an activity zone, otherwise null
-     */
-    private ActivityTile playerInActivityZone(Vector2 position) {
-        for (ActivityTile activityZone : mapManager.getActivityTiles()) {
-            if (activityZone.getRectangle().contains(position.x, position.y)) {
-                return activityZone;
-            }
+            exitTriggers.setEnabled(false);
+            activityTriggers.setEnabled(false);
+            mapManager.transitionTo(MapManager.defaultMapPath, () -> {
+                playerManager.movement.setPosition(respawnLocation);
+                buildingManager.makeBuildingsAppear();
+                buildingTriggers.setEnabled(true);
+            }, () -> playerManager.getState().leftMenu());
         }
-        return null;
     }
 
     /**
@@ -214,40 +319,37 @@ public class GameManager {
         renderingManager.hidePlayer();
         playerManager.getMovement().disableMovement();
         playerManager.getState().inMenu();
+        buildingTriggers.setEnabled(false);
+        exitTriggers.setEnabled(false);
+        activityTriggers.setEnabled(false);
         renderingManager.getGameUI().showScore(playerManager.getWeek());
     }
 
     /**
-     * Updates the game state, checking for player interactions with buildings and activities,
-     * and updating the UI accordingly.
+     * Updates the game state, finding the buildings and zones the player has walked into or out of
+     * and checking for player interactions with them. The interact message and building outlines
+     * follow the same trigger volumes, so they are only changed when the player enters or leaves one.
+     * A press of the interact key since the last update is acted on even if the key has since been released,
+     * and dropped afterwards if there was nothing to interact with.
      */
     public void update() {
-        boolean displayInteract = false;
-        if (!playerInBuilding) {
-            Building building = checkForBuildingInRange();
-            if (checkForBuildingInRange() != null) {
-                interactWithBuilding(building);
-                displayInteract = true;
-            }
-        } else {
-            ActivityTile activityTile = playerInActivityZone(playerManager.getPosition());
-            if (playerInExitZone(playerManager.getPosition())) {
-                displayInteract = true;
-                exitBuilding();
-            } else if (activityTile != null) {
-                askToDoActivity(currentBuilding.getActivity());
-                renderingManager.getGameUI().showInteractMessage();
-                renderingManager.getGameUI().updateProgressBar();
-                displayInteract = true;
-            }
+        Vector2 position = playerManager.getPosition();
+        if (!playerInBuilding && !mapManager.isTransitioning()) {
+            mapPrefetcher.update(buildingManager.getCampusBuildings(), position);
         }
+        buildingTriggers.update(position);
+        exitTriggers.update(position);
+        activityTriggers.update(position);
 
-        if (displayInteract) {
-            renderingManager.getGameUI().showInteractMessage();
-        }
-        else {
-            renderingManager.getGameUI().hideInteractMessage();
+        Building building = buildingTriggers.first();
+        if (building != null) {
+            interactWithBuilding(building);
+        } else if (exitTriggers.first() != null) {
+            exitBuilding();
+        } else if (activityTriggers.first() != null) {
+            askToDoActivity(currentBuilding.getActivity());
         }
+        playerManager.getState().interactionsChecked();
     }
 
     /**
@@ -256,35 +358,12 @@ public class GameManager {
      * @param activity The activity to ask about
      */
     private void askToDoActivity(Activity activity) {
-        if (playerManager.getState().isINTERACTING()) {
+        if (playerManager.getState().isInteractPressed()) {
             playerManager.getState().stopInteracting();
             playerManager.getState().inMenu();
-            Vector2 playerPosition = playerManager.getPosition();
-            Skin skin = new Skin(Gdx.files.internal(uiSkin));
-            Dialog dialog = new Dialog("Activity", skin) {
-                @Override
-                protected void result(Object object) {
-                    boolean choice = (Boolean) object;
-                    if (!choice) {
-                        playerManager.getState().leftMenu();
-                        return;
-                    }
-                    handleActivity(activity);
-                }
-            };
-            dialog.text(activity.toString());
-            dialog.button("Yes", true);
-            dialog.button("No", false);
-            dialog.show(stage);
-
-            Timer.schedule(new Timer.Task() {
-                @Override
-                public void run() {
-                    dialog.show(stage, sequence(Actions.alpha(0), Actions.fadeIn(0.4f, Interpolation.fade)));
-                    dialog.setPosition(playerPosition.x - 225, playerPosition.y + 50);
-                    dialog.setSize(450, 100);
-                }
-            }, 0);
+            pendingActivity = activity;
+            activityLabel.setText(activity.toString());
+            schedule(showActivityTask, 0);
         }
     }
 }
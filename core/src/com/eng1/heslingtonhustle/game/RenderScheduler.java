@@ -0,0 +1,95 @@
+/**
+ * The RenderScheduler class stops the game rendering continuously while nothing on screen can change by itself,
+ * such as on the title screen, in the tutorial, while paused and on the end screen.
+ * While idle, frames are only rendered when there is input or something asks for one, such as a text field's cursor
+ * blinking, and continuous rendering at the player's frame rate resumes as soon as the game is played again.
+ * Stages are watched for running actions, so that animations such as dialogs fading in still play smoothly.
+ */
+package com.eng1.heslingtonhustle.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.SnapshotArray;
+
+public class RenderScheduler {
+    private final Array<Stage> stages = new Array<>();
+    private boolean idle;
+
+    /**
+     * Constructs a new RenderScheduler, which renders continuously until it is first updated.
+     * @param stages The stages whose actions need continuous rendering while they run
+     */
+    public RenderScheduler(Stage... stages) {
+        this.stages.addAll(stages);
+        Gdx.graphics.setContinuousRendering(true);
+    }
+
+    /**
+     * Watches another stage for running actions, such as one created after the scheduler.
+     * @param stage The stage whose actions need continuous rendering while they run
+     */
+    public void watch(Stage stage) {
+        stages.add(stage);
+    }
+
+    /**
+     * Switches to rendering on demand if the scene is static and no actions are running,
+     * or back to continuous rendering otherwise. Should be called at the end of each frame.
+     * @param sceneIsStatic True if nothing in the game changes without input, otherwise false
+     */
+    public void update(boolean sceneIsStatic) {
+        boolean shouldIdle = sceneIsStatic && !hasActions();
+        if (shouldIdle == idle) {
+            return;
+        }
+        idle = shouldIdle;
+        Gdx.graphics.setContinuousRendering(!idle);
+        if (!idle) {
+            Gdx.graphics.requestRendering();
+        }
+    }
+
+    /**
+     * Checks whether frames are only being rendered on demand.
+     * @return True if rendering is idle, otherwise false
+     */
+    public boolean isIdle() {
+        return idle;
+    }
+
+    /**
+     * Checks whether any actor on the watched stages has an action running.
+     * @return True if an action is running, otherwise false
+     */
+    private boolean hasActions() {
+        for (int i = 0; i < stages.size; i++) {
+            if (hasActions(stages.get(i).getRoot())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether an actor or any of its descendants has an action running.
+     * @param actor The actor to check
+     * @return True if an action is running, otherwise false
+     */
+    private static boolean hasActions(Actor actor) {
+        if (actor.hasActions()) {
+            return true;
+        }
+        if (actor instanceof Group) {
+            SnapshotArray<Actor> children = ((Group) actor).getChildren();
+            for (int i = 0; i < children.size; i++) {
+                if (hasActions(children.get(i))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * The StartupLoader class builds the gameplay world in stages while the title screen is shown, so that the menu is
+ * drawn straight away rather than after everything has loaded. Each frame runs stages until its time budget is used up.
+ * A stage that is still waiting, such as for a map loading in the background, is run again on the next frame.
+ * Work that does not need the GL context, such as parsing JSON, can be handed to a worker thread.
+ * The time from each stage first running to it finishing is recorded by the LoadProfiler.
+ */
+package com.eng1.heslingtonhustle.game;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import com.eng1.heslingtonhustle.helper.LoadProfiler;
+
+public class StartupLoader {
+    // How long each frame may spend building the world, so the menu stays responsive
+    public static final int FRAME_BUDGET_MILLIS = 8;
+
+    private final Array<String> names = new Array<>();
+    private final Array<Step> steps = new Array<>();
+    private int current;
+    private long stepStart;
+    private AsyncExecutor executor;
+
+    /**
+     * A stage of startup, run on the render thread.
+     */
+    public interface Step {
+        /**
+         * Runs the stage, or checks whether what it is waiting for is ready.
+         *
+         * @return True if the stage has finished, or false to run it again on the next frame
+         */
+        boolean run();
+    }
+
+    /**
+     * Adds a stage. Stages run in the order they are added, each starting once the one before it has finished.
+     *
+     * @param name The name of the stage
+     * @param step The work the stage does
+     */
+    public void add(String name, Step step) {
+        names.add(name);
+        steps.add(step);
+    }
+
+    /**
+     * Starts a task on the worker thread, for loading that does not need the GL context.
+     *
+     * @param task The task to run
+     * @param <T>  The type of the task's result
+     * @return The result, which a later stage can wait for
+     */
+    public <T> AsyncResult<T> submit(AsyncTask<T> task) {
+        if (executor == null) {
+            executor = new AsyncExecutor(1, "StartupLoader");
+        }
+        return executor.submit(task);
+    }
+
+    /**
+     * Runs stages until one is waiting, the frame's time budget is used up, or every stage has finished.
+     * At least one stage is run on every call. Should be called once a frame.
+     *
+     * @return True if every stage has finished, otherwise false
+     */
+    public boolean update() {
+        long start = TimeUtils.millis();
+        while (current < steps.size) {
+            if (stepStart == 0) {
+                stepStart = LoadProfiler.begin();
+            }
+            if (!steps.get(current).run()) {
+                return false;
+            }
+            LoadProfiler.end("startup", names.get(current), stepStart, 0);
+            stepStart = 0;
+            current++;
+            if (TimeUtils.timeSinceMillis(start) >= FRAME_BUDGET_MILLIS) {
+                break;
+            }
+        }
+        if (isFinished()) {
+            dispose();
+        }
+        return isFinished();
+    }
+
+    /**
+     * Runs every stage to the end without stopping between frames.
+     */
+    public void finish() {
+        while (!update()) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Checks whether every stage has finished.
+     *
+     * @return True if startup has finished, otherwise false
+     */
+    public boolean isFinished() {
+        return current >= steps.size;
+    }
+
+    /**
+     * Retrieves how far through startup the loader is.
+     *
+     * @return The fraction of stages that have finished, from 0 to 1
+     */
+    public float getProgress() {
+        return steps.size == 0 ? 1 : (float) current / steps.size;
+    }
+
+    /**
+     * Retrieves the name of the stage being run.
+     *
+     * @return The name of the stage, or null if startup has finished
+     */
+    public String getCurrentStep() {
+        return isFinished() ? null : names.get(current);
+    }
+
+    /**
+     * Stops the worker thread. Called once startup has finished, or when the game closes before then.
+     */
+    public void dispose() {
+        if (executor != null) {
+            executor.dispose();
+            executor = null;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * The SubsystemScheduler class runs each part of the simulation at its own rate, so that work which rarely needs
+ * to happen, such as checking whether the player is near a building, does not run on every tick.
+ * Each subsystem is timed, so the cost of each one can be seen separately.
+ */
+package com.eng1.heslingtonhustle.game;
+
+import com.badlogic.gdx.utils.Array;
+
+public class SubsystemScheduler {
+    // The rate of a subsystem that runs on every tick
+    public static final float EVERY_TICK = 0;
+
+    private final Array<Subsystem> subsystems = new Array<>();
+
+    /**
+     * A task run by the scheduler.
+     */
+    public interface Task {
+        /**
+         * Runs the task.
+         *
+         * @param deltaTime Time elapsed since the task last ran, in seconds
+         */
+        void run(float deltaTime);
+    }
+
+    /**
+     * Registers a subsystem. Subsystems run in the order they are registered.
+     *
+     * @param name The name the subsystem's timings are reported under
+     * @param rate How many times a second the subsystem runs, or EVERY_TICK
+     * @param task The work the subsystem does
+     * @return The registered subsystem
+     */
+    public Subsystem register(String name, float rate, Task task) {
+        Subsystem subsystem = new Subsystem(name, rate > 0 ? 1 / rate : 0, task);
+        subsystems.add(subsystem);
+        return subsystem;
+    }
+
+    /**
+     * Removes every subsystem.
+     */
+    public void clear() {
+        subsystems.clear();
+    }
+
+    /**
+     * Advances the simulation by a tick, running each subsystem that is due.
+     *
+     * @param deltaTime Time elapsed since the last tick, in seconds
+     */
+    public void update(float deltaTime) {
+        for (int i = 0; i < subsystems.size; i++) {
+            subsystems.get(i).update(deltaTime);
+        }
+    }
+
+    /**
+     * Retrieves a registered subsystem by name.
+     *
+     * @param name The name of the subsystem
+     * @return The subsystem, or null if none is registered with that name
+     */
+    public Subsystem getSubsystem(String name) {
+        for (int i = 0; i < subsystems.size; i++) {
+            if (subsystems.get(i).name.equals(name)) {
+                return subsystems.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the registered subsystems.
+     *
+     * @return The subsystems, in the order they run
+     */
+    public Array<Subsystem> getSubsystems() {
+        return subsystems;
+    }
+
+    /**
+     * A part of the simulation run at its own rate, with the time it has taken.
+     */
+    public static class Subsystem {
+        private final String name;
+        private final float interval;
+        private final Task task;
+        private float elapsed;
+        private int runs;
+        private long totalNanos;
+
+        /**
+         * Constructs a new Subsystem, which is due on the first tick.
+         *
+         * @param name     The name of the subsystem
+         * @param interval The time between runs, in seconds, or 0 to run on every tick
+         * @param task     The work the subsystem does
+         */
+        private Subsystem(String name, float interval, Task task) {
+            this.name = name;
+            this.interval = interval;
+            this.task = task;
+            this.elapsed = interval;
+        }
+
+        /**
+         * Runs the task if it is due, timing how long it takes.
+         *
+         * @param deltaTime Time elapsed since the last tick, in seconds
+         */
+        private void update(float deltaTime) {
+            elapsed += deltaTime;
+            if (elapsed < interval) {
+                return;
+            }
+            long start = System.nanoTime();
+            task.run(elapsed);
+            totalNanos += System.nanoTime() - start;
+            runs++;
+            // Time over the interval carries over to the next run, unless a whole run was missed
+            elapsed -= interval;
+            if (elapsed >= interval) {
+                elapsed = 0;
+            }
+        }
+
+        /**
+         * Retrieves the name of the subsystem.
+         *
+         * @return The name of the subsystem
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Retrieves how many times the subsystem has run.
+         *
+         * @return The number of runs
+         */
+        public int getRuns() {
+            return runs;
+        }
+
+        /**
+         * Retrieves the time the subsystem has taken over all of its runs.
+         *
+         * @return The total time, in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * Retrieves the average time a run of the subsystem takes.
+         *
+         * @return The average time, in milliseconds, or 0 if it has not run
+         */
+        public float getAverageMillis() {
+            return runs == 0 ? 0 : totalNanos / (runs * 1_000_000f);
+        }
+
+        /**
+         * Clears the subsystem's timings.
+         */
+        public void resetStats() {
+            runs = 0;
+            totalNanos = 0;
+        }
+    }
+}
@@ -86,6 +86,14 @@ public class Time {
         this.time = 8;
     }
 
+    /**
+     * Goes back to 08:00 on the first day of the week, as when the game starts.
+     */
+    public void resetWeek() {
+        dayNumber = 0;
+        reset();
+    }
+
     /**
      * Retrieves the name of the current day.
      * @return The name of the current day
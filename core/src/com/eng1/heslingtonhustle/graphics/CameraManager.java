@@ -48,14 +48,19 @@ public class CameraManager {
     }
 
     /**
-     * Renders the game using the provided SpriteBatch, MapManager, and player position.
-     * @param batch The SpriteBatch used for rendering
-     * @param mapManager The MapManager instance
+     * Moves the camera to follow the player.
      * @param playerPosition The position of the player
      */
-    public void render(SpriteBatch batch, MapManager mapManager, Vector2 playerPosition) {
+    public void update(Vector2 playerPosition) {
         updateCameraPosition(playerPosition);
-        camera.update();
+    }
+
+    /**
+     * Renders the map with the camera and sets the SpriteBatch to draw with it too.
+     * @param batch The SpriteBatch used for rendering
+     * @param mapManager The MapManager instance
+     */
+    public void render(SpriteBatch batch, MapManager mapManager) {
         mapManager.render(camera);
 
         batch.setProjectionMatrix(camera.combined);
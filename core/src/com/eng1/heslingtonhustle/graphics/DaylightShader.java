@@ -0,0 +1,101 @@
+/**
+ * The DaylightShader class darkens the world as the day goes on.
+ * Every world pixel is faded towards the night colour in the fragment shader, by an amount looked up from
+ * a palette precomputed for each hour, so the darkness costs no extra drawing on top of the scene.
+ * The same program is shared by the SpriteBatches and the SpriteCache the world is drawn with.
+ */
+package com.eng1.heslingtonhustle.graphics;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+
+public class DaylightShader extends ShaderProgram {
+    public static final String vertexShaderPath = "shader/daylightVertex.glsl";
+    public static final String fragmentShaderPath = "shader/daylightFragment.glsl";
+    public static final int HOURS = 24;
+    // The colour and strongest opacity of the overlay the night used to be drawn with
+    public static final Color NIGHT_COLOR = new Color(0x222222e3);
+
+    private static final Color[] PALETTE = createPalette();
+    private int appliedHour = -1;
+
+    /**
+     * Constructs a new DaylightShader from the shader sources in the assets.
+     * Whether it compiled should be checked with isCompiled().
+     */
+    public DaylightShader() {
+        super(Gdx.files.internal(vertexShaderPath), Gdx.files.internal(fragmentShaderPath));
+    }
+
+    /**
+     * Sets the tint the world is drawn with to the one for the given hour.
+     * The uniform is only uploaded when the hour changes, as the program keeps it between frames.
+     *
+     * @param hour The current time of day
+     */
+    public void setTime(int hour) {
+        if (hour == appliedHour) {
+            return;
+        }
+        bind();
+        setUniformf("u_tint", getTint(hour));
+        appliedHour = hour;
+    }
+
+    /**
+     * Retrieves the tint the world is drawn with at the given hour. Its colour is the colour the world fades
+     * towards and its alpha is how far it fades.
+     *
+     * @param hour The time of day, clamped to the hours of the day
+     * @return The tint from the palette, which must not be changed
+     */
+    public static Color getTint(int hour) {
+        return PALETTE[Math.max(0, Math.min(HOURS, hour))];
+    }
+
+    /**
+     * Sets a matrix uniform, ignoring matrices this shader does not use. SpriteCache sets projection and
+     * transform matrices that SpriteBatch does not, and this shader only uses the combined matrix both of them set.
+     *
+     * @param name The name of the uniform
+     * @param matrix The matrix
+     */
+    @Override
+    public void setUniformMatrix(String name, Matrix4 matrix) {
+        setUniformMatrix(fetchUniformLocation(name, false), matrix);
+    }
+
+    /**
+     * Creates the tint for each hour from midnight to midnight.
+     *
+     * @return The palette, indexed by hour
+     */
+    private static Color[] createPalette() {
+        Color[] palette = new Color[HOURS + 1];
+        for (int hour = 0; hour <= HOURS; hour++) {
+            float darkness = 1 - calculateBrightness(hour);
+            palette[hour] = new Color(NIGHT_COLOR.r, NIGHT_COLOR.g, NIGHT_COLOR.b, NIGHT_COLOR.a * darkness);
+        }
+        return palette;
+    }
+
+    /**
+     * Calculates the brightness of the daylight based on the time of day.
+     *
+     * @param timeOfDay The current time of day
+     * @return The calculated brightness value
+     */
+    private static float calculateBrightness(int timeOfDay) {
+
+        float initialBrightness = 1.0f;
+        float finalBrightness = 0.2f;
+        float totalHours = 24 - 8;
+        float hoursElapsed = timeOfDay - 8;
+        float rateOfChange = (initialBrightness - finalBrightness) / totalHours;
+        float currentBrightness = initialBrightness - rateOfChange * hoursElapsed;
+
+        return Math.max(finalBrightness, Math.min(initialBrightness, currentBrightness));
+    }
+}
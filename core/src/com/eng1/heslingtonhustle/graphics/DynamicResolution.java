@@ -0,0 +1,209 @@
+/**
+ * The DynamicResolution class lowers the resolution the world is drawn at when frames take longer than
+ * the selected frame rate allows, and raises it again once there is time to spare.
+ * It is given the time each frame spent working, not the time between frames, which includes waiting for vsync
+ * or the frame rate limit and would keep the scale at its minimum whenever the target is above the refresh rate.
+ * While scaled, the world is drawn into part of an offscreen framebuffer and stretched back over the screen
+ * with nearest filtering, keeping the pixel art sharp. At full scale the world is drawn straight to the screen.
+ */
+package com.eng1.heslingtonhustle.graphics;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.viewport.Viewport;
+
+public class DynamicResolution implements Disposable {
+    public static final float MIN_SCALE = 0.5f;
+    public static final float MAX_SCALE = 1f;
+    public static final float SCALE_STEP = 0.125f;
+    // The number of frames whose times are averaged before the scale is adjusted
+    public static final int ADJUST_INTERVAL_FRAMES = 30;
+    // The number of intervals in a row that must keep up before the scale is raised, so that it does not flicker
+    public static final int RAISE_AFTER_INTERVALS = 4;
+    private static final float SLOW_FRAME_MARGIN = 1.1f;
+    private static final float FAST_FRAME_MARGIN = 1.02f;
+    // A frame counts as taking at most this many times the target, so that a single long frame cannot lower the scale
+    private static final float MAX_FRAME_TIME_FACTOR = 2f;
+
+    private final SpriteBatch batch;
+    private final TextureRegion region = new TextureRegion();
+    private FrameBuffer frameBuffer;
+    private boolean enabled = true;
+    private boolean drawing;
+    private float scale = MAX_SCALE;
+    private float targetFrameTime = 1f / 60;
+    private float frameTimeTotal;
+    private int frameCount;
+    private int fastIntervals;
+
+    /**
+     * Constructs a new DynamicResolution at full scale, with a framebuffer the size of the screen.
+     */
+    public DynamicResolution() {
+        batch = new SpriteBatch();
+        resize(Gdx.graphics.getBackBufferWidth(), Gdx.graphics.getBackBufferHeight());
+    }
+
+    /**
+     * Sets the frame rate the resolution is adjusted to hold.
+     *
+     * @param framesPerSecond The selected frame rate
+     */
+    public void setTargetFrameRate(int framesPerSecond) {
+        targetFrameTime = 1f / framesPerSecond;
+        frameTimeTotal = 0;
+        frameCount = 0;
+        fastIntervals = 0;
+    }
+
+    /**
+     * Sets whether the resolution is adjusted. When it is not, the world is always drawn at full resolution.
+     *
+     * @param enabled True to adjust the resolution, otherwise false
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            scale = MAX_SCALE;
+        }
+    }
+
+    /**
+     * Checks whether the resolution is adjusted.
+     *
+     * @return True if the resolution is adjusted, otherwise false
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records the time the last frame spent working, and every ADJUST_INTERVAL_FRAMES frames lowers the scale a step
+     * if the frames were slower than the target, or raises it a step if they have kept up for a while.
+     * Frames longer than MAX_FRAME_TIME_FACTOR times the target are counted as that long.
+     *
+     * @param workTime The time the last frame spent updating and rendering, without waiting for the next frame, in seconds
+     */
+    public void update(float workTime) {
+        if (!enabled) {
+            return;
+        }
+        frameTimeTotal += Math.min(workTime, targetFrameTime * MAX_FRAME_TIME_FACTOR);
+        if (++frameCount < ADJUST_INTERVAL_FRAMES) {
+            return;
+        }
+        float averageFrameTime = frameTimeTotal / frameCount;
+        frameTimeTotal = 0;
+        frameCount = 0;
+        if (averageFrameTime > targetFrameTime * SLOW_FRAME_MARGIN) {
+            scale = Math.max(MIN_SCALE, scale - SCALE_STEP);
+            fastIntervals = 0;
+        } else if (averageFrameTime < targetFrameTime * FAST_FRAME_MARGIN) {
+            if (++fastIntervals >= RAISE_AFTER_INTERVALS) {
+                scale = Math.min(MAX_SCALE, scale + SCALE_STEP);
+                fastIntervals = 0;
+            }
+        } else {
+            fastIntervals = 0;
+        }
+    }
+
+    /**
+     * Starts drawing the world at the current scale. Below full scale, everything drawn until end is drawn into
+     * the framebuffer. Must not be called while another framebuffer is bound.
+     *
+     * @param viewport The viewport the world is drawn with
+     */
+    public void begin(Viewport viewport) {
+        drawing = scale < MAX_SCALE;
+        if (!drawing) {
+            return;
+        }
+        resize(viewport.getScreenWidth(), viewport.getScreenHeight());
+        frameBuffer.begin();
+        Gdx.gl.glViewport(0, 0, getScaledSize(viewport.getScreenWidth()), getScaledSize(viewport.getScreenHeight()));
+        Gdx.gl.glClearColor(0, 0, 0, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+    }
+
+    /**
+     * Finishes drawing the world and, below full scale, stretches it over the viewport's area of the screen.
+     *
+     * @param viewport The viewport the world is drawn with
+     */
+    public void end(Viewport viewport) {
+        if (!drawing) {
+            return;
+        }
+        drawing = false;
+        int screenWidth = viewport.getScreenWidth();
+        int screenHeight = viewport.getScreenHeight();
+        frameBuffer.end(viewport.getScreenX(), viewport.getScreenY(), screenWidth, screenHeight);
+
+        // The framebuffer's texture is upside down
+        region.setRegion(0, 0, getScaledSize(screenWidth), getScaledSize(screenHeight));
+        region.flip(false, true);
+        batch.getProjectionMatrix().setToOrtho2D(0, 0, screenWidth, screenHeight);
+        batch.disableBlending();
+        batch.begin();
+        batch.draw(region, 0, 0, screenWidth, screenHeight);
+        batch.end();
+        batch.enableBlending();
+    }
+
+    /**
+     * Retrieves the scale the world is currently drawn at.
+     *
+     * @return The scale of the world's resolution, from MIN_SCALE to MAX_SCALE
+     */
+    public float getScale() {
+        return scale;
+    }
+
+    /**
+     * Scales a length in screen pixels by the current scale.
+     *
+     * @param length The length at full resolution
+     * @return The length at the current resolution, at least one pixel
+     */
+    private int getScaledSize(int length) {
+        return Math.max(1, Math.round(length * scale));
+    }
+
+    /**
+     * Recreates the framebuffer if the screen size has changed. It is always full size,
+     * so changing the scale only changes how much of it is drawn to.
+     *
+     * @param width  The width of the area of the screen the world is drawn in, in pixels
+     * @param height The height of the area of the screen the world is drawn in, in pixels
+     */
+    private void resize(int width, int height) {
+        width = Math.max(1, width);
+        height = Math.max(1, height);
+        if (frameBuffer != null) {
+            if (frameBuffer.getWidth() == width && frameBuffer.getHeight() == height) {
+                return;
+            }
+            frameBuffer.dispose();
+        }
+        frameBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, width, height, false);
+        Texture texture = frameBuffer.getColorBufferTexture();
+        texture.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+        region.setTexture(texture);
+    }
+
+    /**
+     * Disposes the framebuffer and the batch.
+     */
+    @Override
+    public void dispose() {
+        frameBuffer.dispose();
+        batch.dispose();
+    }
+}
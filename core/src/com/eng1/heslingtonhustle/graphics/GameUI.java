@@ -4,7 +4,6 @@
  */
 package com.eng1.heslingtonhustle.graphics;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
@@ -13,10 +12,12 @@ import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Align;
 import com.eng1.heslingtonhustle.helper.AchievementManager;
+import com.eng1.heslingtonhustle.helper.AssetRegistry;
 import com.eng1.heslingtonhustle.helper.ScoreManager;
 import com.eng1.heslingtonhustle.game.Game;
 import com.eng1.heslingtonhustle.gameobjects.Day;
 import com.eng1.heslingtonhustle.gameobjects.Time;
+import com.eng1.heslingtonhustle.map.TriggerVolumes;
 import com.eng1.heslingtonhustle.player.PlayerManager;
 
 import java.util.List;
@@ -34,9 +35,29 @@ public class GameUI {
     private final PlayerManager playerManager;
     private final Time time;
     private Table scoreTable;
+    private Table hudTable;
+    private Table interactTable;
     private Table achievementTable;
     private final Skin skin;
     private Label interactLabel;
+    private int displayedEnergy = -1;
+    private int displayedTime = -1;
+    private String displayedDay;
+    private int interactVolumes;
+    private final TriggerVolumes.Listener<Object> interactListener = new TriggerVolumes.Listener<Object>() {
+        @Override
+        public void entered(Object volume) {
+            interactVolumes++;
+            showInteractMessage();
+        }
+
+        @Override
+        public void exited(Object volume) {
+            if (--interactVolumes == 0) {
+                hideInteractMessage();
+            }
+        }
+    };
 
     public static final String xpBackgroundPath = "skin/craftacular/raw/xp-bg.png";
     public static final String xpFillPath = "skin/craftacular/raw/xp.png";
@@ -54,11 +75,12 @@ public class GameUI {
         this.achievementManager = new AchievementManager();
         this.time = playerManager.getTime();
         this.renderingManager = renderingManager;
-        xpBackground = new Texture(Gdx.files.internal(xpBackgroundPath));
-        xpFill = new Texture(Gdx.files.internal(xpFillPath));
+        xpBackground = AssetRegistry.acquire(xpBackgroundPath, Texture.class);
+        xpFill = AssetRegistry.acquire(xpFillPath, Texture.class);
         progressBar = new ProgressBar(0, 100, 0.01f, false, new ProgressBar.ProgressBarStyle());
         // https://ray3k.wordpress.com/craftacular-ui-skin-for-libgdx/
-        skin = new Skin(Gdx.files.internal(skinPath));
+        // The same skin as the menus, which is shared rather than loaded again
+        skin = AssetRegistry.acquire(skinPath, Skin.class);
         initUI();
     }
 
@@ -86,37 +108,66 @@ public class GameUI {
         updateProgressBar();
 
 
-        Table interactTable = new Table();
+        interactTable = new Table();
         interactTable.setFillParent(true);
         interactLabel.setVisible(false);
         interactTable.bottom().add(interactLabel).padBottom(5).padRight(5);
         uiStage.addActor(interactTable);
 
 
-        Table table = new Table();
-        table.setFillParent(true);
-        table.top().right();
+        hudTable = new Table();
+        hudTable.setFillParent(true);
+        hudTable.top().right();
 
         float padTop = 40f;
         float padRight = 30f;
 
-        table.add(energyLabel).padTop(padTop).padRight(5);
-        table.add(progressBar).width(400).height(50).padTop(padTop).padRight(padRight);
-        table.row();
-        table.add(dayLabel).padTop(padTop).padRight(5);
-        table.row();
-        table.add(timeLabel).padTop(padTop).padRight(5);
-        table.row();
-        uiStage.addActor(table);
+        hudTable.add(energyLabel).padTop(padTop).padRight(5);
+        hudTable.add(progressBar).width(400).height(50).padTop(padTop).padRight(padRight);
+        hudTable.row();
+        hudTable.add(dayLabel).padTop(padTop).padRight(5);
+        hudTable.row();
+        hudTable.add(timeLabel).padTop(padTop).padRight(5);
+        hudTable.row();
+        uiStage.addActor(hudTable);
     }
 
     /**
      * Updates the progress bar, time label, and day label.
+     * Each is only changed when the energy, time or day it shows has changed since it was last updated.
      */
     public void updateProgressBar() {
-        progressBar.setValue(playerManager.getEnergy().getEnergyLevel());
-        timeLabel.setText("Time: " + time.toString());
-        dayLabel.setText("Day: " + time.getDay());
+        int energy = playerManager.getEnergy().getEnergyLevel();
+        if (energy != displayedEnergy) {
+            displayedEnergy = energy;
+            progressBar.setValue(energy);
+        }
+        if (time.getTime() != displayedTime) {
+            displayedTime = time.getTime();
+            timeLabel.setText("Time: " + time.toString());
+        }
+        String day = time.getDay();
+        if (displayedDay == null || !displayedDay.equals(day)) {
+            displayedDay = day;
+            dayLabel.setText("Day: " + day);
+        }
+    }
+
+    /**
+     * Takes down the score screen and puts the HUD back, showing the player's energy, time and day afresh.
+     * The widgets are reused, so nothing is loaded again.
+     */
+    public void reset() {
+        uiStage.clear();
+        scoreTable = null;
+        achievementTable = null;
+        uiStage.addActor(interactTable);
+        uiStage.addActor(hudTable);
+        interactLabel.setVisible(interactVolumes > 0);
+        displayedEnergy = -1;
+        displayedTime = -1;
+        displayedDay = null;
+        updateProgressBar();
     }
 
     /**
@@ -133,6 +184,24 @@ public class GameUI {
         interactLabel.setVisible(false);
     }
 
+    /**
+     * Releases the textures and skin the UI was built with.
+     */
+    public void dispose() {
+        AssetRegistry.release(xpBackgroundPath);
+        AssetRegistry.release(xpFillPath);
+        AssetRegistry.release(skinPath);
+    }
+
+    /**
+     * Shows the interaction message while the player is in any of the given trigger volumes.
+     *
+     * @param triggers The trigger volumes the player can interact with
+     */
+    public void watchInteractTriggers(TriggerVolumes<?> triggers) {
+        triggers.addListener(interactListener);
+    }
+
     /**
      * Displays the final score.
      *
@@ -293,7 +362,7 @@ public class GameUI {
      * @param week The list of Day objects representing the week's statistics
      * @return The calculated score
      */
-    private int calculateScore(List<Day> week) {
+    public int calculateScore(List<Day> week) {
         int studyCount = 0;
         int dayStudiedOnce = 0;
         int dayRelaxedOnce = 0;
@@ -0,0 +1,207 @@
+/**
+ * The Lightmap class lights the campus at night with its lamp posts and the windows of its buildings.
+ * The lights in view are drawn into a framebuffer a quarter of the screen's resolution, which is stretched over
+ * the world and multiplied with it, brightening the world around each light by its own colour.
+ * The cost is small and fixed by the size of the lightmap, and nothing is drawn before dusk.
+ */
+package com.eng1.heslingtonhustle.graphics;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.viewport.Viewport;
+import com.eng1.heslingtonhustle.building.Building;
+
+import java.util.List;
+
+import static com.eng1.heslingtonhustle.game.Game.SCALE;
+
+public class Lightmap implements Disposable {
+    public static final int DOWNSCALE = 4;
+    public static final int DUSK_HOUR = 18;
+    public static final float LAMP_RADIUS = 40 * SCALE;
+    public static final float WINDOW_RADIUS = 56 * SCALE;
+    public static final Color LAMP_COLOR = new Color(1f, 0.85f, 0.55f, 1f);
+    public static final Color WINDOW_COLOR = new Color(1f, 0.7f, 0.4f, 1f);
+    private static final float WINDOW_HEIGHT = 16 * SCALE;
+    private static final int LIGHT_TEXTURE_SIZE = 64;
+
+    private final SpriteBatch batch;
+    private final Texture lightTexture;
+    private final TextureRegion lightmapRegion = new TextureRegion();
+    private final Rectangle view = new Rectangle();
+    private FrameBuffer frameBuffer;
+    private int lightsDrawn;
+
+    /**
+     * Constructs a new Lightmap the size of the screen, divided by DOWNSCALE.
+     */
+    public Lightmap() {
+        batch = new SpriteBatch();
+        lightTexture = createLightTexture();
+        resize(Gdx.graphics.getBackBufferWidth(), Gdx.graphics.getBackBufferHeight());
+    }
+
+    /**
+     * Checks whether the lights are on at the given hour.
+     *
+     * @param hour The current time of day
+     * @return True from dusk onwards, otherwise false
+     */
+    public static boolean isActive(int hour) {
+        return hour >= DUSK_HOUR;
+    }
+
+    /**
+     * Retrieves how bright the lights are at the given hour, which grows with the darkness of the daylight tint.
+     *
+     * @param hour The current time of day
+     * @return The brightness of the lights, from 0 to 1
+     */
+    public static float getIntensity(int hour) {
+        return DaylightShader.getTint(hour).a / DaylightShader.NIGHT_COLOR.a;
+    }
+
+    /**
+     * Draws the lights in view of the camera into the lightmap.
+     * The lightmap is recreated first if the area of the screen the world is drawn in has changed size.
+     *
+     * @param viewport  The viewport the world is drawn with
+     * @param lamps     The lamp lights of the current map
+     * @param buildings The buildings, whose windows are lit while they are visible
+     * @param hour      The current time of day
+     */
+    public void update(Viewport viewport, Array<Vector2> lamps, List<Building> buildings, int hour) {
+        resize(viewport.getScreenWidth(), viewport.getScreenHeight());
+        OrthographicCamera camera = (OrthographicCamera) viewport.getCamera();
+        float width = camera.viewportWidth * camera.zoom;
+        float height = camera.viewportHeight * camera.zoom;
+        view.set(camera.position.x - width / 2f, camera.position.y - height / 2f, width, height);
+        float intensity = getIntensity(hour);
+        lightsDrawn = 0;
+
+        frameBuffer.begin();
+        Gdx.gl.glClearColor(0, 0, 0, 0);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        batch.setProjectionMatrix(camera.combined);
+        batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE);
+        batch.begin();
+        batch.setColor(LAMP_COLOR.r, LAMP_COLOR.g, LAMP_COLOR.b, intensity);
+        for (int i = 0; i < lamps.size; i++) {
+            Vector2 lamp = lamps.get(i);
+            drawLight(lamp.x, lamp.y, LAMP_RADIUS);
+        }
+        batch.setColor(WINDOW_COLOR.r, WINDOW_COLOR.g, WINDOW_COLOR.b, intensity);
+        for (int i = 0; i < buildings.size(); i++) {
+            Building building = buildings.get(i);
+            int spriteWidth = building.getTextureRegion().getRegionWidth();
+            if (building.isVisible() && spriteWidth > 0) {
+                Vector2 position = building.getPosition();
+                drawLight(position.x + spriteWidth * SCALE / 2f, position.y + WINDOW_HEIGHT, WINDOW_RADIUS);
+            }
+        }
+        batch.end();
+        frameBuffer.end(viewport.getScreenX(), viewport.getScreenY(), viewport.getScreenWidth(), viewport.getScreenHeight());
+    }
+
+    /**
+     * Multiplies the lightmap over the world drawn in view of the camera it was last updated with,
+     * so each pixel is brightened by the light that falls on it.
+     */
+    public void draw() {
+        batch.setBlendFunction(GL20.GL_DST_COLOR, GL20.GL_ONE);
+        batch.setColor(Color.WHITE);
+        batch.begin();
+        batch.draw(lightmapRegion, view.x, view.y, view.width, view.height);
+        batch.end();
+    }
+
+    /**
+     * Draws a single light, unless it is out of view.
+     *
+     * @param x      The x coordinate of the centre of the light
+     * @param y      The y coordinate of the centre of the light
+     * @param radius The radius of the light
+     */
+    private void drawLight(float x, float y, float radius) {
+        if (x + radius < view.x || x - radius > view.x + view.width
+                || y + radius < view.y || y - radius > view.y + view.height) {
+            return;
+        }
+        batch.draw(lightTexture, x - radius, y - radius, radius * 2, radius * 2);
+        lightsDrawn++;
+    }
+
+    /**
+     * Recreates the framebuffer if the screen size has changed.
+     *
+     * @param screenWidth  The width of the area of the screen the world is drawn in, in pixels
+     * @param screenHeight The height of the area of the screen the world is drawn in, in pixels
+     */
+    private void resize(int screenWidth, int screenHeight) {
+        int width = Math.max(1, screenWidth / DOWNSCALE);
+        int height = Math.max(1, screenHeight / DOWNSCALE);
+        if (frameBuffer != null) {
+            if (frameBuffer.getWidth() == width && frameBuffer.getHeight() == height) {
+                return;
+            }
+            frameBuffer.dispose();
+        }
+        frameBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, width, height, false);
+        Texture texture = frameBuffer.getColorBufferTexture();
+        texture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+        // The framebuffer's texture is upside down
+        lightmapRegion.setRegion(texture);
+        lightmapRegion.flip(false, true);
+    }
+
+    /**
+     * Creates the texture every light is drawn with, a white circle that fades out smoothly towards its edge.
+     *
+     * @return The light texture
+     */
+    private static Texture createLightTexture() {
+        Pixmap pixmap = new Pixmap(LIGHT_TEXTURE_SIZE, LIGHT_TEXTURE_SIZE, Pixmap.Format.RGBA8888);
+        float radius = LIGHT_TEXTURE_SIZE / 2f;
+        for (int y = 0; y < LIGHT_TEXTURE_SIZE; y++) {
+            for (int x = 0; x < LIGHT_TEXTURE_SIZE; x++) {
+                float distance = Vector2.len(x + 0.5f - radius, y + 0.5f - radius) / radius;
+                float falloff = Math.max(0, 1 - distance);
+                pixmap.drawPixel(x, y, Color.rgba8888(1, 1, 1, falloff * falloff));
+            }
+        }
+        Texture texture = new Texture(pixmap);
+        texture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+        pixmap.dispose();
+        return texture;
+    }
+
+    /**
+     * Retrieves the number of lights drawn into the lightmap by the last update, after culling.
+     *
+     * @return The number of lights drawn
+     */
+    public int getLightsDrawn() {
+        return lightsDrawn;
+    }
+
+    /**
+     * Disposes the framebuffer, the light texture and the batch.
+     */
+    @Override
+    public void dispose() {
+        frameBuffer.dispose();
+        lightTexture.dispose();
+        batch.dispose();
+    }
+}
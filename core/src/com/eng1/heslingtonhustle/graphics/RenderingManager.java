@@ -1,25 +1,28 @@
 /**
  * The RenderingManager class handles rendering of game elements such as buildings, player, and UI.
- * It manages the camera, shaders, and rendering logic.
+ * It manages the camera, the daylight shader, the night lights, the world's resolution and rendering logic.
  */
 package com.eng1.heslingtonhustle.graphics;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input.Keys;
+import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
+import com.eng1.heslingtonhustle.helper.LoadProfiler;
 import com.eng1.heslingtonhustle.helper.ResourceLoader;
 import com.eng1.heslingtonhustle.building.Building;
 import com.eng1.heslingtonhustle.game.Game;
 import com.eng1.heslingtonhustle.map.MapManager;
+import com.eng1.heslingtonhustle.map.TriggerVolumes;
 import com.eng1.heslingtonhustle.player.Movement;
 import com.eng1.heslingtonhustle.player.PlayerManager;
 
@@ -31,15 +34,17 @@ public class RenderingManager {
     private static final float SCALE = 5f;
     public final SpriteBatch batch;
 
-    private ShaderProgram shader;
     private final CameraManager cameraManager;
     private final MapManager mapManager;
     private final Stage uiStage;
     private final GameUI gameUI;
     private boolean playerVisible = true;
+    private final Array<Building> outlinedBuildings = new Array<>();
+    private int worldRenderCalls;
+    private DaylightShader daylightShader;
+    private Lightmap lightmap;
+    private DynamicResolution dynamicResolution;
 
-    public static final String vertexShaderPath = "shader/vertexShader.glsl";
-    public static final String fragmentShaderPath = "shader/fragmentShader.glsl";
     
     private TextButton pauseButton;
     private TextButton exitButton;
@@ -58,10 +63,10 @@ public class RenderingManager {
         this.uiStage = new Stage(new FitViewport(1440,810), batch);
         this.gameUI = new GameUI(uiStage, playerManager, this);
         this.game = game;
+        daylightSetup();
+        lightingSetup();
+        resolutionSetup();
 
-        if (!shaderSetup()) {
-            Gdx.app.error("RenderingManager", "Error initializing shaders. Rendering may be affected.");
-        }
         
         // Create in game exit button
         exitButton = new TextButton("EXIT", Game.menuSkin);
@@ -115,31 +120,62 @@ public class RenderingManager {
         this.mapManager = mapManager;
         this.uiStage = new Stage(new ScreenViewport(), batch);
         this.gameUI = new GameUI(uiStage, playerManager, this);
+        daylightSetup();
+        lightingSetup();
+        resolutionSetup();
     }
 
     /**
-     * Sets up the shader program for special effects.
-     *
-     * @return True if shader setup is successful, false otherwise
+     * Sets up the daylight shader and gives it to the map, so that the whole world is tinted by the time of day.
+     * If it cannot be set up, the world is drawn with the default shaders and is not darkened.
      */
-    private boolean shaderSetup() {
+    private void daylightSetup() {
+        long start = LoadProfiler.begin();
         try {
-            String vertexShader = Gdx.files.internal(vertexShaderPath).readString();
-            String fragmentShader = Gdx.files.internal(fragmentShaderPath).readString();
-            shader = new ShaderProgram(vertexShader, fragmentShader);
-
+            DaylightShader shader = new DaylightShader();
             if (!shader.isCompiled()) {
-                Gdx.app.error("Shader", "Error compiling shader: " + shader.getLog());
-                return false;
+                Gdx.app.error("DaylightShader", "Error compiling shader: " + shader.getLog());
+                shader.dispose();
+                return;
             }
+            daylightShader = shader;
+            mapManager.setShader(daylightShader);
+        } catch (Exception e) {
+            Gdx.app.error("DaylightShader", "Error loading shader: " + e.getMessage());
+        } finally {
+            long bytes = LoadProfiler.isEnabled() ? Gdx.files.internal(DaylightShader.vertexShaderPath).length()
+                    + Gdx.files.internal(DaylightShader.fragmentShaderPath).length() : 0;
+            LoadProfiler.end("shader", "DaylightShader", start, bytes);
+        }
+    }
+
+    /**
+     * Sets up the lightmap the campus is lit with at night.
+     * If it cannot be set up, the world is drawn without lights.
+     */
+    private void lightingSetup() {
+        long start = LoadProfiler.begin();
+        try {
+            lightmap = new Lightmap();
+        } catch (Exception e) {
+            Gdx.app.error("Lightmap", "Error creating lightmap: " + e.getMessage());
+        } finally {
+            LoadProfiler.end("shader", "Lightmap", start, 0);
+        }
+    }
 
-            // Set the texture uniform
-            shader.setUniformi("u_texture", 1);
-            shader.setUniformi("u_mask", 1);
-            return true;
+    /**
+     * Sets up the framebuffer the world is drawn into when its resolution is lowered.
+     * If it cannot be set up, the world is always drawn at full resolution.
+     */
+    private void resolutionSetup() {
+        long start = LoadProfiler.begin();
+        try {
+            dynamicResolution = new DynamicResolution();
         } catch (Exception e) {
-            Gdx.app.error("Shader", "Error loading shaders: " + e.getMessage());
-            return false;
+            Gdx.app.error("DynamicResolution", "Error creating framebuffer: " + e.getMessage());
+        } finally {
+            LoadProfiler.end("shader", "DynamicResolution", start, 0);
         }
     }
 
@@ -151,20 +187,43 @@ public class RenderingManager {
      */
     public void render(List<Building> buildings, PlayerManager playerManager) {
         Movement playerMovement = playerManager.getMovement();
-        cameraManager.render(batch, mapManager, playerMovement.getPosition());
-
+        int hour = playerManager.getTime().getTime();
+        if (daylightShader != null) {
+            daylightShader.setTime(hour);
+        }
+        cameraManager.update(playerMovement.getRenderPosition());
+        boolean lightsOn = lightmap != null && Lightmap.isActive(hour);
+        if (lightsOn) {
+            lightmap.update(cameraManager.getViewport(), mapManager.getLights(), buildings, hour);
+        }
 
-        batch.begin();
+        // The world is drawn at a lower resolution when frames are too slow, while the UI stays at full resolution
+        if (dynamicResolution != null) {
+            dynamicResolution.begin(cameraManager.getViewport());
+        }
         try {
-            renderBuildings(buildings, playerMovement);
-            renderPlayer(playerMovement);
-            mapManager.renderOverlay(cameraManager.getCamera(), "overlay");
-            daylight(playerManager, playerMovement);
+            cameraManager.render(batch, mapManager);
+            batch.setShader(daylightShader);
+            batch.begin();
+            try {
+                renderBuildings(buildings);
+                renderPlayer(playerMovement);
+                mapManager.renderOverlay(cameraManager.getCamera(), "overlay");
+            } finally {
+                batch.end();
+                worldRenderCalls = batch.renderCalls;
+                batch.setShader(null);
+            }
+            if (lightsOn) {
+                lightmap.draw();
+            }
+            renderTransition();
         } finally {
-            batch.end();
+            if (dynamicResolution != null) {
+                dynamicResolution.end(cameraManager.getViewport());
+            }
         }
 
-        gameUI.updateProgressBar();
         uiStage.act(Gdx.graphics.getDeltaTime());
         uiStage.draw();
         
@@ -182,50 +241,50 @@ public class RenderingManager {
     }
 
     /**
-     * Adjusts the daylight brightness based on the time of day and renders the overlay accordingly.
+     * Retrieves the number of render calls the SpriteBatch made drawing the world in the last frame.
+     * The buildings, their outlines and the player are all drawn from one atlas and darkened by the
+     * daylight shader rather than an overlay, so the batch only has to flush once.
      *
-     * @param playerManager  The PlayerManager instance
-     * @param playerMovement The Movement instance of the player
+     * @return The number of render calls
      */
-    private void daylight(PlayerManager playerManager, Movement playerMovement) {
-        float brightness = calculateBrightness(playerManager.getTime().getTime());
-        batch.setColor(1, 1, 1, 1 - brightness);
-        batch.draw(ResourceLoader.getOverlay(), playerMovement.getPosition().x - Gdx.graphics.getWidth(),
-                playerMovement.getPosition().y - Gdx.graphics.getHeight()
-                , Gdx.graphics.getWidth() * 2, Gdx.graphics.getHeight() * 2);
+    public int getWorldRenderCalls() {
+        return worldRenderCalls;
     }
 
     /**
-     * Calculates the brightness of the daylight based on the time of day.
-     *
-     * @param timeOfDay The current time of day
-     * @return The calculated brightness value
+     * Darkens the screen while the map is changing, according to the map transition's fade.
+     * The fade is drawn over the world and its lights without the daylight tint, so that it stays black at night.
      */
-    private float calculateBrightness(int timeOfDay) {
-
-        float initialBrightness = 1.0f;
-        float finalBrightness = 0.2f;
-        float totalHours = 24 - 8;
-        float hoursElapsed = timeOfDay - 8;
-        float rateOfChange = (initialBrightness - finalBrightness) / totalHours;
-        float currentBrightness = initialBrightness - rateOfChange * hoursElapsed;
-
-        return Math.max(finalBrightness, Math.min(initialBrightness, currentBrightness));
+    private void renderTransition() {
+        float alpha = mapManager.getTransitionAlpha();
+        if (alpha <= 0) {
+            return;
+        }
+        batch.begin();
+        OrthographicCamera camera = cameraManager.getCamera();
+        float width = camera.viewportWidth * camera.zoom;
+        float height = camera.viewportHeight * camera.zoom;
+        batch.setColor(0, 0, 0, alpha);
+        batch.draw(ResourceLoader.getOverlay(), camera.position.x - width / 2f, camera.position.y - height / 2f, width, height);
+        batch.setColor(1, 1, 1, 1);
+        batch.end();
     }
 
     /**
      * Renders all the buildings on the map.
      *
+     * Buildings whose interaction range the player is in are outlined.
+     *
      * @param buildings The list of buildings to render
-     * @param player    The Movement instance of the player
      */
-    private void renderBuildings(List<Building> buildings, Movement player) {
+    private void renderBuildings(List<Building> buildings) {
 
-        for (Building building : buildings) {
+        for (int i = 0; i < buildings.size(); i++) {
+            Building building = buildings.get(i);
             if (!building.isVisible()) {
                 continue;
             }
-            if (building.inRange(player.getPosition())) {
+            if (outlinedBuildings.contains(building, true)) {
 
                 outlineBuilding(building);
             } else {
@@ -240,6 +299,25 @@ public class RenderingManager {
         }
     }
 
+    /**
+     * Outlines the buildings whose trigger volumes the player is in, from when they enter one until they leave it.
+     *
+     * @param buildingTriggers The trigger volumes of the buildings
+     */
+    public void watchBuildingTriggers(TriggerVolumes<Building> buildingTriggers) {
+        buildingTriggers.addListener(new TriggerVolumes.Listener<Building>() {
+            @Override
+            public void entered(Building building) {
+                outlinedBuildings.add(building);
+            }
+
+            @Override
+            public void exited(Building building) {
+                outlinedBuildings.removeValue(building, true);
+            }
+        });
+    }
+
     /**
      * Renders a single building on the map.
      *
@@ -250,22 +328,18 @@ public class RenderingManager {
     }
 
     /**
-     * Renders an outline around a building.
+     * Renders an outline around a building, by drawing its white silhouette slightly larger behind it.
+     * The silhouette is in the same atlas as the building, so the batch is not interrupted.
      *
      * @param building The Building object to outline
      */
     public void outlineBuilding(Building building) {
-        TextureRegion textureRegion = building.getTextureRegion();
         Vector2 position = building.getPosition();
         float scaleX = SCALE + (SCALE / 40f);
         float scaleY = SCALE + (SCALE / 20f);
 
-        batch.setShader(shader);
-        textureRegion.getTexture().bind(1);
-        renderTexture(textureRegion, position, scaleX, scaleY, true);
-        textureRegion.getTexture().bind(0);
-        batch.setShader(null);
-        renderTexture(textureRegion, position, SCALE, SCALE, false);
+        renderTexture(building.getOutlineRegion(), position, scaleX, scaleY, true);
+        renderTexture(building.getTextureRegion(), position, SCALE, SCALE, false);
     }
 
     /**
@@ -313,14 +387,14 @@ public class RenderingManager {
     }
 
     /**
-     * Renders the player character on the map.
+     * Renders the player character on the map, between their positions after the last two ticks.
      *
      * @param playerMovement The Movement object representing the player
      */
     private void renderPlayer(Movement playerMovement) {
         if (playerVisible) {
             TextureRegion currentFrame = playerMovement.getCurrentFrame();
-            Vector2 playerPosition = playerMovement.getPosition();
+            Vector2 playerPosition = playerMovement.getRenderPosition();
             float PLAYER_SIZE = 32 * SCALE;
             batch.draw(currentFrame, (playerPosition.x - PLAYER_SIZE / 2f), (playerPosition.y - PLAYER_SIZE / 2f) + 60, PLAYER_SIZE, PLAYER_SIZE);
         }
@@ -335,6 +409,33 @@ public class RenderingManager {
         return gameUI;
     }
 
+    /**
+     * Retrieves the shader the world is tinted by the time of day with.
+     *
+     * @return The DaylightShader instance, or null if it could not be set up
+     */
+    public DaylightShader getDaylightShader() {
+        return daylightShader;
+    }
+
+    /**
+     * Retrieves the lightmap the campus is lit with at night.
+     *
+     * @return The Lightmap instance, or null if it could not be set up
+     */
+    public Lightmap getLightmap() {
+        return lightmap;
+    }
+
+    /**
+     * Retrieves the scaler the world's resolution is adjusted with.
+     *
+     * @return The DynamicResolution instance, or null if it could not be set up
+     */
+    public DynamicResolution getDynamicResolution() {
+        return dynamicResolution;
+    }
+
     /**
      * Hides the player character from rendering.
      */
@@ -346,7 +447,36 @@ public class RenderingManager {
      * Restarts the game.
      */
     public void restartGame() {
-    	game.backgroundMusic.stop();
-    	game.create();
+    	game.restart();
+    }
+
+    /**
+     * Shows the player again and puts the HUD and pause button back, as when the game starts.
+     */
+    public void reset() {
+        playerVisible = true;
+        gameUI.reset();
+        if (pauseButton != null) {
+            pauseButton.setText("PAUSE");
+            exitButton.remove();
+            uiStage.addActor(pauseButton);
+        }
+    }
+
+    /**
+     * Disposes the daylight shader, the lightmap and the dynamic resolution framebuffer,
+     * and releases the assets of the UI.
+     */
+    public void dispose() {
+        gameUI.dispose();
+        if (dynamicResolution != null) {
+            dynamicResolution.dispose();
+        }
+        if (daylightShader != null) {
+            daylightShader.dispose();
+        }
+        if (lightmap != null) {
+            lightmap.dispose();
+        }
     }
 }
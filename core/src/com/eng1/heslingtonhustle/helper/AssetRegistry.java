@@ -0,0 +1,99 @@
+/**
+ * The AssetRegistry is the one place textures, skins, atlases and music are loaded from.
+ * Each asset is loaded through a shared AssetManager the first time it is acquired, and every later acquire returns
+ * the same instance. Assets are reference counted, so an asset is disposed as soon as the last holder releases it,
+ * and the assets it depends on, such as a skin's atlas, are shared and counted by the AssetManager in the same way.
+ * Maps are loaded in the background through the MapManager's own AssetManager, so that waiting for an asset here
+ * never waits for a map queued ahead of it.
+ */
+package com.eng1.heslingtonhustle.helper;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+public class AssetRegistry {
+    private static AssetManager assetManager;
+    private static final ObjectIntMap<String> references = new ObjectIntMap<>();
+
+    /**
+     * Retrieves an asset, loading it first if no one holds it. Every acquire must be matched by a release.
+     *
+     * @param path The path of the asset in the assets directory
+     * @param type The type of the asset, such as Texture or Skin
+     * @param <T>  The type of the asset
+     * @return The shared instance of the asset
+     */
+    public static synchronized <T> T acquire(String path, Class<T> type) {
+        AssetManager manager = getAssetManager();
+        if (!references.containsKey(path)) {
+            long start = LoadProfiler.begin();
+            manager.load(path, type);
+            manager.finishLoadingAsset(path);
+            LoadProfiler.end(type.getSimpleName(), path, start, manager);
+        }
+        references.getAndIncrement(path, 0, 1);
+        return manager.get(path, type);
+    }
+
+    /**
+     * Releases an asset, disposing it if nothing else holds it.
+     *
+     * @param path The path the asset was acquired with
+     */
+    public static synchronized void release(String path) {
+        int count = references.get(path, 0);
+        if (count == 0) {
+            throw new GdxRuntimeException("Asset released more times than it was acquired: " + path);
+        }
+        if (count == 1) {
+            references.remove(path, 0);
+            assetManager.unload(path);
+        } else {
+            references.put(path, count - 1);
+        }
+    }
+
+    /**
+     * Retrieves how many holders an asset has.
+     *
+     * @param path The path of the asset
+     * @return The number of acquires not yet released
+     */
+    public static synchronized int getReferenceCount(String path) {
+        return references.get(path, 0);
+    }
+
+    /**
+     * Checks whether an asset is loaded, either because it has been acquired or because another asset depends on it.
+     *
+     * @param path The path of the asset
+     * @return True if the asset is loaded, otherwise false
+     */
+    public static synchronized boolean isLoaded(String path) {
+        return assetManager != null && assetManager.isLoaded(path);
+    }
+
+    /**
+     * Disposes every asset, whether or not it has been released. Called when the game closes.
+     */
+    public static synchronized void dispose() {
+        if (assetManager != null) {
+            assetManager.dispose();
+            assetManager = null;
+        }
+        references.clear();
+    }
+
+    /**
+     * Retrieves the AssetManager, creating it the first time it is needed.
+     *
+     * @return The AssetManager assets are loaded through
+     */
+    private static AssetManager getAssetManager() {
+        if (assetManager == null) {
+            assetManager = new AssetManager();
+        }
+        return assetManager;
+    }
+}
@@ -0,0 +1,266 @@
+/**
+ * The LoadProfiler records how long startup takes and where the time goes. Each asset load, parse and shader compile
+ * is recorded with its wall time, the thread it ran on and the bytes read from disk. Milestones such as the first
+ * rendered frame are recorded as times since the game was launched. The profiler does nothing until it is enabled,
+ * which the desktop launcher does when it is given a path to write the report to. The report is JSON, so startup
+ * times can be compared between builds to catch regressions.
+ */
+package com.eng1.heslingtonhustle.helper;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.OrderedMap;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+public class LoadProfiler {
+    private static boolean enabled;
+    private static long origin;
+    private static String reportPath;
+    private static final Array<Load> loads = new Array<>();
+    private static final OrderedMap<String, Long> milestones = new OrderedMap<>();
+
+    /**
+     * A single timed load.
+     */
+    public static class Load {
+        public final String category;
+        public final String name;
+        public final String thread;
+        public final long startNanos;
+        public final long nanos;
+        public final long bytes;
+
+        /**
+         * Constructs a new Load.
+         *
+         * @param category   The kind of load, such as Texture or shader
+         * @param name       What was loaded, such as the path of the asset
+         * @param thread     The name of the thread the load ran on
+         * @param startNanos When the load started, in nanoseconds since the profiler was enabled
+         * @param nanos      How long the load took, in nanoseconds
+         * @param bytes      The bytes read from disk, or 0 if none were
+         */
+        private Load(String category, String name, String thread, long startNanos, long nanos, long bytes) {
+            this.category = category;
+            this.name = name;
+            this.thread = thread;
+            this.startNanos = startNanos;
+            this.nanos = nanos;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Starts recording, clearing anything recorded before. Times are measured from this call, so it should be made
+     * as early as possible, such as at the start of the launcher.
+     *
+     * @param reportPath The file the report is written to by writeReport, or null to only keep the report in memory
+     */
+    public static synchronized void enable(String reportPath) {
+        LoadProfiler.reportPath = reportPath;
+        origin = System.nanoTime();
+        loads.clear();
+        milestones.clear();
+        enabled = true;
+    }
+
+    /**
+     * Stops recording and clears what has been recorded.
+     */
+    public static synchronized void disable() {
+        enabled = false;
+        reportPath = null;
+        loads.clear();
+        milestones.clear();
+    }
+
+    /**
+     * Checks whether loads are being recorded.
+     *
+     * @return True if the profiler is enabled, otherwise false
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Retrieves the time a load is starting at, to be passed to end once it has finished.
+     *
+     * @return The current time, in nanoseconds, or 0 if the profiler is not enabled
+     */
+    public static long begin() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records a load that has just finished.
+     *
+     * @param category The kind of load, such as Texture or shader
+     * @param name     What was loaded, such as the path of the asset
+     * @param start    The time returned by begin when the load started
+     * @param bytes    The bytes read from disk, or 0 if none were
+     */
+    public static void end(String category, String name, long start, long bytes) {
+        if (!enabled || start == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (LoadProfiler.class) {
+            loads.add(new Load(category, name, Thread.currentThread().getName(), start - origin, now - start, bytes));
+        }
+    }
+
+    /**
+     * Records an asset load that has just finished through an AssetManager.
+     * The bytes are those of the asset's file and of every asset it depends on, such as a skin's atlas and texture.
+     *
+     * @param category The kind of asset, such as Texture or map
+     * @param path     The path of the asset
+     * @param start    The time returned by begin when the load started
+     * @param manager  The AssetManager the asset was loaded through
+     */
+    public static void end(String category, String path, long start, AssetManager manager) {
+        if (!enabled || start == 0) {
+            return;
+        }
+        end(category, path, start, bytesOf(manager, path));
+    }
+
+    /**
+     * Records a milestone, such as the first frame being rendered. Only the first time a milestone is reached is kept.
+     *
+     * @param name The name of the milestone
+     */
+    public static synchronized void mark(String name) {
+        if (enabled && !milestones.containsKey(name)) {
+            milestones.put(name, System.nanoTime() - origin);
+        }
+    }
+
+    /**
+     * Retrieves the loads recorded so far.
+     *
+     * @return A copy of the loads, in the order they finished
+     */
+    public static synchronized Array<Load> getLoads() {
+        return new Array<>(loads);
+    }
+
+    /**
+     * Retrieves when a milestone was reached.
+     *
+     * @param name The name of the milestone
+     * @return The time since the profiler was enabled, in milliseconds, or -1 if the milestone has not been reached
+     */
+    public static synchronized float getMilestoneMillis(String name) {
+        Long nanos = milestones.get(name);
+        return nanos == null ? -1 : toMillis(nanos);
+    }
+
+    /**
+     * Writes the report to the file given when the profiler was enabled. Does nothing if there is no such file.
+     */
+    public static synchronized void writeReport() {
+        if (!enabled || reportPath == null) {
+            return;
+        }
+        FileHandle file = new FileHandle(reportPath);
+        file.writeString(createReport(), false, "UTF-8");
+        Gdx.app.log("LoadProfiler", "Startup report written to " + file.file().getAbsolutePath());
+    }
+
+    /**
+     * Creates the report of everything recorded so far. The report holds the milestones, every load,
+     * and the number, time and bytes of the loads in each category.
+     *
+     * @return The report, as JSON
+     */
+    public static synchronized String createReport() {
+        StringWriter writer = new StringWriter();
+        JsonWriter json = new JsonWriter(writer);
+        json.setOutputType(JsonWriter.OutputType.json);
+        try {
+            json.object();
+            json.object("milestones");
+            for (ObjectMap.Entry<String, Long> milestone : milestones) {
+                json.set(milestone.key, toMillis(milestone.value));
+            }
+            json.pop();
+
+            json.array("loads");
+            for (Load load : loads) {
+                json.object();
+                json.set("category", load.category);
+                json.set("name", load.name);
+                json.set("thread", load.thread);
+                json.set("startMillis", toMillis(load.startNanos));
+                json.set("millis", toMillis(load.nanos));
+                json.set("bytes", load.bytes);
+                json.pop();
+            }
+            json.pop();
+
+            json.object("totals");
+            OrderedMap<String, long[]> totals = new OrderedMap<>();
+            for (Load load : loads) {
+                long[] total = totals.get(load.category);
+                if (total == null) {
+                    total = new long[3];
+                    totals.put(load.category, total);
+                }
+                total[0]++;
+                total[1] += load.nanos;
+                total[2] += load.bytes;
+            }
+            for (ObjectMap.Entry<String, long[]> total : totals) {
+                json.object(total.key);
+                json.set("count", total.value[0]);
+                json.set("millis", toMillis(total.value[1]));
+                json.set("bytes", total.value[2]);
+                json.pop();
+            }
+            json.pop();
+            json.pop();
+            json.close();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't create the startup report", e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Retrieves the size of an asset's file and of the files of every asset it depends on.
+     *
+     * @param manager The AssetManager the asset was loaded through
+     * @param path    The path of the asset
+     * @return The total size, in bytes
+     */
+    private static long bytesOf(AssetManager manager, String path) {
+        FileHandle file = manager.getFileHandleResolver().resolve(path);
+        long bytes = file.exists() ? file.length() : 0;
+        Array<String> dependencies = manager.getDependencies(path);
+        if (dependencies != null) {
+            for (String dependency : dependencies) {
+                bytes += bytesOf(manager, dependency);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Converts a time to milliseconds.
+     *
+     * @param nanos The time, in nanoseconds
+     * @return The time, in milliseconds
+     */
+    private static float toMillis(long nanos) {
+        return nanos / 1_000_000f;
+    }
+}
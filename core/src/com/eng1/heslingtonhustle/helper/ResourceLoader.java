@@ -1,11 +1,14 @@
 /**
  * Utility class for loading game resources such as textures and animations.
+ * The sprites drawn in the world are all regions of the atlas packed by the SpritePacker.
+ * The atlas is acquired from the AssetRegistry the first time it is needed and held until dispose is called.
+ * The walking animations of every character are built from the atlas at the same time, so switching character
+ * only picks a different set of animations.
  */
 package com.eng1.heslingtonhustle.helper;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
 public class ResourceLoader {
@@ -15,13 +18,16 @@ public class ResourceLoader {
 	public static final String walkSheetPath2 = "character2.png";
 	public static final String walkSheetPath3 = "character3.png";
 	public static final String buildingsPath = "images/town.png";
-	public Texture walkSheet;
-    public static final Texture buildings = new Texture(Gdx.files.internal(buildingsPath));
+	public static final int CHARACTER_COUNT = 3;
+	private static final int WALK_DIRECTIONS = 4;
+	private static final int WALK_FRAMES = 8;
+    private static TextureAtlas atlas;
+    private static TextureRegion debug;
+    private static TextureRegion overlay;
+    private static Animation<TextureRegion>[][] characterAnimations;
 	
 	public static final String debugPath = "images/debug.png";
 	public static final String overlayPath = "images/overlay.png";
-    public static final Texture debug = new Texture(Gdx.files.internal(debugPath));
-    public static final Texture overlay = new Texture(Gdx.files.internal(overlayPath));
     
     public int character = 1;
     
@@ -29,6 +35,34 @@ public class ResourceLoader {
     	
     }
 
+    /**
+     * Retrieves the atlas of the sprites drawn in the world, acquiring it from the AssetRegistry if it is not held yet.
+     * @return TextureAtlas holding every world sprite
+     */
+    public static synchronized TextureAtlas getAtlas() {
+        if (atlas == null) {
+            atlas = AssetRegistry.acquire(SpritePacker.ATLAS_PATH, TextureAtlas.class);
+            debug = atlas.findRegion("debug");
+            overlay = atlas.findRegion("overlay");
+            characterAnimations = createCharacterAnimations(atlas);
+        }
+        return atlas;
+    }
+
+    /**
+     * Releases the atlas, so that it is disposed once nothing else holds it.
+     * It is acquired again the next time a sprite is needed.
+     */
+    public static synchronized void dispose() {
+        if (atlas != null) {
+            atlas = null;
+            debug = null;
+            overlay = null;
+            characterAnimations = null;
+            AssetRegistry.release(SpritePacker.ATLAS_PATH);
+        }
+    }
+
     /**
      * Retrieves the animation for character walking downwards.
      * @return Animation<TextureRegion> representing downward walking animation
@@ -62,46 +96,72 @@ public class ResourceLoader {
     }
 
     /**
-     * Retrieves a TextureRegion array representing a row of the character walking animation.
+     * Retrieves the animation for a row of the current character's walking animation sheet.
+     * The animations are built once, so the same instance is returned every time.
      * @param x The row index of the animation sheet
      * @return Animation<TextureRegion> representing the animation
      */
     private Animation<TextureRegion> getTextureRegionByRow(int x) {
-    	if(character == 1) walkSheet = new Texture(Gdx.files.internal(walkSheetPath1));
-    	if(character == 2) walkSheet = new Texture(Gdx.files.internal(walkSheetPath2));
-    	if(character == 3) walkSheet = new Texture(Gdx.files.internal(walkSheetPath3));
-    	
-        TextureRegion[][] tmp = TextureRegion.split(walkSheet, 32, 32);
-        TextureRegion[] out = new TextureRegion[8];
-        System.arraycopy(tmp[x], 0, out, 0, 8);
-        return new Animation<>(0.1f, out);
+        getAtlas();
+        return characterAnimations[character - 1][x];
+    }
+
+    /**
+     * Builds the walking animations of every character from their sheets in the atlas.
+     * @param atlas The atlas holding the character sheets
+     * @return The animations, indexed by character and then by row of the sheet
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Animation<TextureRegion>[][] createCharacterAnimations(TextureAtlas atlas) {
+        Animation<TextureRegion>[][] animations = new Animation[CHARACTER_COUNT][WALK_DIRECTIONS];
+        for (int i = 0; i < CHARACTER_COUNT; i++) {
+            TextureRegion[][] tmp = atlas.findRegion("character" + (i + 1)).split(32, 32);
+            for (int row = 0; row < WALK_DIRECTIONS; row++) {
+                TextureRegion[] out = new TextureRegion[WALK_FRAMES];
+                System.arraycopy(tmp[row], 0, out, 0, WALK_FRAMES);
+                animations[i][row] = new Animation<>(0.1f, out);
+            }
+        }
+        return animations;
     }
 
     /**
      * Retrieves a TextureRegion for a building.
-     * @param startX X coordinate of the starting position of the building
-     * @param startY Y coordinate of the starting position of the building
-     * @param width Width of the building in tiles
-     * @param height Height of the building in tiles
+     * Buildings without a sprite, such as the pier, get an empty region of the atlas so nothing is drawn for them.
+     * @param id The id of the building in buildings.json
      * @return TextureRegion representing the building
      */
-    public static TextureRegion getBuildingTextureRegion(int startX, int startY, int width, int height){
-        return new TextureRegion(buildings,startX,startY,16*width,16*height);
+    public static TextureRegion getBuildingTextureRegion(String id) {
+        TextureRegion region = id == null ? null : getAtlas().findRegion(SpritePacker.BUILDING_PREFIX + id);
+        return region != null ? region : new TextureRegion(getDebug(), 0, 0, 0, 0);
+    }
+
+    /**
+     * Retrieves the white silhouette of a building, drawn behind it as an outline.
+     * Buildings without a sprite get an empty region of the atlas.
+     * @param id The id of the building in buildings.json
+     * @return TextureRegion representing the building's outline
+     */
+    public static TextureRegion getBuildingOutlineRegion(String id) {
+        TextureRegion region = id == null ? null : getAtlas().findRegion(SpritePacker.OUTLINE_PREFIX + id);
+        return region != null ? region : new TextureRegion(getDebug(), 0, 0, 0, 0);
     }
 
     /**
-     * Retrieves the texture used for debugging purposes.
-     * @return Texture representing the debug texture
+     * Retrieves the texture region used for debugging purposes.
+     * @return TextureRegion representing the debug texture
      */
-    public static Texture getDebug() {
+    public static TextureRegion getDebug() {
+        getAtlas();
         return debug;
     }
 
     /**
-     * Retrieves the overlay texture used for representing daylight.
-     * @return Texture representing the overlay texture
+     * Retrieves the overlay texture region used for fading the screen during map transitions.
+     * @return TextureRegion representing the overlay texture
      */
-    public static Texture getOverlay() {
+    public static TextureRegion getOverlay() {
+        getAtlas();
         return overlay;
     }
 }
@@ -0,0 +1,239 @@
+/**
+ * Packs the sprites drawn in the world into a single texture atlas at build time, so that buildings, the player,
+ * the transition overlay and the debug marker are all drawn from one texture without the SpriteBatch flushing between them.
+ * The character sheets, overlay and debug images are packed whole, and each building's sprite is cut from the
+ * town tileset using the texture coordinates in buildings.json.
+ * Each building also gets a white silhouette, drawn behind it as its outline when it is in range.
+ * The atlas is written in libGDX's texture atlas format, with a transparent border around each sprite.
+ */
+package com.eng1.heslingtonhustle.helper;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class SpritePacker {
+    public static final String ATLAS_PATH = "atlas/sprites.atlas";
+    public static final String PAGE_NAME = "sprites.png";
+    public static final String BUILDING_PREFIX = "buildings/";
+    public static final String OUTLINE_PREFIX = "outlines/";
+    public static final int PAGE_WIDTH = 1024;
+    public static final int PADDING = 2;
+    private static final int BUILDING_TILE_SIZE = 16;
+    private static final String BUILDING_INFO_PATH = "buildings.json";
+
+    /**
+     * Packs the sprites in the given assets directory, writing the atlas and its page to ATLAS_PATH.
+     * @param args The assets directory.
+     * @throws IOException If an image could not be read or the atlas could not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: SpritePacker <assets directory>");
+            System.exit(1);
+        }
+        Path assetsDir = Paths.get(args[0]).toAbsolutePath().normalize();
+        SpritePacker packer = new SpritePacker();
+        List<Sprite> sprites = packer.collectSprites(assetsDir);
+        int pageHeight = pack(sprites);
+        packer.write(sprites, pageHeight, assetsDir.resolve(ATLAS_PATH));
+        System.out.println("Packed " + sprites.size() + " sprites into " + ATLAS_PATH + " (" + PAGE_WIDTH + "x" + pageHeight + ")");
+    }
+
+    /**
+     * Reads the sprites to pack.
+     * @param assetsDir The assets directory.
+     * @return The sprites, not yet placed.
+     * @throws IOException If an image could not be read.
+     */
+    public List<Sprite> collectSprites(Path assetsDir) throws IOException {
+        List<Sprite> sprites = new ArrayList<>();
+        sprites.add(new Sprite("character1", readImage(assetsDir, ResourceLoader.walkSheetPath1)));
+        sprites.add(new Sprite("character2", readImage(assetsDir, ResourceLoader.walkSheetPath2)));
+        sprites.add(new Sprite("character3", readImage(assetsDir, ResourceLoader.walkSheetPath3)));
+        sprites.add(new Sprite("overlay", readImage(assetsDir, ResourceLoader.overlayPath)));
+        sprites.add(new Sprite("debug", readImage(assetsDir, ResourceLoader.debugPath)));
+
+        BufferedImage town = readImage(assetsDir, ResourceLoader.buildingsPath);
+        JsonValue buildings;
+        try (Reader reader = Files.newBufferedReader(assetsDir.resolve(BUILDING_INFO_PATH))) {
+            buildings = new JsonReader().parse(reader);
+        }
+        for (JsonValue building : buildings) {
+            int x = building.getInt("textureStartX");
+            int y = building.getInt("textureStartY");
+            int width = building.getInt("textureWidth") * BUILDING_TILE_SIZE;
+            int height = building.getInt("textureHeight") * BUILDING_TILE_SIZE;
+            if (width == 0 || height == 0) {
+                // Buildings such as the pier are only interacted with and have no sprite
+                continue;
+            }
+            BufferedImage image = town.getSubimage(x, y, width, height);
+            sprites.add(new Sprite(BUILDING_PREFIX + building.getString("id"), image));
+            sprites.add(new Sprite(OUTLINE_PREFIX + building.getString("id"), createSilhouette(image)));
+        }
+        return sprites;
+    }
+
+    /**
+     * Creates a silhouette of an image, which is opaque white wherever the image is not fully transparent.
+     * @param image The image.
+     * @return The silhouette.
+     */
+    public static BufferedImage createSilhouette(BufferedImage image) {
+        BufferedImage silhouette = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                if ((image.getRGB(x, y) >>> 24) != 0) {
+                    silhouette.setRGB(x, y, 0xFFFFFFFF);
+                }
+            }
+        }
+        return silhouette;
+    }
+
+    /**
+     * Reads an image.
+     * @param assetsDir The assets directory.
+     * @param path The path of the image, relative to the assets directory.
+     * @return The image.
+     * @throws IOException If the image could not be read.
+     */
+    private static BufferedImage readImage(Path assetsDir, String path) throws IOException {
+        BufferedImage image = ImageIO.read(assetsDir.resolve(path).toFile());
+        if (image == null) {
+            throw new GdxRuntimeException("Couldn't read image " + path);
+        }
+        return image;
+    }
+
+    /**
+     * Places sprites on a page PAGE_WIDTH wide, in rows from the top, tallest first.
+     * Sprites of equal height are placed in name order, so the same sprites are always packed the same way.
+     * @param sprites The sprites to place. Their positions are set.
+     * @return The height of the page, a power of two.
+     */
+    public static int pack(List<Sprite> sprites) {
+        List<Sprite> sorted = new ArrayList<>(sprites);
+        sorted.sort(Comparator.comparingInt((Sprite sprite) -> -sprite.getHeight()).thenComparing(Sprite::getName));
+        int x = 0;
+        int y = 0;
+        int rowHeight = 0;
+        for (Sprite sprite : sorted) {
+            int width = sprite.getWidth() + PADDING * 2;
+            if (width > PAGE_WIDTH) {
+                throw new GdxRuntimeException("Sprite " + sprite.getName() + " is wider than the atlas page");
+            }
+            if (x + width > PAGE_WIDTH) {
+                x = 0;
+                y += rowHeight;
+                rowHeight = 0;
+            }
+            sprite.x = x + PADDING;
+            sprite.y = y + PADDING;
+            x += width;
+            rowHeight = Math.max(rowHeight, sprite.getHeight() + PADDING * 2);
+        }
+        int pageHeight = 1;
+        while (pageHeight < y + rowHeight) {
+            pageHeight *= 2;
+        }
+        return pageHeight;
+    }
+
+    /**
+     * Writes the atlas page and the atlas file describing its regions.
+     * @param sprites The placed sprites.
+     * @param pageHeight The height of the page.
+     * @param atlasFile The atlas file to write. The page is written next to it.
+     * @throws IOException If the atlas could not be written.
+     */
+    private void write(List<Sprite> sprites, int pageHeight, Path atlasFile) throws IOException {
+        BufferedImage page = new BufferedImage(PAGE_WIDTH, pageHeight, BufferedImage.TYPE_INT_ARGB);
+        for (Sprite sprite : sprites) {
+            int[] pixels = sprite.image.getRGB(0, 0, sprite.getWidth(), sprite.getHeight(), null, 0, sprite.getWidth());
+            page.setRGB(sprite.x, sprite.y, sprite.getWidth(), sprite.getHeight(), pixels, 0, sprite.getWidth());
+        }
+        Files.createDirectories(atlasFile.getParent());
+        ImageIO.write(page, "png", atlasFile.resolveSibling(PAGE_NAME).toFile());
+
+        try (Writer writer = Files.newBufferedWriter(atlasFile, StandardCharsets.UTF_8)) {
+            writer.write(PAGE_NAME + "\n");
+            writer.write("size:" + PAGE_WIDTH + "," + pageHeight + "\n");
+            writer.write("filter:Nearest,Nearest\n");
+            writer.write("repeat:none\n");
+            for (Sprite sprite : sprites) {
+                writer.write(sprite.getName() + "\n");
+                writer.write("bounds:" + sprite.x + "," + sprite.y + "," + sprite.getWidth() + "," + sprite.getHeight() + "\n");
+            }
+        }
+    }
+
+    /**
+     * An image to pack and its position on the atlas page, measured from the top left.
+     */
+    public static class Sprite {
+        private final String name;
+        private final BufferedImage image;
+        private int x;
+        private int y;
+
+        /**
+         * Constructs a Sprite that has not been placed.
+         * @param name The name of the atlas region.
+         * @param image The image.
+         */
+        public Sprite(String name, BufferedImage image) {
+            this.name = name;
+            this.image = image;
+        }
+
+        /**
+         * @return The name of the atlas region.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The width of the image.
+         */
+        public int getWidth() {
+            return image.getWidth();
+        }
+
+        /**
+         * @return The height of the image.
+         */
+        public int getHeight() {
+            return image.getHeight();
+        }
+
+        /**
+         * @return The x coordinate of the sprite on the page.
+         */
+        public int getX() {
+            return x;
+        }
+
+        /**
+         * @return The y coordinate of the sprite on the page, from the top.
+         */
+        public int getY() {
+            return y;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/**
+ * The contents of a map in the compact binary runtime format written by the MapCompiler.
+ * Tile layers that are always drawn together are flattened into a few packed layers,
+ * and the collision, exit, activity and building corner rectangles and the lamp lights are stored already scaled to world units.
+ */
+package com.eng1.heslingtonhustle.map;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.OrderedMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class CompiledMap {
+    public static final int MAGIC = 0x48484D50;
+    public static final int VERSION = 2;
+    public static final String EXTENSION = "hhmap";
+
+    public int width;
+    public int height;
+    public int tileWidth;
+    public int tileHeight;
+    public final Array<TileSetData> tileSets = new Array<>();
+    public final Array<LayerData> layers = new Array<>();
+    public final Array<Rectangle> collisions = new Array<>();
+    public final Array<Rectangle> exits = new Array<>();
+    public final Array<Rectangle> activities = new Array<>();
+    public final OrderedMap<String, Vector2> buildingCorners = new OrderedMap<>();
+    public final Array<Vector2> lights = new Array<>();
+
+    /**
+     * A tileset of the map, cut from a single image.
+     */
+    public static class TileSetData {
+        public String name;
+        public int firstGid;
+        public String imagePath;
+        public int tileWidth;
+        public int tileHeight;
+        public int spacing;
+        public int margin;
+        public int offsetX;
+        public int offsetY;
+        /** Local tile id to its animation frames, stored as alternating local tile ids and durations in milliseconds. */
+        public final IntMap<int[]> animations = new IntMap<>();
+    }
+
+    /**
+     * A tile layer, storing only its non-empty cells.
+     */
+    public static class LayerData {
+        public String name;
+        public float offsetX;
+        public float offsetY;
+        public float opacity = 1f;
+        public boolean visible = true;
+        /** The non-empty cells, stored as x, y and gid triples with y counted from the bottom of the map. */
+        public final IntArray cells = new IntArray();
+    }
+
+    /**
+     * Retrieves the path of the compiled version of a TMX map.
+     * @param tmxPath The path of the TMX map.
+     * @return The path the compiled map is written to.
+     */
+    public static String compiledPath(String tmxPath) {
+        int extension = tmxPath.lastIndexOf('.');
+        return (extension == -1 ? tmxPath : tmxPath.substring(0, extension)) + "." + EXTENSION;
+    }
+
+    /**
+     * Writes the map in the binary format.
+     * @param outputStream The stream to write to. It is not closed.
+     * @throws IOException If the map could not be written.
+     */
+    public void write(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeInt(tileWidth);
+        out.writeInt(tileHeight);
+
+        out.writeInt(tileSets.size);
+        for (TileSetData tileSet : tileSets) {
+            out.writeUTF(tileSet.name);
+            out.writeInt(tileSet.firstGid);
+            out.writeUTF(tileSet.imagePath);
+            out.writeInt(tileSet.tileWidth);
+            out.writeInt(tileSet.tileHeight);
+            out.writeInt(tileSet.spacing);
+            out.writeInt(tileSet.margin);
+            out.writeInt(tileSet.offsetX);
+            out.writeInt(tileSet.offsetY);
+            out.writeInt(tileSet.animations.size);
+            for (IntMap.Entry<int[]> animation : tileSet.animations) {
+                out.writeInt(animation.key);
+                out.writeInt(animation.value.length);
+                for (int value : animation.value) {
+                    out.writeInt(value);
+                }
+            }
+        }
+
+        out.writeInt(layers.size);
+        for (LayerData layer : layers) {
+            out.writeUTF(layer.name);
+            out.writeFloat(layer.offsetX);
+            out.writeFloat(layer.offsetY);
+            out.writeFloat(layer.opacity);
+            out.writeBoolean(layer.visible);
+            out.writeInt(layer.cells.size / 3);
+            for (int i = 0; i < layer.cells.size; i += 3) {
+                out.writeShort(layer.cells.get(i));
+                out.writeShort(layer.cells.get(i + 1));
+                out.writeInt(layer.cells.get(i + 2));
+            }
+        }
+
+        writeRectangles(out, collisions);
+        writeRectangles(out, exits);
+        writeRectangles(out, activities);
+        out.writeInt(buildingCorners.size);
+        for (OrderedMap.Entry<String, Vector2> corner : buildingCorners) {
+            out.writeUTF(corner.key);
+            out.writeFloat(corner.value.x);
+            out.writeFloat(corner.value.y);
+        }
+        out.writeInt(lights.size);
+        for (Vector2 light : lights) {
+            out.writeFloat(light.x);
+            out.writeFloat(light.y);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a map in the binary format.
+     * @param inputStream The stream to read from. It is not closed.
+     * @return The map that was read.
+     * @throws IOException If the map could not be read.
+     */
+    public static CompiledMap read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+        if (in.readInt() != MAGIC) {
+            throw new GdxRuntimeException("Not a compiled map");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new GdxRuntimeException("Unsupported compiled map version " + version + ", recompile the maps");
+        }
+        CompiledMap map = new CompiledMap();
+        map.width = in.readInt();
+        map.height = in.readInt();
+        map.tileWidth = in.readInt();
+        map.tileHeight = in.readInt();
+
+        int tileSetCount = in.readInt();
+        for (int i = 0; i < tileSetCount; i++) {
+            TileSetData tileSet = new TileSetData();
+            tileSet.name = in.readUTF();
+            tileSet.firstGid = in.readInt();
+            tileSet.imagePath = in.readUTF();
+            tileSet.tileWidth = in.readInt();
+            tileSet.tileHeight = in.readInt();
+            tileSet.spacing = in.readInt();
+            tileSet.margin = in.readInt();
+            tileSet.offsetX = in.readInt();
+            tileSet.offsetY = in.readInt();
+            int animationCount = in.readInt();
+            for (int j = 0; j < animationCount; j++) {
+                int tileId = in.readInt();
+                int[] frames = new int[in.readInt()];
+                for (int k = 0; k < frames.length; k++) {
+                    frames[k] = in.readInt();
+                }
+                tileSet.animations.put(tileId, frames);
+            }
+            map.tileSets.add(tileSet);
+        }
+
+        int layerCount = in.readInt();
+        for (int i = 0; i < layerCount; i++) {
+            LayerData layer = new LayerData();
+            layer.name = in.readUTF();
+            layer.offsetX = in.readFloat();
+            layer.offsetY = in.readFloat();
+            layer.opacity = in.readFloat();
+            layer.visible = in.readBoolean();
+            int cellCount = in.readInt();
+            layer.cells.ensureCapacity(cellCount * 3);
+            for (int j = 0; j < cellCount; j++) {
+                layer.cells.add(in.readShort(), in.readShort(), in.readInt());
+            }
+            map.layers.add(layer);
+        }
+
+        readRectangles(in, map.collisions);
+        readRectangles(in, map.exits);
+        readRectangles(in, map.activities);
+        int cornerCount = in.readInt();
+        for (int i = 0; i < cornerCount; i++) {
+            map.buildingCorners.put(in.readUTF(), new Vector2(in.readFloat(), in.readFloat()));
+        }
+        int lightCount = in.readInt();
+        for (int i = 0; i < lightCount; i++) {
+            map.lights.add(new Vector2(in.readFloat(), in.readFloat()));
+        }
+        return map;
+    }
+
+    /**
+     * Writes an array of rectangles, preceded by its length.
+     * @param out The stream to write to.
+     * @param rectangles The rectangles to write.
+     * @throws IOException If the rectangles could not be written.
+     */
+    private static void writeRectangles(DataOutputStream out, Array<Rectangle> rectangles) throws IOException {
+        out.writeInt(rectangles.size);
+        for (Rectangle rectangle : rectangles) {
+            out.writeFloat(rectangle.x);
+            out.writeFloat(rectangle.y);
+            out.writeFloat(rectangle.width);
+            out.writeFloat(rectangle.height);
+        }
+    }
+
+    /**
+     * Reads an array of rectangles written by writeRectangles.
+     * @param in The stream to read from.
+     * @param rectangles The Array to add the rectangles to.
+     * @throws IOException If the rectangles could not be read.
+     */
+    private static void readRectangles(DataInputStream in, Array<Rectangle> rectangles) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            rectangles.add(new Rectangle(in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat()));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Resolves TMX map paths to the map compiled by the MapCompiler, when one exists,
+ * so that maps are still requested by their TMX path but load from the faster binary format.
+ * Maps that have not been compiled, and all other files, are resolved unchanged.
+ */
+package com.eng1.heslingtonhustle.map;
+
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+
+public class CompiledMapResolver implements FileHandleResolver {
+    private final FileHandleResolver resolver;
+
+    /**
+     * Constructs a CompiledMapResolver.
+     * @param resolver The resolver used to find files.
+     */
+    public CompiledMapResolver(FileHandleResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Resolves a file, preferring the compiled version of a TMX map.
+     * @param fileName The name of the file.
+     * @return The compiled map if the file is a TMX map that has been compiled, otherwise the file itself.
+     */
+    @Override
+    public FileHandle resolve(String fileName) {
+        if (fileName.endsWith(".tmx")) {
+            FileHandle compiled = resolver.resolve(CompiledMap.compiledPath(fileName));
+            if (compiled.exists()) {
+                return compiled;
+            }
+        }
+        return resolver.resolve(fileName);
+    }
+}
@@ -0,0 +1,326 @@
+/**
+ * A parsed tiled map together with the collision, exit and activity tiles, the building corners and the lamp lights
+ * extracted from it, so that a map only needs to be parsed once.
+ * The tiles are also indexed in spatial grids, so that the ones near the player can be found quickly.
+ * The map's static tiles can be uploaded to a TileChunkCache, which is kept with the map until it is disposed.
+ */
+package com.eng1.heslingtonhustle.map;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapObject;
+import com.badlogic.gdx.maps.MapObjects;
+import com.badlogic.gdx.maps.objects.RectangleMapObject;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileSet;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.OrderedMap;
+
+import static com.eng1.heslingtonhustle.game.Game.SCALE;
+
+public class LoadedMap implements Disposable {
+    public static final String LAMP_LAYER = "Lampost";
+    private static final int BYTES_PER_CELL_REFERENCE = 8;
+    private static final int BYTES_PER_CELL = 32;
+    private static final int BYTES_PER_TEXEL = 4;
+
+    private final String path;
+    private final TiledMap tiledMap;
+    private final Array<Rectangle> collidableTiles = new Array<>();
+    private final Array<Rectangle> exitTiles = new Array<>();
+    private final Array<ActivityTile> activityTiles = new Array<>();
+    private final OrderedMap<String, Vector2> buildingCorners = new OrderedMap<>();
+    private final Array<Vector2> lights = new Array<>();
+    private final SpatialGrid<Rectangle> collisionGrid = new SpatialGrid<>();
+    private final SpatialGrid<Rectangle> exitGrid = new SpatialGrid<>();
+    private final SpatialGrid<ActivityTile> activityGrid = new SpatialGrid<>();
+    private final long sizeBytes;
+    private TileChunkCache tileCache;
+
+    /**
+     * Constructs a LoadedMap from an already parsed TiledMap.
+     * Parses the collidable, exit and activity tiles, the building corners and the lights, and estimates the memory the map uses.
+     * @param path The path the map was loaded from.
+     * @param tiledMap The parsed map.
+     */
+    public LoadedMap(String path, TiledMap tiledMap) {
+        this.path = path;
+        this.tiledMap = tiledMap;
+        parseTiles(tiledMap.getLayers().get("collisions"), collidableTiles);
+        parseTiles(tiledMap.getLayers().get("exit"), exitTiles);
+        parseActivityTiles(tiledMap.getLayers().get("activities"));
+        parseBuildingCorners(tiledMap.getLayers().get("buildingCorners"));
+        parseLights(tiledMap.getLayers().get(LAMP_LAYER));
+        buildGrids();
+        sizeBytes = estimateSize(tiledMap);
+    }
+
+    /**
+     * Constructs a LoadedMap from a TiledMap built from a compiled map, whose tiles are already parsed and scaled.
+     * @param path The path the map was loaded from.
+     * @param tiledMap The map built from the compiled map.
+     * @param compiledMap The compiled map, providing the collidable, exit and activity tiles, the building corners and the lights.
+     */
+    public LoadedMap(String path, TiledMap tiledMap, CompiledMap compiledMap) {
+        this.path = path;
+        this.tiledMap = tiledMap;
+        collidableTiles.addAll(compiledMap.collisions);
+        exitTiles.addAll(compiledMap.exits);
+        for (Rectangle rectangle : compiledMap.activities) {
+            activityTiles.add(new ActivityTile(rectangle));
+        }
+        buildingCorners.putAll(compiledMap.buildingCorners);
+        lights.addAll(compiledMap.lights);
+        buildGrids();
+        sizeBytes = estimateSize(tiledMap);
+    }
+
+    /**
+     * Parses the rectangles from the given layer, scales them and adds them to the provided Array.
+     * @param layer The layer to parse, may be null if the map does not have it.
+     * @param tiles The Array to add the parsed tiles to.
+     */
+    private static void parseTiles(MapLayer layer, Array<Rectangle> tiles) {
+        if (layer == null) {
+            return;
+        }
+        MapObjects objects = layer.getObjects();
+        for (MapObject object : objects) {
+            if (object instanceof RectangleMapObject) {
+                tiles.add(scale(((RectangleMapObject) object).getRectangle()));
+            }
+        }
+    }
+
+    /**
+     * Parses the activity tiles from the given layer.
+     * @param layer The activities layer, may be null if the map does not have it.
+     */
+    private void parseActivityTiles(MapLayer layer) {
+        Array<Rectangle> rectangles = new Array<>();
+        parseTiles(layer, rectangles);
+        for (Rectangle rectangle : rectangles) {
+            activityTiles.add(new ActivityTile(rectangle));
+        }
+    }
+
+    /**
+     * Adds the collidable, exit and activity tiles to their spatial grids, which are then read-only,
+     * as the MapManager shares them and the map may be cached and shown again.
+     */
+    private void buildGrids() {
+        for (Rectangle tile : collidableTiles) {
+            collisionGrid.insert(tile, tile);
+        }
+        for (Rectangle tile : exitTiles) {
+            exitGrid.insert(tile, tile);
+        }
+        for (ActivityTile tile : activityTiles) {
+            activityGrid.insert(tile, tile.getRectangle());
+        }
+        collisionGrid.setReadOnly();
+        exitGrid.setReadOnly();
+        activityGrid.setReadOnly();
+    }
+
+    /**
+     * Parses the building corners from the given layer, keyed by the name property of each corner.
+     * @param layer The buildingCorners layer, may be null if the map does not have it.
+     */
+    private void parseBuildingCorners(MapLayer layer) {
+        if (layer == null) {
+            return;
+        }
+        for (MapObject corner : layer.getObjects()) {
+            Object id = corner.getProperties().get("name");
+            if (id != null) {
+                float x = Float.parseFloat(corner.getProperties().get("x").toString()) * SCALE;
+                float y = Float.parseFloat(corner.getProperties().get("y").toString()) * SCALE;
+                buildingCorners.put(id.toString(), new Vector2(x, y));
+            }
+        }
+    }
+
+    /**
+     * Finds the lamps on the given tile layer. Each lamp is a column of tiles, and its light is placed
+     * at the centre of its top tile. Lamps are found in rows from the top, in the same order as the MapCompiler.
+     * @param layer The Lampost layer, may be null if the map does not have it.
+     */
+    private void parseLights(MapLayer layer) {
+        if (!(layer instanceof TiledMapTileLayer)) {
+            return;
+        }
+        TiledMapTileLayer tileLayer = (TiledMapTileLayer) layer;
+        float tileWidth = tileLayer.getTileWidth() * SCALE;
+        float tileHeight = tileLayer.getTileHeight() * SCALE;
+        for (int y = tileLayer.getHeight() - 1; y >= 0; y--) {
+            for (int x = 0; x < tileLayer.getWidth(); x++) {
+                if (tileLayer.getCell(x, y) != null && tileLayer.getCell(x, y + 1) == null) {
+                    lights.add(new Vector2((x + 0.5f) * tileWidth, (y + 0.5f) * tileHeight));
+                }
+            }
+        }
+    }
+
+    /**
+     * Scales a rectangle from map units to world units.
+     * @param rect The rectangle in map units.
+     * @return A new rectangle in world units.
+     */
+    private static Rectangle scale(Rectangle rect) {
+        return new Rectangle(rect.x * SCALE, rect.y * SCALE, rect.width * SCALE, rect.height * SCALE);
+    }
+
+    /**
+     * Estimates the memory used by a map, counting its tile layers and the textures of its tilesets.
+     * @param tiledMap The map to measure.
+     * @return The estimated size in bytes.
+     */
+    private static long estimateSize(TiledMap tiledMap) {
+        long size = 0;
+        for (MapLayer layer : tiledMap.getLayers()) {
+            if (layer instanceof TiledMapTileLayer) {
+                TiledMapTileLayer tileLayer = (TiledMapTileLayer) layer;
+                for (int x = 0; x < tileLayer.getWidth(); x++) {
+                    for (int y = 0; y < tileLayer.getHeight(); y++) {
+                        size += BYTES_PER_CELL_REFERENCE;
+                        if (tileLayer.getCell(x, y) != null) {
+                            size += BYTES_PER_CELL;
+                        }
+                    }
+                }
+            }
+        }
+
+        ObjectSet<Texture> textures = new ObjectSet<>();
+        for (TiledMapTileSet tileSet : tiledMap.getTileSets()) {
+            for (TiledMapTile tile : tileSet) {
+                if (tile.getTextureRegion() != null && tile.getTextureRegion().getTexture() != null) {
+                    textures.add(tile.getTextureRegion().getTexture());
+                }
+            }
+        }
+        for (Texture texture : textures) {
+            size += (long) texture.getWidth() * texture.getHeight() * BYTES_PER_TEXEL;
+        }
+        return size;
+    }
+
+    /**
+     * Retrieves the path the map was loaded from.
+     * @return The map path.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Retrieves the parsed tiled map.
+     * @return The tiled map.
+     */
+    public TiledMap getTiledMap() {
+        return tiledMap;
+    }
+
+    /**
+     * Retrieves the collidable tiles of the map.
+     * @return The array of collidable tiles.
+     */
+    public Array<Rectangle> getCollidableTiles() {
+        return collidableTiles;
+    }
+
+    /**
+     * Retrieves the exit tiles of the map.
+     * @return The array of exit tiles.
+     */
+    public Array<Rectangle> getExitTiles() {
+        return exitTiles;
+    }
+
+    /**
+     * Retrieves the activity tiles of the map.
+     * @return The array of activity tiles.
+     */
+    public Array<ActivityTile> getActivityTiles() {
+        return activityTiles;
+    }
+
+    /**
+     * Retrieves the spatial grid of the collidable tiles.
+     * @return The grid of collidable tiles.
+     */
+    public SpatialGrid<Rectangle> getCollisionGrid() {
+        return collisionGrid;
+    }
+
+    /**
+     * Retrieves the spatial grid of the exit tiles.
+     * @return The grid of exit tiles.
+     */
+    public SpatialGrid<Rectangle> getExitGrid() {
+        return exitGrid;
+    }
+
+    /**
+     * Retrieves the spatial grid of the activity tiles.
+     * @return The grid of activity tiles.
+     */
+    public SpatialGrid<ActivityTile> getActivityGrid() {
+        return activityGrid;
+    }
+
+    /**
+     * Retrieves the corners of the buildings placed on the map, in world units.
+     * @return The building corners, keyed by building id.
+     */
+    public OrderedMap<String, Vector2> getBuildingCorners() {
+        return buildingCorners;
+    }
+
+    /**
+     * Retrieves the positions of the lamp lights on the map, in world units.
+     * @return The array of lights.
+     */
+    public Array<Vector2> getLights() {
+        return lights;
+    }
+
+    /**
+     * Retrieves the map's tile cache, creating it the first time it is called.
+     * Its static tiles are not uploaded until it is built. Must be called on the GL thread.
+     * @return The tile cache.
+     */
+    public TileChunkCache getTileCache() {
+        if (tileCache == null) {
+            tileCache = new TileChunkCache(tiledMap, SCALE, MapCompiler.SEPARATE_LAYERS);
+        }
+        return tileCache;
+    }
+
+    /**
+     * Retrieves the estimated memory used by the map.
+     * @return The estimated size in bytes.
+     */
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Disposes the tiled map, the textures it owns and its tile cache.
+     */
+    @Override
+    public void dispose() {
+        if (tileCache != null) {
+            tileCache.dispose();
+            tileCache = null;
+        }
+        tiledMap.dispose();
+    }
+}
@@ -0,0 +1,248 @@
+/**
+ * Loads a map into a LoadedMap through an AssetManager, from either a TMX file or a map compiled by the MapCompiler.
+ * The map is parsed on the AssetManager's worker thread, while the tileset textures are loaded as dependencies,
+ * so only their upload runs on the GL thread.
+ */
+package com.eng1.heslingtonhustle.map;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell;
+import com.badlogic.gdx.maps.tiled.TiledMapTileSet;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.maps.tiled.tiles.AnimatedTiledMapTile;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.eng1.heslingtonhustle.helper.LoadProfiler;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public class LoadedMapLoader extends AsynchronousAssetLoader<LoadedMap, LoadedMapLoader.Parameters> {
+    private static final int FLAG_FLIP_HORIZONTALLY = 0x80000000;
+    private static final int FLAG_FLIP_VERTICALLY = 0x40000000;
+    private static final int FLAG_FLIP_DIAGONALLY = 0x20000000;
+    private static final int MASK_CLEAR = 0xE0000000;
+
+    private final TmxMapLoader tmxMapLoader;
+    private final TmxMapLoader.Parameters tmxParameters = new TmxMapLoader.Parameters();
+    private CompiledMap compiledMap;
+    private LoadedMap loadedMap;
+
+    /**
+     * Constructs a LoadedMapLoader which resolves map files with the given resolver.
+     * @param resolver The resolver used to find map files.
+     */
+    public LoadedMapLoader(FileHandleResolver resolver) {
+        super(resolver);
+        tmxMapLoader = new TmxMapLoader(resolver);
+    }
+
+    /**
+     * Checks whether a resolved map file is a compiled map rather than a TMX file.
+     * @param file The resolved map file.
+     * @return True if the file is a compiled map, otherwise false.
+     */
+    private static boolean isCompiled(FileHandle file) {
+        return CompiledMap.EXTENSION.equals(file.extension());
+    }
+
+    /**
+     * Retrieves the tileset textures the map depends on. Compiled maps are read here and kept for loadAsync.
+     * @return The descriptors of the textures used by the map.
+     */
+    // The raw descriptor type is the one AssetLoader declares for dependencies
+    @SuppressWarnings("rawtypes")
+    @Override
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, Parameters parameter) {
+        if (!isCompiled(file)) {
+            return tmxMapLoader.getDependencies(fileName, file, tmxParameters);
+        }
+        compiledMap = readCompiledMap(file);
+        TextureLoader.TextureParameter textureParameter = new TextureLoader.TextureParameter();
+        textureParameter.genMipMaps = tmxParameters.generateMipMaps;
+        textureParameter.minFilter = tmxParameters.textureMinFilter;
+        textureParameter.magFilter = tmxParameters.textureMagFilter;
+        Array<AssetDescriptor> dependencies = new Array<>();
+        for (CompiledMap.TileSetData tileSet : compiledMap.tileSets) {
+            dependencies.add(new AssetDescriptor<>(tileSet.imagePath, Texture.class, textureParameter));
+        }
+        return dependencies;
+    }
+
+    /**
+     * Parses the map and its collision, exit and activity layers. Runs on the AssetManager's worker thread.
+     */
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, Parameters parameter) {
+        long start = LoadProfiler.begin();
+        boolean compiled = isCompiled(file);
+        if (compiled) {
+            CompiledMap map = compiledMap != null ? compiledMap : readCompiledMap(file);
+            compiledMap = null;
+            loadedMap = new LoadedMap(fileName, createTiledMap(manager, map), map);
+        } else {
+            tmxMapLoader.loadAsync(manager, fileName, file, tmxParameters);
+            TiledMap tiledMap = tmxMapLoader.loadSync(manager, fileName, file, tmxParameters);
+            loadedMap = new LoadedMap(fileName, tiledMap);
+        }
+        LoadProfiler.end(compiled ? "map parse" : "tmx parse", fileName, start, file.length());
+    }
+
+    /**
+     * Returns the map parsed by loadAsync. Runs on the GL thread.
+     */
+    @Override
+    public LoadedMap loadSync(AssetManager manager, String fileName, FileHandle file, Parameters parameter) {
+        LoadedMap result = loadedMap;
+        loadedMap = null;
+        return result;
+    }
+
+    /**
+     * Reads a compiled map file.
+     * @param file The compiled map file.
+     * @return The compiled map.
+     */
+    private static CompiledMap readCompiledMap(FileHandle file) {
+        try (InputStream inputStream = file.read()) {
+            return CompiledMap.read(inputStream);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't load compiled map " + file, e);
+        }
+    }
+
+    /**
+     * Builds a TiledMap from a compiled map, using the tileset textures loaded as dependencies.
+     * Tiles are cut and cells are flipped the same way as the TmxMapLoader does.
+     * @param manager The AssetManager the textures were loaded through.
+     * @param compiledMap The compiled map.
+     * @return The TiledMap.
+     */
+    private static TiledMap createTiledMap(AssetManager manager, CompiledMap compiledMap) {
+        TiledMap tiledMap = new TiledMap();
+        tiledMap.getProperties().put("orientation", "orthogonal");
+        tiledMap.getProperties().put("width", compiledMap.width);
+        tiledMap.getProperties().put("height", compiledMap.height);
+        tiledMap.getProperties().put("tilewidth", compiledMap.tileWidth);
+        tiledMap.getProperties().put("tileheight", compiledMap.tileHeight);
+
+        for (CompiledMap.TileSetData tileSetData : compiledMap.tileSets) {
+            Texture texture = manager.get(tileSetData.imagePath, Texture.class);
+            tiledMap.getTileSets().addTileSet(createTileSet(tileSetData, texture));
+        }
+
+        for (CompiledMap.LayerData layerData : compiledMap.layers) {
+            TiledMapTileLayer layer = new TiledMapTileLayer(compiledMap.width, compiledMap.height,
+                    compiledMap.tileWidth, compiledMap.tileHeight);
+            layer.setName(layerData.name);
+            layer.setOffsetX(layerData.offsetX);
+            layer.setOffsetY(layerData.offsetY);
+            layer.setOpacity(layerData.opacity);
+            layer.setVisible(layerData.visible);
+            IntArray cells = layerData.cells;
+            for (int i = 0; i < cells.size; i += 3) {
+                int gid = cells.get(i + 2);
+                TiledMapTile tile = tiledMap.getTileSets().getTile(gid & ~MASK_CLEAR);
+                if (tile != null) {
+                    Cell cell = createCell(gid);
+                    cell.setTile(tile);
+                    layer.setCell(cells.get(i), cells.get(i + 1), cell);
+                }
+            }
+            tiledMap.getLayers().add(layer);
+        }
+        return tiledMap;
+    }
+
+    /**
+     * Cuts a tileset's texture into tiles and creates its animated tiles.
+     * @param tileSetData The compiled tileset.
+     * @param texture The tileset texture.
+     * @return The tileset.
+     */
+    private static TiledMapTileSet createTileSet(CompiledMap.TileSetData tileSetData, Texture texture) {
+        TiledMapTileSet tileSet = new TiledMapTileSet();
+        tileSet.setName(tileSetData.name);
+        tileSet.getProperties().put("firstgid", tileSetData.firstGid);
+
+        int stopWidth = texture.getWidth() - tileSetData.tileWidth;
+        int stopHeight = texture.getHeight() - tileSetData.tileHeight;
+        int id = tileSetData.firstGid;
+        for (int y = tileSetData.margin; y <= stopHeight; y += tileSetData.tileHeight + tileSetData.spacing) {
+            for (int x = tileSetData.margin; x <= stopWidth; x += tileSetData.tileWidth + tileSetData.spacing) {
+                TextureRegion region = new TextureRegion(texture, x, y, tileSetData.tileWidth, tileSetData.tileHeight);
+                StaticTiledMapTile tile = new StaticTiledMapTile(region);
+                tile.setId(id);
+                tile.setOffsetX(tileSetData.offsetX);
+                tile.setOffsetY(-tileSetData.offsetY);
+                tileSet.putTile(id++, tile);
+            }
+        }
+
+        Array<AnimatedTiledMapTile> animatedTiles = new Array<>();
+        for (IntMap.Entry<int[]> animation : tileSetData.animations) {
+            Array<StaticTiledMapTile> frames = new Array<>();
+            IntArray intervals = new IntArray();
+            for (int i = 0; i < animation.value.length; i += 2) {
+                frames.add((StaticTiledMapTile) tileSet.getTile(tileSetData.firstGid + animation.value[i]));
+                intervals.add(animation.value[i + 1]);
+            }
+            AnimatedTiledMapTile animatedTile = new AnimatedTiledMapTile(intervals, frames);
+            animatedTile.setId(tileSetData.firstGid + animation.key);
+            animatedTiles.add(animatedTile);
+        }
+        for (AnimatedTiledMapTile animatedTile : animatedTiles) {
+            tileSet.putTile(animatedTile.getId(), animatedTile);
+        }
+        return tileSet;
+    }
+
+    /**
+     * Creates a cell with the flips and rotation encoded in the flag bits of a gid.
+     * @param gid The gid, including its flag bits.
+     * @return A cell without a tile.
+     */
+    private static Cell createCell(int gid) {
+        boolean flipHorizontally = (gid & FLAG_FLIP_HORIZONTALLY) != 0;
+        boolean flipVertically = (gid & FLAG_FLIP_VERTICALLY) != 0;
+        boolean flipDiagonally = (gid & FLAG_FLIP_DIAGONALLY) != 0;
+        Cell cell = new Cell();
+        if (flipDiagonally) {
+            if (flipHorizontally && flipVertically) {
+                cell.setFlipHorizontally(true);
+                cell.setRotation(Cell.ROTATE_270);
+            } else if (flipHorizontally) {
+                cell.setRotation(Cell.ROTATE_270);
+            } else if (flipVertically) {
+                cell.setRotation(Cell.ROTATE_90);
+            } else {
+                cell.setFlipVertically(true);
+                cell.setRotation(Cell.ROTATE_270);
+            }
+        } else {
+            cell.setFlipHorizontally(flipHorizontally);
+            cell.setFlipVertically(flipVertically);
+        }
+        return cell;
+    }
+
+    /**
+     * Parameters for loading a LoadedMap. There are currently no options.
+     */
+    public static class Parameters extends AssetLoaderParameters<LoadedMap> {
+    }
+}
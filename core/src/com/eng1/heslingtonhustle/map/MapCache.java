@@ -0,0 +1,173 @@
+/**
+ * A least recently used cache of loaded maps, keyed by map path.
+ * Maps are evicted, oldest first, once the estimated memory of the cached maps exceeds the budget.
+ * Maps that were loaded through an AssetManager are unloaded through it, so shared textures stay reference counted.
+ */
+package com.eng1.heslingtonhustle.map;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class MapCache implements Disposable {
+    public static final long DEFAULT_BUDGET_BYTES = 256L * 1024 * 1024;
+
+    private final LinkedHashMap<String, LoadedMap> maps = new LinkedHashMap<>(16, 0.75f, true);
+    private final AssetManager assetManager;
+    private final long budgetBytes;
+    private long usedBytes;
+    private String pinnedPath;
+
+    /**
+     * Constructs a MapCache with the default memory budget.
+     */
+    public MapCache() {
+        this(DEFAULT_BUDGET_BYTES);
+    }
+
+    /**
+     * Constructs a MapCache with the given memory budget.
+     * @param budgetBytes The estimated memory the cached maps may use before maps are evicted.
+     */
+    public MapCache(long budgetBytes) {
+        this(null, budgetBytes);
+    }
+
+    /**
+     * Constructs a MapCache with the given memory budget, for maps loaded through the given AssetManager.
+     * @param assetManager The AssetManager the maps are loaded through, or null if they are loaded directly.
+     * @param budgetBytes The estimated memory the cached maps may use before maps are evicted.
+     */
+    public MapCache(AssetManager assetManager, long budgetBytes) {
+        this.assetManager = assetManager;
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Retrieves a cached map and marks it as the most recently used.
+     * @param path The path of the map.
+     * @return The cached map, or null if it is not cached.
+     */
+    public LoadedMap get(String path) {
+        return maps.get(path);
+    }
+
+    /**
+     * Checks whether a map is cached, without changing its position in the eviction order.
+     * @param path The path of the map.
+     * @return True if the map is cached, otherwise false.
+     */
+    public boolean contains(String path) {
+        return maps.containsKey(path);
+    }
+
+    /**
+     * Adds a map to the cache as the most recently used map, then evicts maps until the budget is met.
+     * The added map and the pinned map are never evicted.
+     * @param map The map to add.
+     */
+    public void put(LoadedMap map) {
+        LoadedMap previous = maps.put(map.getPath(), map);
+        if (previous != null && previous != map) {
+            usedBytes -= previous.getSizeBytes();
+            release(previous);
+        }
+        if (previous != map) {
+            usedBytes += map.getSizeBytes();
+        }
+        evict(map.getPath());
+    }
+
+    /**
+     * Pins a map so that it is never evicted, typically because it is the map being displayed.
+     * Only one map can be pinned at a time.
+     * @param path The path of the map to pin.
+     */
+    public void pin(String path) {
+        pinnedPath = path;
+    }
+
+    /**
+     * Removes a map from the cache and disposes it.
+     * @param path The path of the map.
+     * @return True if the map was cached, otherwise false.
+     */
+    public boolean remove(String path) {
+        LoadedMap map = maps.remove(path);
+        if (map == null) {
+            return false;
+        }
+        usedBytes -= map.getSizeBytes();
+        release(map);
+        return true;
+    }
+
+    /**
+     * Releases an evicted map, unloading it through the AssetManager if it was loaded through it.
+     * @param map The map to release.
+     */
+    private void release(LoadedMap map) {
+        if (assetManager != null && assetManager.isLoaded(map.getPath(), LoadedMap.class)) {
+            assetManager.unload(map.getPath());
+        } else {
+            map.dispose();
+        }
+    }
+
+    /**
+     * Evicts the least recently used maps until the cached maps fit within the budget.
+     * @param keepPath The path of a map that must not be evicted.
+     */
+    private void evict(String keepPath) {
+        Iterator<Map.Entry<String, LoadedMap>> iterator = maps.entrySet().iterator();
+        while (usedBytes > budgetBytes && iterator.hasNext()) {
+            Map.Entry<String, LoadedMap> entry = iterator.next();
+            String path = entry.getKey();
+            if (path.equals(keepPath) || path.equals(pinnedPath)) {
+                continue;
+            }
+            iterator.remove();
+            usedBytes -= entry.getValue().getSizeBytes();
+            release(entry.getValue());
+        }
+    }
+
+    /**
+     * Retrieves the number of cached maps.
+     * @return The number of cached maps.
+     */
+    public int size() {
+        return maps.size();
+    }
+
+    /**
+     * Retrieves the estimated memory used by the cached maps.
+     * @return The used memory in bytes.
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Retrieves the memory budget of the cache.
+     * @return The budget in bytes.
+     */
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    /**
+     * Disposes every cached map and empties the cache.
+     */
+    @Override
+    public void dispose() {
+        for (LoadedMap map : maps.values()) {
+            release(map);
+        }
+        maps.clear();
+        usedBytes = 0;
+    }
+}
@@ -0,0 +1,517 @@
+/**
+ * Compiles TMX maps into the binary CompiledMap format at build time.
+ * Consecutive tile layers that are drawn with the same offset and opacity are flattened into packed layers,
+ * each holding the tiles of a single tileset image, so far fewer layers are iterated when rendering
+ * and no packed layer switches texture part way through.
+ * Layers that are rendered on their own, such as the overlay, are kept separate.
+ * The object layers used by the game are scaled to world units, and adjacent collision rectangles are merged.
+ */
+package com.eng1.heslingtonhustle.map;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.XmlReader;
+import com.badlogic.gdx.utils.XmlReader.Element;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static com.eng1.heslingtonhustle.game.Game.SCALE;
+
+public class MapCompiler {
+    public static final String[] SEPARATE_LAYERS = {"overlay"};
+    private static final float MERGE_EPSILON = 0.01f;
+    private static final int FLIP_FLAGS = 0xE0000000;
+
+    private final XmlReader xmlReader = new XmlReader();
+
+    /**
+     * Compiles every TMX map in the maps directory of the given assets directory,
+     * writing each compiled map next to its source.
+     * @param args The assets directory.
+     * @throws IOException If a map could not be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: MapCompiler <assets directory>");
+            System.exit(1);
+        }
+        Path assetsDir = Paths.get(args[0]).toAbsolutePath().normalize();
+        MapCompiler compiler = new MapCompiler();
+        try (DirectoryStream<Path> maps = Files.newDirectoryStream(assetsDir.resolve("maps"), "*.tmx")) {
+            for (Path tmxFile : maps) {
+                CompiledMap map = compiler.compile(tmxFile, assetsDir);
+                Path output = Paths.get(CompiledMap.compiledPath(tmxFile.toString()));
+                try (OutputStream outputStream = Files.newOutputStream(output)) {
+                    map.write(outputStream);
+                }
+                System.out.println("Compiled " + assetsDir.relativize(tmxFile) + ": " + map.layers.size
+                        + " tile layers, " + map.collisions.size + " collision rectangles");
+            }
+        }
+    }
+
+    /**
+     * Compiles a TMX map.
+     * @param tmxFile The TMX file to compile.
+     * @param assetsDir The assets directory, which tileset image paths are stored relative to.
+     * @return The compiled map.
+     */
+    public CompiledMap compile(Path tmxFile, Path assetsDir) {
+        tmxFile = tmxFile.toAbsolutePath().normalize();
+        assetsDir = assetsDir.toAbsolutePath().normalize();
+        Element root = parse(tmxFile);
+        if (!"orthogonal".equals(root.getAttribute("orientation", "orthogonal"))) {
+            throw new GdxRuntimeException("Only orthogonal maps can be compiled: " + tmxFile);
+        }
+
+        CompiledMap map = new CompiledMap();
+        map.width = root.getIntAttribute("width");
+        map.height = root.getIntAttribute("height");
+        map.tileWidth = root.getIntAttribute("tilewidth");
+        map.tileHeight = root.getIntAttribute("tileheight");
+        int heightInPixels = map.height * map.tileHeight;
+
+        for (Element tileSet : root.getChildrenByName("tileset")) {
+            map.tileSets.add(compileTileSet(tileSet, tmxFile, assetsDir));
+        }
+
+        boolean flatten = tilesFitGrid(map);
+        Array<Element> group = new Array<>();
+        for (int i = 0; i < root.getChildCount(); i++) {
+            Element child = root.getChild(i);
+            switch (child.getName()) {
+                case "layer":
+                    if (LoadedMap.LAMP_LAYER.equals(child.getAttribute("name", ""))) {
+                        compileLights(child, map);
+                    }
+                    if (group.size > 0 && !(flatten && canFlatten(group.peek(), child))) {
+                        flattenLayers(group, map);
+                    }
+                    group.add(child);
+                    break;
+                case "objectgroup":
+                    compileObjectGroup(child, map, heightInPixels);
+                    break;
+                case "group":
+                case "imagelayer":
+                    throw new GdxRuntimeException("Unsupported layer type " + child.getName() + " in " + tmxFile);
+                default:
+                    break;
+            }
+        }
+        flattenLayers(group, map);
+        mergeRectangles(map.collisions);
+        return map;
+    }
+
+    /**
+     * Parses an XML file.
+     * @param file The file to parse.
+     * @return The root element.
+     */
+    private Element parse(Path file) {
+        return xmlReader.parse(new FileHandle(file.toFile()));
+    }
+
+    /**
+     * Compiles a tileset, reading it from its external TSX file if it has one.
+     * @param element The tileset element of the map.
+     * @param tmxFile The map file, which the TSX path is relative to.
+     * @param assetsDir The assets directory, which the image path is stored relative to.
+     * @return The compiled tileset.
+     */
+    private CompiledMap.TileSetData compileTileSet(Element element, Path tmxFile, Path assetsDir) {
+        CompiledMap.TileSetData tileSet = new CompiledMap.TileSetData();
+        tileSet.firstGid = element.getIntAttribute("firstgid", 1);
+        Path baseDir = tmxFile.getParent();
+        String source = element.getAttribute("source", null);
+        if (source != null) {
+            Path tsxFile = baseDir.resolve(source).normalize();
+            element = parse(tsxFile);
+            baseDir = tsxFile.getParent();
+        }
+
+        Element image = element.getChildByName("image");
+        if (image == null) {
+            throw new GdxRuntimeException("Image collection tilesets cannot be compiled: " + element.getAttribute("name", ""));
+        }
+        Path imageFile = baseDir.resolve(image.getAttribute("source")).normalize();
+        tileSet.imagePath = assetsDir.relativize(imageFile).toString().replace('\\', '/');
+        tileSet.name = element.getAttribute("name", "");
+        tileSet.tileWidth = element.getIntAttribute("tilewidth", 0);
+        tileSet.tileHeight = element.getIntAttribute("tileheight", 0);
+        tileSet.spacing = element.getIntAttribute("spacing", 0);
+        tileSet.margin = element.getIntAttribute("margin", 0);
+        Element offset = element.getChildByName("tileoffset");
+        if (offset != null) {
+            tileSet.offsetX = offset.getIntAttribute("x", 0);
+            tileSet.offsetY = offset.getIntAttribute("y", 0);
+        }
+
+        for (Element tile : element.getChildrenByName("tile")) {
+            Element animation = tile.getChildByName("animation");
+            if (animation == null) {
+                continue;
+            }
+            Array<Element> frames = animation.getChildrenByName("frame");
+            int[] values = new int[frames.size * 2];
+            for (int i = 0; i < frames.size; i++) {
+                values[i * 2] = frames.get(i).getIntAttribute("tileid");
+                values[i * 2 + 1] = frames.get(i).getIntAttribute("duration");
+            }
+            tileSet.animations.put(tile.getIntAttribute("id"), values);
+        }
+        return tileSet;
+    }
+
+    /**
+     * Checks whether every tile is drawn within its own cell, so tiles in different cells never overlap
+     * and drawing a layer's cells in a different layer order does not change the result.
+     * @param map The map, with its tilesets compiled.
+     * @return True if no tile is larger than the map's cells or offset from them, otherwise false.
+     */
+    private static boolean tilesFitGrid(CompiledMap map) {
+        for (CompiledMap.TileSetData tileSet : map.tileSets) {
+            if (tileSet.tileWidth > map.tileWidth || tileSet.tileHeight > map.tileHeight
+                    || tileSet.offsetX != 0 || tileSet.offsetY != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a tile layer can be flattened into the same packed layers as the layer before it.
+     * @param previous The previous tile layer.
+     * @param layer The tile layer.
+     * @return True if both layers are always drawn together with the same offset and opacity, otherwise false.
+     */
+    private static boolean canFlatten(Element previous, Element layer) {
+        return !isSeparate(previous) && !isSeparate(layer)
+                && previous.getFloatAttribute("offsetx", 0) == layer.getFloatAttribute("offsetx", 0)
+                && previous.getFloatAttribute("offsety", 0) == layer.getFloatAttribute("offsety", 0)
+                && previous.getFloatAttribute("opacity", 1) == layer.getFloatAttribute("opacity", 1)
+                && previous.getIntAttribute("visible", 1) == layer.getIntAttribute("visible", 1);
+    }
+
+    /**
+     * Checks whether a tile layer must be kept as its own layer, because it is rendered on its own
+     * or has properties that would be lost when flattened.
+     * @param layer The tile layer.
+     * @return True if the layer must not be flattened, otherwise false.
+     */
+    private static boolean isSeparate(Element layer) {
+        if (layer.getChildByName("properties") != null) {
+            return true;
+        }
+        String name = layer.getAttribute("name", "");
+        for (String separateLayer : SEPARATE_LAYERS) {
+            if (separateLayer.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Flattens a group of tile layers into packed layers and adds them to the map, then clears the group.
+     * Each packed layer only holds tiles cut from one tileset image, so it is drawn with a single texture.
+     * The order of the images is planned by TileRunOrder, which keeps each cell's tiles in their original drawing order,
+     * and each run of an image is packed into as few layers as its cells' tiles need.
+     * A group of a single layer is kept as it is, under its own name.
+     * @param group The tile layers to flatten, in drawing order.
+     * @param map The map to add the packed layers to.
+     */
+    private static void flattenLayers(Array<Element> group, CompiledMap map) {
+        if (group.size == 0) {
+            return;
+        }
+        Element first = group.first();
+        int cellCount = map.width * map.height;
+        int[][] gids = new int[group.size][];
+        for (int i = 0; i < group.size; i++) {
+            gids[i] = readGids(group.get(i), map);
+        }
+        if (group.size == 1) {
+            CompiledMap.LayerData layer = createPackedLayer(first, first.getAttribute("name", ""));
+            for (int i = 0; i < cellCount; i++) {
+                if (gids[0][i] != 0) {
+                    addCell(layer, i, gids[0][i], map);
+                }
+            }
+            map.layers.add(layer);
+            group.clear();
+            return;
+        }
+
+        // The gids of each cell's tiles and the images they are cut from, in drawing order
+        int[] tileSetImages = findTileSetImages(map);
+        int[][] cellGids = new int[cellCount][];
+        int[][] cellImages = new int[cellCount][];
+        IntArray stack = new IntArray();
+        for (int i = 0; i < cellCount; i++) {
+            stack.clear();
+            for (int[] layerGids : gids) {
+                if (layerGids[i] != 0) {
+                    stack.add(layerGids[i]);
+                }
+            }
+            cellGids[i] = stack.toArray();
+            cellImages[i] = new int[stack.size];
+            for (int j = 0; j < stack.size; j++) {
+                cellImages[i][j] = imageOf(stack.get(j), map, tileSetImages);
+            }
+        }
+
+        // Each run of an image takes as many packed layers as the most tiles a cell has in a row from it
+        String name = first.getAttribute("name", "") + "-" + group.peek().getAttribute("name", "") + "#";
+        IntArray runs = TileRunOrder.plan(cellImages, map.tileSets.size);
+        Array<CompiledMap.LayerData> packedLayers = new Array<>();
+        int[] next = new int[cellCount];
+        for (int run = 0; run < runs.size; run++) {
+            int image = runs.get(run);
+            int runStart = packedLayers.size;
+            for (int i = 0; i < cellCount; i++) {
+                for (int depth = 0; next[i] < cellGids[i].length && cellImages[i][next[i]] == image; depth++) {
+                    if (packedLayers.size == runStart + depth) {
+                        packedLayers.add(createPackedLayer(first, name + packedLayers.size));
+                    }
+                    addCell(packedLayers.get(runStart + depth), i, cellGids[i][next[i]++], map);
+                }
+            }
+        }
+        map.layers.addAll(packedLayers);
+        group.clear();
+    }
+
+    /**
+     * Creates a packed layer, drawn with the offset, opacity and visibility of the first layer of its group.
+     * @param first The first tile layer of the group.
+     * @param name The name of the packed layer.
+     * @return The packed layer, without any cells.
+     */
+    private static CompiledMap.LayerData createPackedLayer(Element first, String name) {
+        CompiledMap.LayerData layer = new CompiledMap.LayerData();
+        layer.name = name;
+        layer.offsetX = first.getFloatAttribute("offsetx", 0);
+        layer.offsetY = first.getFloatAttribute("offsety", 0);
+        layer.opacity = first.getFloatAttribute("opacity", 1);
+        layer.visible = first.getIntAttribute("visible", 1) == 1;
+        return layer;
+    }
+
+    /**
+     * Adds a cell to a packed layer.
+     * @param layer The packed layer.
+     * @param index The index of the cell, in rows from the top of the map.
+     * @param gid The gid of the cell's tile, including the flip flags.
+     * @param map The map, for its dimensions.
+     */
+    private static void addCell(CompiledMap.LayerData layer, int index, int gid, CompiledMap map) {
+        int x = index % map.width;
+        int y = map.height - 1 - index / map.width;
+        layer.cells.add(x, y, gid);
+    }
+
+    /**
+     * Numbers the map's tileset images, so that tilesets cut from the same image share a number.
+     * @param map The map, with its tilesets compiled.
+     * @return The number of each tileset's image, in the order of the map's tilesets.
+     */
+    private static int[] findTileSetImages(CompiledMap map) {
+        int[] images = new int[map.tileSets.size];
+        for (int i = 0; i < map.tileSets.size; i++) {
+            images[i] = i;
+            for (int j = 0; j < i; j++) {
+                if (map.tileSets.get(j).imagePath.equals(map.tileSets.get(i).imagePath)) {
+                    images[i] = images[j];
+                    break;
+                }
+            }
+        }
+        return images;
+    }
+
+    /**
+     * Finds the image a tile is cut from.
+     * @param gid The gid of the tile, including the flip flags.
+     * @param map The map, with its tilesets compiled.
+     * @param tileSetImages The number of each tileset's image.
+     * @return The number of the tile's image.
+     */
+    private static int imageOf(int gid, CompiledMap map, int[] tileSetImages) {
+        int id = gid & ~FLIP_FLAGS;
+        int tileSet = 0;
+        for (int i = 0; i < map.tileSets.size; i++) {
+            int firstGid = map.tileSets.get(i).firstGid;
+            if (firstGid <= id && firstGid >= map.tileSets.get(tileSet).firstGid) {
+                tileSet = i;
+            }
+        }
+        return tileSetImages[tileSet];
+    }
+
+    /**
+     * Finds the lamps on a tile layer and adds their lights to the map, in world units.
+     * Each lamp is a column of tiles, and its light is placed at the centre of its top tile.
+     * @param layer The Lampost tile layer.
+     * @param map The map to add the lights to.
+     */
+    private static void compileLights(Element layer, CompiledMap map) {
+        int[] gids = readGids(layer, map);
+        for (int i = 0; i < gids.length; i++) {
+            boolean topOfLamp = gids[i] != 0 && (i < map.width || gids[i - map.width] == 0);
+            if (topOfLamp) {
+                int x = i % map.width;
+                int y = map.height - 1 - i / map.width;
+                map.lights.add(new Vector2((x + 0.5f) * map.tileWidth * SCALE, (y + 0.5f) * map.tileHeight * SCALE));
+            }
+        }
+    }
+
+    /**
+     * Reads the gids of a CSV encoded tile layer, in rows from the top of the map, including the flip flags.
+     * @param layer The tile layer.
+     * @param map The map, for its dimensions.
+     * @return The gids of the layer.
+     */
+    private static int[] readGids(Element layer, CompiledMap map) {
+        Element data = layer.getChildByName("data");
+        if (data == null || !"csv".equals(data.getAttribute("encoding", null))) {
+            throw new GdxRuntimeException("Only CSV encoded tile layers can be compiled: " + layer.getAttribute("name", ""));
+        }
+        String[] values = data.getText().split(",");
+        int[] gids = new int[map.width * map.height];
+        for (int i = 0; i < gids.length && i < values.length; i++) {
+            gids[i] = (int) Long.parseLong(values[i].trim());
+        }
+        return gids;
+    }
+
+    /**
+     * Compiles an object layer used by the game, scaling its rectangles to world units with y pointing up.
+     * Other object layers are ignored.
+     * @param objectGroup The object layer.
+     * @param map The map to add the rectangles to.
+     * @param heightInPixels The height of the map in pixels, used to flip the y axis.
+     */
+    private static void compileObjectGroup(Element objectGroup, CompiledMap map, int heightInPixels) {
+        String name = objectGroup.getAttribute("name", "");
+        Array<Rectangle> rectangles;
+        switch (name) {
+            case "collisions":
+                rectangles = map.collisions;
+                break;
+            case "exit":
+                rectangles = map.exits;
+                break;
+            case "activities":
+                rectangles = map.activities;
+                break;
+            case "buildingCorners":
+                rectangles = null;
+                break;
+            default:
+                return;
+        }
+        for (Element object : objectGroup.getChildrenByName("object")) {
+            if (object.hasAttribute("gid") || object.getChildByName("polygon") != null
+                    || object.getChildByName("polyline") != null || object.getChildByName("ellipse") != null) {
+                continue;
+            }
+            float width = object.getFloatAttribute("width", 0);
+            float height = object.getFloatAttribute("height", 0);
+            float x = object.getFloatAttribute("x", 0);
+            float y = heightInPixels - object.getFloatAttribute("y", 0) - height;
+            if (rectangles != null) {
+                rectangles.add(new Rectangle(x * SCALE, y * SCALE, width * SCALE, height * SCALE));
+                continue;
+            }
+            Element properties = object.getChildByName("properties");
+            if (properties == null) {
+                continue;
+            }
+            for (Element property : properties.getChildrenByName("property")) {
+                if ("name".equals(property.getAttribute("name", null))) {
+                    String id = property.getAttribute("value", property.getText());
+                    map.buildingCorners.put(id, new Vector2(x * SCALE, y * SCALE));
+                }
+            }
+        }
+    }
+
+    /**
+     * Repeatedly merges pairs of rectangles that share a full edge, or where one contains the other,
+     * until no more rectangles can be merged. The merged rectangles cover exactly the same area.
+     * @param rectangles The rectangles to merge, modified in place.
+     */
+    static void mergeRectangles(Array<Rectangle> rectangles) {
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < rectangles.size && !merged; i++) {
+                Rectangle a = rectangles.get(i);
+                for (int j = i + 1; j < rectangles.size; j++) {
+                    Rectangle b = rectangles.get(j);
+                    if (canMerge(a, b)) {
+                        a.merge(b);
+                        rectangles.removeIndex(j);
+                        merged = true;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether the union of two rectangles covers exactly the same area as the two rectangles.
+     * @param a The first rectangle.
+     * @param b The second rectangle.
+     * @return True if the rectangles share a full edge or one contains the other, otherwise false.
+     */
+    private static boolean canMerge(Rectangle a, Rectangle b) {
+        float epsilon = MERGE_EPSILON * SCALE;
+        if (contains(a, b, epsilon) || contains(b, a, epsilon)) {
+            return true;
+        }
+        boolean sameRows = near(a.y, b.y, epsilon) && near(a.height, b.height, epsilon);
+        boolean sameColumns = near(a.x, b.x, epsilon) && near(a.width, b.width, epsilon);
+        boolean touchX = near(a.x + a.width, b.x, epsilon) || near(b.x + b.width, a.x, epsilon);
+        boolean touchY = near(a.y + a.height, b.y, epsilon) || near(b.y + b.height, a.y, epsilon);
+        return (sameRows && touchX) || (sameColumns && touchY);
+    }
+
+    /**
+     * Checks whether the outer rectangle contains the inner rectangle, within a tolerance.
+     * @param outer The outer rectangle.
+     * @param inner The inner rectangle.
+     * @param epsilon The tolerance.
+     * @return True if the inner rectangle is within the outer rectangle, otherwise false.
+     */
+    private static boolean contains(Rectangle outer, Rectangle inner, float epsilon) {
+        return inner.x >= outer.x - epsilon && inner.y >= outer.y - epsilon
+                && inner.x + inner.width <= outer.x + outer.width + epsilon
+                && inner.y + inner.height <= outer.y + outer.height + epsilon;
+    }
+
+    /**
+     * Checks whether two values are equal within a tolerance.
+     * @param a The first value.
+     * @param b The second value.
+     * @param epsilon The tolerance.
+     * @return True if the values differ by at most epsilon, otherwise false.
+     */
+    private static boolean near(float a, float b, float epsilon) {
+        return Math.abs(a - b) <= epsilon;
+    }
+}
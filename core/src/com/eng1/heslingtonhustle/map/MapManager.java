@@ -1,17 +1,26 @@
 /**
  * Manages the tiled map and its rendering.
+ * Maps are loaded through an AssetManager, either synchronously or in the background during a MapTransition.
+ * Maps are requested by their TMX path, but load from the version compiled by the MapCompiler when it exists.
+ * In the game, the static tiles of each map are drawn from a TileChunkCache rather than by the OrthogonalTiledMapRenderer.
+ * Maps shown by update have their tile cache built over several frames first, while maps changed to synchronously
+ * have it built at once.
  */
 package com.eng1.heslingtonhustle.map;
 
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.maps.MapObject;
-import com.badlogic.gdx.maps.MapObjects;
-import com.badlogic.gdx.maps.objects.RectangleMapObject;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.maps.tiled.TiledMap;
-import com.badlogic.gdx.maps.tiled.TmxMapLoader;
 import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
 import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectLongMap;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.eng1.heslingtonhustle.helper.LoadProfiler;
 
 import java.util.Map;
 
@@ -22,10 +31,24 @@ import java.util.HashMap;
 public class MapManager {
     private TiledMap tiledMap;
     private final OrthogonalTiledMapRenderer mapRenderer;
+    private final boolean cacheTiles;
+    private TileChunkCache tileCache;
+    private ShaderProgram shader;
+    private final AssetManager assetManager;
+    private final MapCache mapCache;
+    private final Array<String> pendingLoads = new Array<>();
+    // When each pending load was requested, for the LoadProfiler
+    private final ObjectLongMap<String> loadStarts = new ObjectLongMap<>();
+    private MapTransition transition;
     private final Array<Rectangle> collidableTiles = new Array<>();
     private final Map<String, String> mapPaths;
     private final Array<Rectangle> exitTiles = new Array<>();
     private final Array<ActivityTile> activityTiles = new Array<>();
+    private final Array<Vector2> lights = new Array<>();
+    private final SpatialGrid<Rectangle> collisionGrid = new SpatialGrid<>();
+    private final SpatialGrid<Rectangle> exitGrid = new SpatialGrid<>();
+    private final SpatialGrid<ActivityTile> activityGrid = new SpatialGrid<>();
+    private final int[] overlayLayers = new int[1];
     
     public String currentMapPath = "maps/campus_east.tmx";
     public static final String defaultMapPath = "maps/campus_east.tmx";
@@ -35,6 +58,7 @@ public class MapManager {
     public static final String endGameMapPath = "maps/end_game.tmx";
     public static final String homeMapPath = "maps/home.tmx";
     public static final String libraryMapPath = "maps/library.tmx";
+    public static final int LOAD_BUDGET_MILLIS = 4;
 
     /**
      * Constructs a new MapManager instance.
@@ -43,91 +67,171 @@ public class MapManager {
      * Also initializes the map paths for various locations.
      */
     public MapManager() {
-        tiledMap = new TmxMapLoader().load(defaultMapPath);
-        mapRenderer = new OrthogonalTiledMapRenderer(tiledMap, SCALE);
-        parseCollidableTiles();
+        this(MapCache.DEFAULT_BUDGET_BYTES);
+    }
 
-        mapPaths = new HashMap<>();
-        mapPaths.put("Library", libraryMapPath);
-        mapPaths.put("Cafe", cafeMapPath);
-        mapPaths.put("Cinema", cinemaMapPath);
-        mapPaths.put("Home", homeMapPath);
-        mapPaths.put("Computer Science Building", compSciMapPath);
-        mapPaths.put("Campus", defaultMapPath);
+    /**
+     * Constructs a new MapManager instance whose map cache uses the given memory budget.
+     * @param cacheBudgetBytes The estimated memory cached maps may use before the least recently used are evicted.
+     */
+    public MapManager(long cacheBudgetBytes) {
+        this(cacheBudgetBytes, true);
+    }
 
+    /**
+     * Constructs a new MapManager instance, optionally without waiting for the default map to load.
+     * If it is not waited for, the default map is loaded in the background by update and shown once it has loaded,
+     * and isReady tells when that has happened. The tile arrays and grids are filled in at that point.
+     * @param cacheBudgetBytes The estimated memory cached maps may use before the least recently used are evicted.
+     * @param waitForDefaultMap True to load the default map before returning, otherwise false.
+     */
+    public MapManager(long cacheBudgetBytes, boolean waitForDefaultMap) {
+        assetManager = createAssetManager();
+        mapCache = new MapCache(assetManager, cacheBudgetBytes);
+        mapRenderer = new OrthogonalTiledMapRenderer(null, SCALE);
+        cacheTiles = true;
+        mapPaths = createMapPaths();
+        if (waitForDefaultMap) {
+            applyMap(obtainMap(defaultMapPath));
+        } else {
+            requestLoad(defaultMapPath);
+        }
     }
 
     /**
      * Constructs a new MapManager instance with a mock OrthogonalTiledMapRenderer for unit testing.
      */
     public MapManager(OrthogonalTiledMapRenderer mapRendererMock) {
-    	tiledMap = new TmxMapLoader().load(defaultMapPath);
+        assetManager = createAssetManager();
+        mapCache = new MapCache(assetManager, MapCache.DEFAULT_BUDGET_BYTES);
         mapRenderer = mapRendererMock;
-        parseCollidableTiles();
+        cacheTiles = false;
+        applyMap(obtainMap(defaultMapPath));
+        mapPaths = createMapPaths();
+	}
 
-        mapPaths = new HashMap<>();
+    /**
+     * Creates the AssetManager maps are loaded through.
+     * @return An AssetManager able to load LoadedMaps.
+     */
+    private static AssetManager createAssetManager() {
+        CompiledMapResolver resolver = new CompiledMapResolver(new InternalFileHandleResolver());
+        AssetManager assetManager = new AssetManager(resolver);
+        assetManager.setLoader(LoadedMap.class, new LoadedMapLoader(resolver));
+        return assetManager;
+    }
+
+    /**
+     * Creates the lookup of location names to map paths.
+     * @return The map paths for the various locations.
+     */
+    private static Map<String, String> createMapPaths() {
+        Map<String, String> mapPaths = new HashMap<>();
         mapPaths.put("Library", libraryMapPath);
         mapPaths.put("Cafe", cafeMapPath);
         mapPaths.put("Cinema", cinemaMapPath);
         mapPaths.put("Home", homeMapPath);
         mapPaths.put("Computer Science Building", compSciMapPath);
         mapPaths.put("Campus", defaultMapPath);
-	}
+        return mapPaths;
+    }
 
-	/**
-     * Parses the tiles from the given MapObjects and adds them to the provided Array.
-     * @param objects The MapObjects to parse.
-     * @param tiles The Array to add the parsed tiles to.
-     */
-    private void parseTiles(MapObjects objects, Array<Rectangle> tiles) {
-        for (MapObject object : objects) {
-            if (object instanceof RectangleMapObject) {
-                RectangleMapObject rectObject = (RectangleMapObject) object;
-                Rectangle rect = rectObject.getRectangle();
-                tiles.add(new Rectangle(rect.x * SCALE, rect.y * SCALE, rect.width * SCALE, rect.height * SCALE));
-            }
+    /**
+     * Retrieves a map from the cache, loading and caching it if it has not been loaded before.
+     * If the map is still loading in the background, waits for it to finish.
+     * @param mapPath The path to the map file.
+     * @return The loaded map.
+     */
+    private LoadedMap obtainMap(String mapPath) {
+        LoadedMap loadedMap = mapCache.get(mapPath);
+        if (loadedMap == null) {
+            requestLoad(mapPath);
+            loadedMap = assetManager.finishLoadingAsset(mapPath);
+            pendingLoads.removeValue(mapPath, false);
+            mapCache.put(loadedMap);
+            LoadProfiler.end("map", mapPath, loadStarts.remove(mapPath, 0), assetManager);
         }
+        return loadedMap;
     }
 
     /**
-     * Parses the collidable tiles from the tiled map layers.
-     * If the "collisions" layer exists, extracts the collidable tiles and adds them to the collidableTiles array.
+     * Queues a map to be loaded in the background, unless it is already cached, loaded or queued.
+     * @param mapPath The path to the map file.
+     * @return True if the map was queued, otherwise false.
      */
-    private void parseCollidableTiles() {
-        if (tiledMap.getLayers().get("collisions") != null) {
-            MapObjects objects = tiledMap.getLayers().get("collisions").getObjects();
-            parseTiles(objects, collidableTiles);
+    private boolean requestLoad(String mapPath) {
+        if (mapCache.contains(mapPath) || assetManager.contains(mapPath)) {
+            return false;
         }
+        loadStarts.put(mapPath, LoadProfiler.begin());
+        assetManager.load(mapPath, LoadedMap.class);
+        pendingLoads.add(mapPath);
+        return true;
     }
 
     /**
-     * Parses the exit tiles from the tiled map layers.
-     * If the "exit" layer exists, extracts the exit tiles and adds them to the exitTiles array.
+     * Moves maps that have finished loading in the background into the map cache.
      */
-    private void parseExitTiles() {
-        if(tiledMap.getLayers().get("exit") != null) {
-            MapObjects objects = tiledMap.getLayers().get("exit").getObjects();
-            parseTiles(objects, exitTiles);
+    private void cacheFinishedLoads() {
+        for (int i = pendingLoads.size - 1; i >= 0; i--) {
+            String mapPath = pendingLoads.get(i);
+            if (assetManager.isLoaded(mapPath, LoadedMap.class)) {
+                pendingLoads.removeIndex(i);
+                mapCache.put(assetManager.get(mapPath, LoadedMap.class));
+                LoadProfiler.end("map", mapPath, loadStarts.remove(mapPath, 0), assetManager);
+            }
         }
     }
-    
+
     /**
-     * Parses the activity tiles from the tiled map layers.
-     * If the "activities" layer exists, extracts the activity tiles and adds them to the activityTiles array.
+     * Checks whether a map can be switched to without waiting for it to load.
+     * @param mapPath The path to the map file.
+     * @return True if the map is cached or has finished loading, otherwise false.
      */
-    private void parseActivityTiles() {
-        if (tiledMap.getLayers().get("activities") != null) {
-            MapObjects objects = tiledMap.getLayers().get("activities").getObjects();
-            for (MapObject object : objects) {
-                if (object instanceof RectangleMapObject) {
-                    RectangleMapObject rectObject = (RectangleMapObject) object;
-                    Rectangle rect = rectObject.getRectangle();
-                    Rectangle scaledRect = new Rectangle(rect.x * SCALE, rect.y * SCALE, rect.width * SCALE, rect.height * SCALE);
-                    activityTiles.add(new ActivityTile(scaledRect));
+    private boolean isMapReady(String mapPath) {
+        return mapCache.contains(mapPath) || assetManager.isLoaded(mapPath, LoadedMap.class);
+    }
 
-                }
-            }
+    /**
+     * Checks whether a map that has loaded in the background can be shown, building its tile cache for at most
+     * the given time if it has one that is not built yet.
+     * @param mapPath The path to the map file.
+     * @param budgetMillis The time building the tile cache may take, in milliseconds.
+     * @return True if the map has loaded and its tile cache is built, otherwise false.
+     */
+    private boolean prepareMap(String mapPath, long budgetMillis) {
+        if (!isMapReady(mapPath)) {
+            return false;
+        }
+        return !cacheTiles || obtainMap(mapPath).getTileCache().build(budgetMillis);
+    }
+
+    /**
+     * Makes the given map the current map. Pins it in the cache, sets it to the OrthogonalTiledMapRenderer,
+     * finishes uploading its static tiles if they are cached and replaces the contents of the collidable, exit and activity tile arrays and grids and the lights with the map's.
+     * @param loadedMap The map to display.
+     */
+    private void applyMap(LoadedMap loadedMap) {
+        currentMapPath = loadedMap.getPath();
+        mapCache.pin(currentMapPath);
+        tiledMap = loadedMap.getTiledMap();
+        mapRenderer.setMap(tiledMap);
+        tileCache = cacheTiles ? loadedMap.getTileCache() : null;
+        if (tileCache != null) {
+            tileCache.finishBuilding();
+            tileCache.setShader(shader);
         }
+        collidableTiles.clear();
+        collidableTiles.addAll(loadedMap.getCollidableTiles());
+        exitTiles.clear();
+        exitTiles.addAll(loadedMap.getExitTiles());
+        activityTiles.clear();
+        activityTiles.addAll(loadedMap.getActivityTiles());
+        lights.clear();
+        lights.addAll(loadedMap.getLights());
+        collisionGrid.setTo(loadedMap.getCollisionGrid());
+        exitGrid.setTo(loadedMap.getExitGrid());
+        activityGrid.setTo(loadedMap.getActivityGrid());
     }
 
     /**
@@ -154,51 +258,220 @@ public class MapManager {
         return activityTiles;
     }
 
+    /**
+     * Retrieves the positions of the current map's lamp lights.
+     * @return The array of lights.
+     */
+    public Array<Vector2> getLights() {
+        return lights;
+    }
+
+    /**
+     * Retrieves the spatial grid of the current map's collidable tiles.
+     * The same grid is returned for every map, so it can be held on to across map changes.
+     * Once a map is shown, the grid shares that map's read-only contents, so nothing can be added to it.
+     * @return The grid of collidable tiles.
+     */
+    public SpatialGrid<Rectangle> getCollisionGrid() {
+        return collisionGrid;
+    }
+
+    /**
+     * Retrieves the spatial grid of the current map's exit tiles.
+     * @return The grid of exit tiles.
+     */
+    public SpatialGrid<Rectangle> getExitGrid() {
+        return exitGrid;
+    }
+
+    /**
+     * Retrieves the spatial grid of the current map's activity tiles.
+     * @return The grid of activity tiles.
+     */
+    public SpatialGrid<ActivityTile> getActivityGrid() {
+        return activityGrid;
+    }
+
+    /**
+     * Retrieves a loaded map without changing to it, loading it if it has not been loaded before.
+     * @param mapPath The path to the map file.
+     * @return The loaded map.
+     */
+    public LoadedMap getMap(String mapPath) {
+        return obtainMap(mapPath);
+    }
+
+    /**
+     * Retrieves the cache of loaded maps.
+     * @return The map cache.
+     */
+    public MapCache getMapCache() {
+        return mapCache;
+    }
+
     /**
      * Sets the view of the OrthogonalTiledMapRenderer to the specified OrthographicCamera and renders the map.
+     * Static tiles are drawn from the chunks of the tile cache in view, when there is one.
      * @param camera The OrthographicCamera to set the view to.
      */
     public void render(OrthographicCamera camera) {
         mapRenderer.setView(camera);
-        mapRenderer.render();
+        if (tileCache != null) {
+            tileCache.render(mapRenderer);
+        } else {
+            mapRenderer.render();
+        }
+    }
 
+    /**
+     * Sets the shader the map is drawn with, by both the OrthogonalTiledMapRenderer and the tile cache.
+     * Maps changed to later are drawn with it too.
+     * @param shader The shader, or null for the default shaders.
+     */
+    public void setShader(ShaderProgram shader) {
+        this.shader = shader;
+        Batch batch = mapRenderer.getBatch();
+        if (batch != null) {
+            batch.setShader(shader);
+        }
+        if (tileCache != null) {
+            tileCache.setShader(shader);
+        }
     }
 
     /**
-     * Changes the current map to the one specified by the newMapPath. Disposes the current map if it exists,
-     * loads the new map, sets it to the OrthogonalTiledMapRenderer, clears collidableTiles, and parses collidable,
-     * exit, and activity tiles.
+     * Changes the current map to the one specified by the newMapPath. Maps that have been visited before
+     * are taken from the map cache, other maps are loaded and added to it.
      * @param newMapPath The path to the new map file.
      */
     public void changeMap(String newMapPath) {
-        if (tiledMap != null) {
-            tiledMap.dispose();
-        }
-        currentMapPath = newMapPath;
-        tiledMap = new TmxMapLoader().load(newMapPath);
-        mapRenderer.setMap(tiledMap);
-        collidableTiles.clear();
-        parseCollidableTiles();
-        parseExitTiles();
-        parseActivityTiles();
+        applyMap(obtainMap(newMapPath));
     }
     
     /**
-     * Changes the current map to the default campus map. Disposes the current map if it exists,
-     * loads the default map, sets it to the OrthogonalTiledMapRenderer, clears exitTiles, activityTiles,
-     * and collidableTiles, and parses collidable tiles.
+     * Changes the current map to the default campus map.
      */
     public void changeMapToCampus() {
-        if (tiledMap!= null) {
-            tiledMap.dispose();
+        changeMap(defaultMapPath);
+    }
+
+    /**
+     * Starts a faded transition to the map specified by the newMapPath. The map is loaded in the background
+     * while the screen fades out, and switched to once it is ready and the screen is dark.
+     * Any transition already in progress is finished first.
+     * @param newMapPath The path to the new map file.
+     * @param onMapChanged Run once the new map has been switched to, while the screen is dark. May be null.
+     * @param onComplete Run once the new map has faded in. May be null.
+     */
+    public void transitionTo(String newMapPath, Runnable onMapChanged, Runnable onComplete) {
+        finishTransition();
+        requestLoad(newMapPath);
+        transition = new MapTransition(newMapPath, onMapChanged, onComplete);
+    }
+
+    /**
+     * Speculatively starts loading a map in the background without switching to it.
+     * @param mapPath The path to the map file.
+     * @return True if a load was started, false if the map was already cached or loading.
+     */
+    public boolean prefetch(String mapPath) {
+        return requestLoad(mapPath);
+    }
+
+    /**
+     * Cancels a prefetched map, removing it from the load queue if it is still loading or evicting it
+     * from the cache if it has loaded. The current map and the target of a transition are never cancelled.
+     * @param mapPath The path to the map file.
+     */
+    public void cancelPrefetch(String mapPath) {
+        if (mapPath.equals(currentMapPath) || (transition != null && mapPath.equals(transition.getTargetPath()))) {
+            return;
         }
-        currentMapPath = defaultMapPath;
-        tiledMap = new TmxMapLoader().load(defaultMapPath);
-        mapRenderer.setMap(tiledMap);
-        exitTiles.clear();
-        activityTiles.clear();
-        collidableTiles.clear();
-        parseCollidableTiles();
+        if (pendingLoads.removeValue(mapPath, false)) {
+            loadStarts.remove(mapPath, 0);
+            assetManager.unload(mapPath);
+        } else {
+            mapCache.remove(mapPath);
+        }
+    }
+
+    /**
+     * Advances background map loading and the building of the tile cache of the map being changed to,
+     * by at most LOAD_BUDGET_MILLIS between them, and advances the current transition.
+     * A map is only switched to once its tile cache is built. Called every frame.
+     * @param deltaTime Time elapsed since the last frame.
+     */
+    public void update(float deltaTime) {
+        long start = TimeUtils.millis();
+        if (!assetManager.isFinished()) {
+            assetManager.update(LOAD_BUDGET_MILLIS);
+        }
+        if (pendingLoads.size > 0) {
+            cacheFinishedLoads();
+        }
+        if (tiledMap == null && prepareMap(defaultMapPath, LOAD_BUDGET_MILLIS - TimeUtils.timeSinceMillis(start))) {
+            applyMap(mapCache.get(defaultMapPath));
+        }
+        if (transition == null) {
+            return;
+        }
+        MapTransition current = transition;
+        boolean mapReady = prepareMap(current.getTargetPath(), LOAD_BUDGET_MILLIS - TimeUtils.timeSinceMillis(start));
+        if (current.update(deltaTime, mapReady)) {
+            applyMap(obtainMap(current.getTargetPath()));
+            current.mapChanged();
+        }
+        if (current.isFinished() && transition == current) {
+            transition = null;
+        }
+    }
+
+    /**
+     * Immediately finishes the current transition, loading the target map synchronously if needed.
+     */
+    public void finishTransition() {
+        if (transition == null) {
+            return;
+        }
+        MapTransition current = transition;
+        transition = null;
+        if (current.getPhase() == MapTransition.Phase.FADING_OUT || current.getPhase() == MapTransition.Phase.WAITING) {
+            applyMap(obtainMap(current.getTargetPath()));
+            current.mapChanged();
+        }
+        current.complete();
+    }
+
+    /**
+     * Checks whether a map is being shown, which is only not the case while the default map is first loading.
+     * @return True if a map has been shown, otherwise false.
+     */
+    public boolean isReady() {
+        return tiledMap != null;
+    }
+
+    /**
+     * Checks whether any maps are still loading in the background.
+     * @return True if a map is loading, otherwise false.
+     */
+    public boolean isLoading() {
+        return pendingLoads.size > 0;
+    }
+
+    /**
+     * Checks whether a map transition is in progress.
+     * @return True if a transition is in progress, otherwise false.
+     */
+    public boolean isTransitioning() {
+        return transition != null;
+    }
+
+    /**
+     * Retrieves the opacity of the transition fade.
+     * @return The fade opacity, from 0 (fully visible) to 1 (fully dark).
+     */
+    public float getTransitionAlpha() {
+        return transition == null ? 0f : transition.getAlpha();
     }
 
     /**
@@ -217,25 +490,26 @@ public class MapManager {
      */
     public void renderOverlay(OrthographicCamera camera, String layerName) {
         if (currentMapPath.equals(defaultMapPath)) {
-            int layerIndex = tiledMap.getLayers().getIndex(layerName);
+            overlayLayers[0] = tiledMap.getLayers().getIndex(layerName);
             mapRenderer.setView(camera);
-            mapRenderer.render(new int[] {layerIndex});
+            if (tileCache == null || !tileCache.renderLayer(mapRenderer, overlayLayers[0])) {
+                mapRenderer.render(overlayLayers);
+            }
         }
     }
 
     /**
-     * Displays the end game map by disposing the current map, loading the end game map,
-     * setting it to the OrthogonalTiledMapRenderer, and clearing collidableTiles.
+     * Displays the end game map.
      */
     public void displayEndMap() {
-        if (tiledMap!= null) {
-            tiledMap.dispose();
-        }
-        currentMapPath = endGameMapPath;
-        tiledMap = new TmxMapLoader().load(endGameMapPath);
-        mapRenderer.setMap(tiledMap);
-        collidableTiles.clear();
+        changeMap(endGameMapPath);
+    }
 
+    /**
+     * Disposes every cached map and the AssetManager they were loaded through.
+     */
+    public void dispose() {
+        mapCache.dispose();
+        assetManager.dispose();
     }
 }
-
@@ -0,0 +1,93 @@
+/**
+ * Speculatively loads building interiors as the player approaches them on campus,
+ * so that entering a building does not have to wait for its map to load.
+ */
+package com.eng1.heslingtonhustle.map;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.eng1.heslingtonhustle.building.Building;
+
+import java.util.List;
+
+import static com.eng1.heslingtonhustle.game.Game.SCALE;
+
+public class MapPrefetcher {
+    public static final float DEFAULT_RADIUS = 800;
+    private static final float CANCEL_RADIUS_MULTIPLIER = 1.5f;
+    private static final float INTERACT_SPOT_HALF_SIZE = 16 * SCALE;
+
+    private final MapManager mapManager;
+    private final float prefetchRadius2;
+    private final float cancelRadius2;
+    private final Array<String> prefetched = new Array<>();
+
+    /**
+     * Constructs a MapPrefetcher with the default prefetch radius.
+     * @param mapManager The MapManager used to load maps.
+     */
+    public MapPrefetcher(MapManager mapManager) {
+        this(mapManager, DEFAULT_RADIUS);
+    }
+
+    /**
+     * Constructs a MapPrefetcher.
+     * A building's map is prefetched once the player is within the radius of its interact spot, and the prefetch
+     * is cancelled once the player is further than one and a half times the radius away.
+     * @param mapManager The MapManager used to load maps.
+     * @param radius The distance from a building's interact spot at which its map is prefetched.
+     */
+    public MapPrefetcher(MapManager mapManager, float radius) {
+        this.mapManager = mapManager;
+        this.prefetchRadius2 = radius * radius;
+        float cancelRadius = radius * CANCEL_RADIUS_MULTIPLIER;
+        this.cancelRadius2 = cancelRadius * cancelRadius;
+    }
+
+    /**
+     * Prefetches the maps of buildings the player is near and cancels the prefetches of buildings the player has left.
+     * Should only be called while the player is on campus.
+     * @param buildings The campus buildings.
+     * @param playerPosition The position of the player.
+     */
+    public void update(List<Building> buildings, Vector2 playerPosition) {
+        for (int i = 0; i < buildings.size(); i++) {
+            Building building = buildings.get(i);
+            String mapPath = mapManager.getMapPath(building.getName());
+            if (mapPath == null) {
+                continue;
+            }
+            Vector2 interactSpot = building.getInteractSpot();
+            float dx = interactSpot.x + INTERACT_SPOT_HALF_SIZE - playerPosition.x;
+            float dy = interactSpot.y + INTERACT_SPOT_HALF_SIZE - playerPosition.y;
+            float distance2 = dx * dx + dy * dy;
+
+            boolean isPrefetched = prefetched.contains(mapPath, false);
+            if (distance2 <= prefetchRadius2 && !isPrefetched) {
+                if (mapManager.prefetch(mapPath)) {
+                    prefetched.add(mapPath);
+                }
+            } else if (distance2 > cancelRadius2 && isPrefetched) {
+                mapManager.cancelPrefetch(mapPath);
+                prefetched.removeValue(mapPath, false);
+            }
+        }
+    }
+
+    /**
+     * Stops tracking a prefetched map because the player is entering it, so it is no longer cancelled.
+     * @param mapPath The path of the map being entered.
+     */
+    public void mapEntered(String mapPath) {
+        prefetched.removeValue(mapPath, false);
+    }
+
+    /**
+     * Checks whether a map was prefetched and has not been cancelled or entered.
+     * @param mapPath The path of the map.
+     * @return True if the map is prefetched, otherwise false.
+     */
+    public boolean isPrefetched(String mapPath) {
+        return prefetched.contains(mapPath, false);
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Tracks a fade between two maps.
+ * The screen fades out while the new map loads in the background, stays dark until the map is ready,
+ * then fades back in once the map has been switched.
+ */
+package com.eng1.heslingtonhustle.map;
+
+public class MapTransition {
+    public static final float FADE_DURATION = 0.25f;
+
+    /**
+     * The phases of a transition.
+     */
+    public enum Phase {
+        IDLE,
+        FADING_OUT,
+        WAITING,
+        FADING_IN
+    }
+
+    private final String targetPath;
+    private final Runnable onMapChanged;
+    private final Runnable onComplete;
+    private Phase phase = Phase.FADING_OUT;
+    private float elapsed;
+
+    /**
+     * Constructs a MapTransition to the given map.
+     * @param targetPath The path of the map to change to.
+     * @param onMapChanged Run once the new map has been switched to, while the screen is dark. May be null.
+     * @param onComplete Run once the new map has faded in. May be null.
+     */
+    public MapTransition(String targetPath, Runnable onMapChanged, Runnable onComplete) {
+        this.targetPath = targetPath;
+        this.onMapChanged = onMapChanged;
+        this.onComplete = onComplete;
+    }
+
+    /**
+     * Advances the fade.
+     * @param deltaTime Time elapsed since the last frame.
+     * @param mapReady Whether the target map has finished loading.
+     * @return True if the map should be switched this frame, otherwise false.
+     */
+    public boolean update(float deltaTime, boolean mapReady) {
+        elapsed += deltaTime;
+        switch (phase) {
+            case FADING_OUT:
+                if (elapsed >= FADE_DURATION) {
+                    phase = Phase.WAITING;
+                }
+                return false;
+            case WAITING:
+                if (mapReady) {
+                    phase = Phase.FADING_IN;
+                    elapsed = 0;
+                    return true;
+                }
+                return false;
+            case FADING_IN:
+                if (elapsed >= FADE_DURATION) {
+                    phase = Phase.IDLE;
+                    if (onComplete != null) {
+                        onComplete.run();
+                    }
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Skips the remaining fade, for when the map has been switched synchronously.
+     */
+    public void complete() {
+        phase = Phase.IDLE;
+        if (onComplete != null) {
+            onComplete.run();
+        }
+    }
+
+    /**
+     * Runs the map changed callback. Called by the MapManager once it has switched to the target map.
+     */
+    public void mapChanged() {
+        if (onMapChanged != null) {
+            onMapChanged.run();
+        }
+    }
+
+    /**
+     * Retrieves the opacity of the fade, from 0 (fully visible) to 1 (fully dark).
+     * @return The opacity of the fade.
+     */
+    public float getAlpha() {
+        switch (phase) {
+            case FADING_OUT:
+                return Math.min(1f, elapsed / FADE_DURATION);
+            case WAITING:
+                return 1f;
+            case FADING_IN:
+                return Math.max(0f, 1f - elapsed / FADE_DURATION);
+            default:
+                return 0f;
+        }
+    }
+
+    /**
+     * Retrieves the path of the map being changed to.
+     * @return The target map path.
+     */
+    public String getTargetPath() {
+        return targetPath;
+    }
+
+    /**
+     * Retrieves the current phase of the transition.
+     * @return The current phase.
+     */
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Checks whether the transition has finished.
+     * @return True if the transition has finished, otherwise false.
+     */
+    public boolean isFinished() {
+        return phase == Phase.IDLE;
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * A uniform grid spatial index of items with rectangular bounds.
+ * Each item is stored in every cell its bounds touch, so a query only looks at the items in the cells
+ * it covers and its cost does not grow with the number of items elsewhere on the map.
+ * Queries return candidates whose bounds touch the queried area, which callers then test exactly.
+ * A grid can be made read-only once built, so that grids sharing its contents cannot change it.
+ */
+package com.eng1.heslingtonhustle.map;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.LongMap;
+
+import static com.eng1.heslingtonhustle.game.Game.SCALE;
+
+public class SpatialGrid<T> {
+    public static final float DEFAULT_CELL_SIZE = 64 * SCALE;
+
+    private Index<T> index;
+
+    /**
+     * Constructs an empty SpatialGrid with the default cell size.
+     */
+    public SpatialGrid() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Constructs an empty SpatialGrid.
+     * @param cellSize The width and height of each cell, in world units.
+     */
+    public SpatialGrid(float cellSize) {
+        index = new Index<>(cellSize);
+    }
+
+    /**
+     * Adds an item to the grid.
+     * @param item The item to add.
+     * @param bounds The bounds of the item. The rectangle is kept, so it must not be changed afterwards.
+     * @throws GdxRuntimeException If the grid is read-only.
+     */
+    public void insert(T item, Rectangle bounds) {
+        if (index.readOnly) {
+            throw new GdxRuntimeException("Items cannot be added to a read-only grid");
+        }
+        Entry<T> entry = new Entry<>(item, bounds);
+        int minX = index.cell(bounds.x);
+        int maxX = index.cell(bounds.x + bounds.width);
+        int minY = index.cell(bounds.y);
+        int maxY = index.cell(bounds.y + bounds.height);
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                long key = key(x, y);
+                Array<Entry<T>> cell = index.cells.get(key);
+                if (cell == null) {
+                    cell = new Array<>(false, 4);
+                    index.cells.put(key, cell);
+                }
+                cell.add(entry);
+            }
+        }
+        index.size++;
+    }
+
+    /**
+     * Finds the items whose bounds touch the given area, each returned once.
+     * @param x The x coordinate of the area.
+     * @param y The y coordinate of the area.
+     * @param width The width of the area.
+     * @param height The height of the area.
+     * @param results The Array to store the items in. It is cleared first.
+     * @return The results Array.
+     */
+    public Array<T> query(float x, float y, float width, float height, Array<T> results) {
+        results.clear();
+        int queryId = ++index.queryCount;
+        int minX = index.cell(x);
+        int maxX = index.cell(x + width);
+        int minY = index.cell(y);
+        int maxY = index.cell(y + height);
+        for (int cellX = minX; cellX <= maxX; cellX++) {
+            for (int cellY = minY; cellY <= maxY; cellY++) {
+                Array<Entry<T>> cell = index.cells.get(key(cellX, cellY));
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.size; i++) {
+                    Entry<T> entry = cell.get(i);
+                    if (entry.queryId != queryId && entry.touches(x, y, width, height)) {
+                        entry.queryId = queryId;
+                        results.add(entry.item);
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Finds the items whose bounds contain the given point. Only a single cell is looked at,
+     * so the items are returned in the order they were added.
+     * @param x The x coordinate of the point.
+     * @param y The y coordinate of the point.
+     * @param results The Array to store the items in. It is cleared first.
+     * @return The results Array.
+     */
+    public Array<T> query(float x, float y, Array<T> results) {
+        results.clear();
+        Array<Entry<T>> cell = index.cells.get(key(index.cell(x), index.cell(y)));
+        if (cell != null) {
+            for (int i = 0; i < cell.size; i++) {
+                Entry<T> entry = cell.get(i);
+                if (entry.touches(x, y, 0, 0)) {
+                    results.add(entry.item);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Makes this grid share the contents of another grid without copying them,
+     * so that anything holding a reference to this grid sees the other grid's items.
+     * Items added to either grid afterwards are seen by both, unless the other grid is read-only, in which case
+     * this grid is too until it shares the contents of another grid.
+     * @param other The grid to share the contents of.
+     */
+    public void setTo(SpatialGrid<T> other) {
+        index = other.index;
+    }
+
+    /**
+     * Stops any more items being added to the grid, or to any grid sharing its contents.
+     */
+    public void setReadOnly() {
+        index.readOnly = true;
+    }
+
+    /**
+     * Checks whether items can no longer be added to the grid.
+     * @return True if the grid is read-only, otherwise false.
+     */
+    public boolean isReadOnly() {
+        return index.readOnly;
+    }
+
+    /**
+     * Retrieves the number of items in the grid.
+     * @return The number of items.
+     */
+    public int size() {
+        return index.size;
+    }
+
+    /**
+     * Combines cell coordinates into a single key.
+     * @param x The cell x coordinate.
+     * @param y The cell y coordinate.
+     * @return The key of the cell.
+     */
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * The cells of a grid, which can be shared between grids.
+     */
+    private static class Index<T> {
+        private final float cellSize;
+        private final LongMap<Array<Entry<T>>> cells = new LongMap<>();
+        private int size;
+        private int queryCount;
+        private boolean readOnly;
+
+        private Index(float cellSize) {
+            this.cellSize = cellSize;
+        }
+
+        /**
+         * Finds the cell a coordinate is in.
+         * @param coordinate The x or y coordinate.
+         * @return The cell coordinate.
+         */
+        private int cell(float coordinate) {
+            return (int) Math.floor(coordinate / cellSize);
+        }
+    }
+
+    /**
+     * An item in the grid and its bounds.
+     */
+    private static class Entry<T> {
+        private final T item;
+        private final Rectangle bounds;
+        private int queryId;
+
+        private Entry(T item, Rectangle bounds) {
+            this.item = item;
+            this.bounds = bounds;
+        }
+
+        /**
+         * Checks whether the entry's bounds touch an area, including along its edges.
+         * @return True if the bounds and the area touch, otherwise false.
+         */
+        private boolean touches(float x, float y, float width, float height) {
+            return bounds.x <= x + width && bounds.x + bounds.width >= x
+                    && bounds.y <= y + height && bounds.y + bounds.height >= y;
+        }
+    }
+}
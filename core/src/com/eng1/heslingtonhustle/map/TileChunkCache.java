@@ -0,0 +1,618 @@
+/**
+ * Caches the static tiles of a map on the GPU in chunks of CHUNK_TILES by CHUNK_TILES tiles, so that rendering the map
+ * only draws the chunks in view instead of walking every visible cell of every layer each frame.
+ * Consecutive layers with the same offset share their chunks, with each chunk holding the tiles of every one of
+ * those layers grouped by texture, so the number of draws grows with the number of textures rather than layers.
+ * Layers containing animated tiles, or tiles that do not fit the map's grid, cannot be cached and are left to
+ * the map renderer. The cache is built once, so changes to the map's cells or layer visibility are not seen.
+ * Building uploads the chunks one at a time, so it can be spread over several frames with build, or done at once
+ * with finishBuilding. Chunks that have not been built yet are not drawn.
+ */
+package com.eng1.heslingtonhustle.map;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapLayers;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell;
+import com.badlogic.gdx.maps.tiled.renderers.BatchTiledMapRenderer;
+import com.badlogic.gdx.maps.tiled.tiles.AnimatedTiledMapTile;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.Arrays;
+
+public class TileChunkCache implements Disposable {
+    public static final int CHUNK_TILES = 32;
+
+    private static final int VERTEX_SIZE = 5;
+    private static final int VERTICES_PER_TILE = 6;
+    private static final int[] TRIANGLE_CORNERS = {0, 1, 2, 2, 3, 0};
+
+    private final TiledMap tiledMap;
+    private final float unitScale;
+    private final int chunksWide;
+    private final int chunksHigh;
+    private final float chunkWidth;
+    private final float chunkHeight;
+    private final SpriteCache spriteCache;
+    private final Array<Band> bands;
+    private final IntMap<Array<Band>> separateBands = new IntMap<>();
+    private final int spriteCount;
+    private final float[] vertices = new float[VERTICES_PER_TILE * VERTEX_SIZE];
+    private final ObjectIntMap<Texture> textureNumbers = new ObjectIntMap<>();
+    private final int mapWidth;
+    private final int mapHeight;
+    // The cached bands with chunks left to build, and the next chunk of the first of them
+    private final Array<Band> unbuiltBands = new Array<>();
+    private int nextChunk;
+    private int chunksDrawn;
+
+    /**
+     * Constructs a TileChunkCache for the static tiles of the map. No tiles are uploaded until it is built.
+     * @param tiledMap The map to cache. Its tile layers must all have the same size as the map.
+     * @param unitScale The number of world units per map pixel.
+     * @param separateLayers The names of layers that are also rendered on their own, which are cached separately as well.
+     */
+    public TileChunkCache(TiledMap tiledMap, float unitScale, String... separateLayers) {
+        this.tiledMap = tiledMap;
+        this.unitScale = unitScale;
+        int width = tiledMap.getProperties().get("width", Integer.class);
+        int height = tiledMap.getProperties().get("height", Integer.class);
+        mapWidth = width;
+        mapHeight = height;
+        chunksWide = (width + CHUNK_TILES - 1) / CHUNK_TILES;
+        chunksHigh = (height + CHUNK_TILES - 1) / CHUNK_TILES;
+        chunkWidth = CHUNK_TILES * tiledMap.getProperties().get("tilewidth", Integer.class) * unitScale;
+        chunkHeight = CHUNK_TILES * tiledMap.getProperties().get("tileheight", Integer.class) * unitScale;
+
+        MapLayers layers = tiledMap.getLayers();
+        IntArray allLayers = new IntArray();
+        for (int i = 0; i < layers.size(); i++) {
+            allLayers.add(i);
+        }
+        bands = planBands(allLayers);
+        for (String name : separateLayers) {
+            int index = layers.getIndex(name);
+            if (index >= 0) {
+                separateBands.put(index, planBands(IntArray.with(index)));
+            }
+        }
+
+        int count = countTiles(bands);
+        for (Array<Band> separate : separateBands.values()) {
+            count += countTiles(separate);
+        }
+        spriteCount = count;
+        spriteCache = count > 0 ? new SpriteCache(count, false) : null;
+        if (spriteCache != null) {
+            queueBands(bands);
+            for (Array<Band> separate : separateBands.values()) {
+                queueBands(separate);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a layer's tiles can be cached. Layers with animated tiles, parallax scrolling,
+     * or tiles whose size or offset does not match the layer's grid cannot be.
+     * @param layer The tile layer.
+     * @return True if the layer can be cached, otherwise false.
+     */
+    private static boolean isCacheable(TiledMapTileLayer layer) {
+        if (layer.getParallaxX() != 1 || layer.getParallaxY() != 1) {
+            return false;
+        }
+        for (int x = 0; x < layer.getWidth(); x++) {
+            for (int y = 0; y < layer.getHeight(); y++) {
+                Cell cell = layer.getCell(x, y);
+                if (cell == null || cell.getTile() == null) {
+                    continue;
+                }
+                TiledMapTile tile = cell.getTile();
+                TextureRegion region = tile.getTextureRegion();
+                if (tile instanceof AnimatedTiledMapTile || tile.getOffsetX() != 0 || tile.getOffsetY() != 0
+                        || region.getRegionWidth() != layer.getTileWidth()
+                        || region.getRegionHeight() != layer.getTileHeight()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Groups layers into the bands they are rendered in. Consecutive cacheable layers with the same offset
+     * share a band, every other visible tile layer gets a band of its own that is left to the map renderer.
+     * Invisible layers and object layers are skipped.
+     * @param layerIndices The indices of the layers to render, in order.
+     * @return The bands.
+     */
+    private Array<Band> planBands(IntArray layerIndices) {
+        Array<Band> planned = new Array<>();
+        Band current = null;
+        for (int i = 0; i < layerIndices.size; i++) {
+            int index = layerIndices.get(i);
+            MapLayer layer = tiledMap.getLayers().get(index);
+            if (!(layer instanceof TiledMapTileLayer) || !layer.isVisible()) {
+                continue;
+            }
+            TiledMapTileLayer tileLayer = (TiledMapTileLayer) layer;
+            if (!isCacheable(tileLayer)) {
+                planned.add(new Band(index));
+                current = null;
+                continue;
+            }
+            float offsetX = tileLayer.getRenderOffsetX() * unitScale;
+            float offsetY = -tileLayer.getRenderOffsetY() * unitScale;
+            if (current == null || current.offsetX != offsetX || current.offsetY != offsetY) {
+                current = new Band(offsetX, offsetY, chunksWide * chunksHigh);
+                planned.add(current);
+            }
+            current.layers.add(index);
+        }
+        return planned;
+    }
+
+    /**
+     * Counts the tiles in the cached bands.
+     * @param planned The bands.
+     * @return The number of tiles.
+     */
+    private int countTiles(Array<Band> planned) {
+        int count = 0;
+        for (Band band : planned) {
+            if (band.isCached()) {
+                for (int i = 0; i < band.layers.size; i++) {
+                    TiledMapTileLayer layer = (TiledMapTileLayer) tiledMap.getLayers().get(band.layers.get(i));
+                    for (int x = 0; x < layer.getWidth(); x++) {
+                        for (int y = 0; y < layer.getHeight(); y++) {
+                            Cell cell = layer.getCell(x, y);
+                            if (cell != null && cell.getTile() != null) {
+                                count++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Queues the chunks of the cached bands to be built.
+     * @param planned The bands.
+     */
+    private void queueBands(Array<Band> planned) {
+        for (Band band : planned) {
+            if (band.isCached()) {
+                unbuiltBands.add(band);
+            }
+        }
+    }
+
+    /**
+     * Builds chunks until every chunk has been built or the time budget is used up.
+     * At least one chunk is built on every call, so building always progresses. Must be called on the GL thread.
+     * @param budgetMillis The time building may take, in milliseconds.
+     * @return True if every chunk has been built, otherwise false.
+     */
+    public boolean build(long budgetMillis) {
+        long start = TimeUtils.millis();
+        while (unbuiltBands.size > 0) {
+            buildNextChunk();
+            if (TimeUtils.timeSinceMillis(start) >= budgetMillis) {
+                break;
+            }
+        }
+        return isBuilt();
+    }
+
+    /**
+     * Builds every chunk that has not been built yet. Must be called on the GL thread.
+     */
+    public void finishBuilding() {
+        while (unbuiltBands.size > 0) {
+            buildNextChunk();
+        }
+    }
+
+    /**
+     * Checks whether every chunk has been built, so the whole map is drawn.
+     * @return True if every chunk has been built, otherwise false.
+     */
+    public boolean isBuilt() {
+        return unbuiltBands.size == 0;
+    }
+
+    /**
+     * Uploads the tiles of the next chunk to be built, one cache per non-empty chunk.
+     * The chunks of each band are built row by row, from the bottom of the map.
+     */
+    private void buildNextChunk() {
+        Band band = unbuiltBands.first();
+        band.cacheIds[nextChunk] = cacheChunk(band, nextChunk % chunksWide, nextChunk / chunksWide);
+        nextChunk++;
+        if (nextChunk == band.cacheIds.length) {
+            unbuiltBands.removeIndex(0);
+            nextChunk = 0;
+        }
+    }
+
+    /**
+     * Uploads the tiles of a band that fall in a chunk, grouped by texture so that the SpriteCache draws the chunk
+     * in as few runs as it can, ideally one per texture. The order of the textures is planned by TileRunOrder,
+     * which keeps each cell's tiles in their drawing order.
+     * @param band The band.
+     * @param chunkX The chunk's x coordinate, in chunks.
+     * @param chunkY The chunk's y coordinate, in chunks.
+     * @return The id of the chunk's cache, or -1 if the chunk is empty.
+     */
+    private int cacheChunk(Band band, int chunkX, int chunkY) {
+        int minX = chunkX * CHUNK_TILES;
+        int minY = chunkY * CHUNK_TILES;
+        int width = Math.min(minX + CHUNK_TILES, mapWidth) - minX;
+        int maxY = Math.min(minY + CHUNK_TILES, mapHeight);
+        int cellCount = width * (maxY - minY);
+
+        // The layers of each cell's tiles and the numbers of their textures, in drawing order, with rows from top to bottom
+        int[][] cellLayers = new int[cellCount][];
+        int[][] cellTextures = new int[cellCount][];
+        textureNumbers.clear();
+        IntArray stack = new IntArray();
+        for (int i = 0; i < cellCount; i++) {
+            int x = minX + i % width;
+            int y = maxY - 1 - i / width;
+            stack.clear();
+            for (int layer = nextTile(band, -1, x, y); layer < band.layers.size; layer = nextTile(band, layer, x, y)) {
+                stack.add(layer);
+            }
+            cellLayers[i] = stack.toArray();
+            cellTextures[i] = new int[stack.size];
+            for (int j = 0; j < stack.size; j++) {
+                Texture texture = getTexture(band, stack.get(j), x, y);
+                int number = textureNumbers.get(texture, -1);
+                if (number < 0) {
+                    number = textureNumbers.size;
+                    textureNumbers.put(texture, number);
+                }
+                cellTextures[i][j] = number;
+            }
+        }
+        if (textureNumbers.size == 0) {
+            return -1;
+        }
+
+        IntArray runs = TileRunOrder.plan(cellTextures, textureNumbers.size);
+        int[] next = new int[cellCount];
+        spriteCache.beginCache();
+        for (int run = 0; run < runs.size; run++) {
+            int texture = runs.get(run);
+            for (int i = 0; i < cellCount; i++) {
+                while (next[i] < cellTextures[i].length && cellTextures[i][next[i]] == texture) {
+                    addTile(band, cellLayers[i][next[i]++], minX + i % width, maxY - 1 - i / width);
+                }
+            }
+        }
+        return spriteCache.endCache();
+    }
+
+    /**
+     * Finds the next layer of a band that has a tile in a cell.
+     * @param band The band.
+     * @param layer The index in the band of the layer to search after, or -1 to search from the first layer.
+     * @param x The cell's x coordinate.
+     * @param y The cell's y coordinate.
+     * @return The index in the band of the layer, or the number of layers in the band if no later layer has a tile in the cell.
+     */
+    private int nextTile(Band band, int layer, int x, int y) {
+        layer++;
+        while (layer < band.layers.size) {
+            Cell cell = getLayer(band, layer).getCell(x, y);
+            if (cell != null && cell.getTile() != null) {
+                break;
+            }
+            layer++;
+        }
+        return layer;
+    }
+
+    /**
+     * Retrieves the texture of the tile in a cell of one of a band's layers.
+     * @param band The band.
+     * @param layer The index in the band of the layer, which must have a tile in the cell.
+     * @param x The cell's x coordinate.
+     * @param y The cell's y coordinate.
+     * @return The texture.
+     */
+    private Texture getTexture(Band band, int layer, int x, int y) {
+        return getLayer(band, layer).getCell(x, y).getTile().getTextureRegion().getTexture();
+    }
+
+    /**
+     * Adds the tile in a cell of one of a band's layers to the cache being built.
+     * @param band The band.
+     * @param layer The index in the band of the layer, which must have a tile in the cell.
+     * @param x The cell's x coordinate.
+     * @param y The cell's y coordinate.
+     */
+    private void addTile(Band band, int layer, int x, int y) {
+        TiledMapTileLayer tileLayer = getLayer(band, layer);
+        Cell cell = tileLayer.getCell(x, y);
+        float tileWidth = tileLayer.getTileWidth() * unitScale;
+        float tileHeight = tileLayer.getTileHeight() * unitScale;
+        setVertices(cell, x * tileWidth + band.offsetX, y * tileHeight + band.offsetY, tileWidth, tileHeight,
+                Color.toFloatBits(1f, 1f, 1f, tileLayer.getOpacity()));
+        spriteCache.add(cell.getTile().getTextureRegion().getTexture(), vertices, 0, vertices.length);
+    }
+
+    /**
+     * Retrieves one of a band's layers.
+     * @param band The band.
+     * @param layer The index in the band of the layer.
+     * @return The tile layer.
+     */
+    private TiledMapTileLayer getLayer(Band band, int layer) {
+        return (TiledMapTileLayer) tiledMap.getLayers().get(band.layers.get(layer));
+    }
+
+    /**
+     * Fills the vertices of a tile's two triangles, flipping and rotating its texture coordinates
+     * the same way as the OrthogonalTiledMapRenderer.
+     * @param cell The cell holding the tile.
+     * @param x The x coordinate of the tile's bottom left corner.
+     * @param y The y coordinate of the tile's bottom left corner.
+     * @param width The width of the tile.
+     * @param height The height of the tile.
+     * @param color The packed color of the tile.
+     */
+    private void setVertices(Cell cell, float x, float y, float width, float height, float color) {
+        TextureRegion region = cell.getTile().getTextureRegion();
+        // Texture coordinates of the corners, anticlockwise from the bottom left
+        float[] u = {region.getU(), region.getU(), region.getU2(), region.getU2()};
+        float[] v = {region.getV2(), region.getV(), region.getV(), region.getV2()};
+        if (cell.getFlipHorizontally()) {
+            swap(u, 0, 2);
+            swap(u, 1, 3);
+        }
+        if (cell.getFlipVertically()) {
+            swap(v, 0, 2);
+            swap(v, 1, 3);
+        }
+        int shift;
+        switch (cell.getRotation()) {
+            case Cell.ROTATE_90:
+                shift = 1;
+                break;
+            case Cell.ROTATE_180:
+                shift = 2;
+                break;
+            case Cell.ROTATE_270:
+                shift = 3;
+                break;
+            default:
+                shift = 0;
+        }
+        float[] cornerX = {x, x, x + width, x + width};
+        float[] cornerY = {y, y + height, y + height, y};
+        for (int i = 0; i < TRIANGLE_CORNERS.length; i++) {
+            int corner = TRIANGLE_CORNERS[i];
+            int offset = i * VERTEX_SIZE;
+            vertices[offset] = cornerX[corner];
+            vertices[offset + 1] = cornerY[corner];
+            vertices[offset + 2] = color;
+            vertices[offset + 3] = u[(corner + shift) % 4];
+            vertices[offset + 4] = v[(corner + shift) % 4];
+        }
+    }
+
+    /**
+     * Swaps two elements of an array.
+     */
+    private static void swap(float[] values, int i, int j) {
+        float temp = values[i];
+        values[i] = values[j];
+        values[j] = temp;
+    }
+
+    /**
+     * Renders every layer of the map. Cached layers are drawn from the chunks in the renderer's view,
+     * the others through the renderer.
+     * @param renderer The map renderer, whose view must already be set.
+     */
+    public void render(BatchTiledMapRenderer renderer) {
+        chunksDrawn = 0;
+        renderBands(bands, renderer);
+    }
+
+    /**
+     * Renders a single layer of the map, if it was cached separately.
+     * @param renderer The map renderer, whose view must already be set.
+     * @param layerIndex The index of the layer.
+     * @return True if the layer was rendered, false if it was not cached separately and must be drawn by the caller.
+     */
+    public boolean renderLayer(BatchTiledMapRenderer renderer, int layerIndex) {
+        Array<Band> separate = separateBands.get(layerIndex);
+        if (separate == null) {
+            return false;
+        }
+        chunksDrawn = 0;
+        renderBands(separate, renderer);
+        return true;
+    }
+
+    /**
+     * Renders bands in order, drawing runs of cached bands in a single SpriteCache pass.
+     * @param planned The bands.
+     * @param renderer The map renderer, whose view must already be set.
+     */
+    private void renderBands(Array<Band> planned, BatchTiledMapRenderer renderer) {
+        boolean drawing = false;
+        for (int i = 0; i < planned.size; i++) {
+            Band band = planned.get(i);
+            if (!band.isCached()) {
+                if (drawing) {
+                    endCache();
+                    drawing = false;
+                }
+                renderer.render(band.rendererLayers);
+                continue;
+            }
+            if (!drawing) {
+                beginCache(renderer);
+                drawing = true;
+            }
+            drawChunks(band, renderer.getViewBounds());
+        }
+        if (drawing) {
+            endCache();
+        }
+    }
+
+    /**
+     * Starts drawing from the SpriteCache with the renderer's projection. The SpriteCache does not manage blending,
+     * so it is enabled here as the SpriteBatch would.
+     * @param renderer The map renderer.
+     */
+    private void beginCache(BatchTiledMapRenderer renderer) {
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        spriteCache.setProjectionMatrix(renderer.getBatch().getProjectionMatrix());
+        spriteCache.begin();
+    }
+
+    /**
+     * Finishes drawing from the SpriteCache.
+     */
+    private void endCache() {
+        spriteCache.end();
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+    }
+
+    /**
+     * Draws the chunks of a band that intersect the view.
+     * @param band The band.
+     * @param viewBounds The area of the map in view.
+     */
+    private void drawChunks(Band band, Rectangle viewBounds) {
+        int minX = Math.max(0, (int) Math.floor((viewBounds.x - band.offsetX) / chunkWidth));
+        int maxX = Math.min(chunksWide - 1, (int) Math.floor((viewBounds.x + viewBounds.width - band.offsetX) / chunkWidth));
+        int minY = Math.max(0, (int) Math.floor((viewBounds.y - band.offsetY) / chunkHeight));
+        int maxY = Math.min(chunksHigh - 1, (int) Math.floor((viewBounds.y + viewBounds.height - band.offsetY) / chunkHeight));
+        for (int chunkY = maxY; chunkY >= minY; chunkY--) {
+            for (int chunkX = minX; chunkX <= maxX; chunkX++) {
+                int cacheId = band.cacheIds[chunkY * chunksWide + chunkX];
+                if (cacheId >= 0) {
+                    spriteCache.draw(cacheId);
+                    chunksDrawn++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether a layer is drawn from the cache when the whole map is rendered.
+     * @param layerIndex The index of the layer.
+     * @return True if the layer is cached, false if it is drawn through the renderer or not drawn at all.
+     */
+    public boolean isCached(int layerIndex) {
+        for (Band band : bands) {
+            if (band.isCached() && band.layers.contains(layerIndex)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the shader the cached tiles are drawn with.
+     * @param shader The shader, or null for the SpriteCache's default shader.
+     */
+    public void setShader(ShaderProgram shader) {
+        if (spriteCache != null) {
+            spriteCache.setShader(shader);
+        }
+    }
+
+    /**
+     * Retrieves the number of tiles uploaded to the cache.
+     * @return The number of cached tiles.
+     */
+    public int getSpriteCount() {
+        return spriteCount;
+    }
+
+    /**
+     * Retrieves the number of chunks drawn by the last render.
+     * @return The number of chunks drawn.
+     */
+    public int getChunksDrawn() {
+        return chunksDrawn;
+    }
+
+    /**
+     * Disposes the SpriteCache holding the uploaded tiles.
+     */
+    @Override
+    public void dispose() {
+        if (spriteCache != null) {
+            spriteCache.dispose();
+        }
+    }
+
+    /**
+     * A group of layers rendered together. A cached band holds the cache id of each of its chunks, or -1 for chunks
+     * that are empty or not built yet, while a band that is not cached holds a single layer which is drawn through
+     * the renderer.
+     */
+    private static class Band {
+        private final IntArray layers = new IntArray();
+        private final float offsetX;
+        private final float offsetY;
+        private final int[] cacheIds;
+        private final int[] rendererLayers;
+
+        /**
+         * Constructs a cached band.
+         * @param offsetX The x offset of the band's layers, in world units.
+         * @param offsetY The y offset of the band's layers, in world units.
+         * @param chunkCount The number of chunks in the map.
+         */
+        private Band(float offsetX, float offsetY, int chunkCount) {
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+            cacheIds = new int[chunkCount];
+            Arrays.fill(cacheIds, -1);
+            rendererLayers = null;
+        }
+
+        /**
+         * Constructs a band drawn through the renderer.
+         * @param layerIndex The index of the layer.
+         */
+        private Band(int layerIndex) {
+            layers.add(layerIndex);
+            offsetX = 0;
+            offsetY = 0;
+            cacheIds = null;
+            rendererLayers = new int[] {layerIndex};
+        }
+
+        private boolean isCached() {
+            return cacheIds != null;
+        }
+    }
+}
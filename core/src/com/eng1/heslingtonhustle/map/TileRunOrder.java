@@ -0,0 +1,90 @@
+/**
+ * Plans the order in which stacks of tiles are drawn so that tiles sharing a texture are drawn together.
+ * Each cell of a map holds a stack of tiles that must be drawn from the bottom up, but tiles in different cells
+ * never overlap, so the stacks can be interleaved freely. The tiles are drawn in runs, each of which draws the next
+ * tiles of every stack that use the run's texture, so each run only needs a single texture.
+ * Both the MapCompiler, packing layers by tileset image, and the TileChunkCache, grouping a chunk by texture,
+ * order their tiles this way.
+ */
+package com.eng1.heslingtonhustle.map;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+public class TileRunOrder {
+
+    /**
+     * Plans the runs of a set of stacks. After each run, either the texture the most stacks are waiting on comes
+     * next, or the texture with the largest share of its remaining tiles waiting, which is the least likely to be
+     * needed again. Which of these needs fewer runs depends on the tiles, so both are planned and the shorter is kept.
+     * @param stacks The texture of each tile of each cell, numbered from 0, in the order the cell's tiles are drawn.
+     * @param textureCount The number of textures.
+     * @return The texture of each run, in the order the runs are drawn.
+     */
+    public static IntArray plan(int[][] stacks, int textureCount) {
+        IntArray byWaiting = plan(stacks, textureCount, false);
+        IntArray byShare = plan(stacks, textureCount, true);
+        return byShare.size < byWaiting.size ? byShare : byWaiting;
+    }
+
+    /**
+     * Plans the runs of a set of stacks, choosing the texture of each run in one of two ways.
+     * @param stacks The texture of each tile of each cell, numbered from 0, in the order the cell's tiles are drawn.
+     * @param textureCount The number of textures.
+     * @param byShare True to choose the texture with the largest share of its remaining tiles waiting, false to
+     *                choose the texture the most stacks are waiting on.
+     * @return The texture of each run, in the order the runs are drawn.
+     */
+    private static IntArray plan(int[][] stacks, int textureCount, boolean byShare) {
+        // The index of the next tile of each stack that has not been drawn
+        int[] next = new int[stacks.length];
+        int[] remaining = new int[textureCount];
+        int[] waiting = new int[textureCount];
+        for (int[] stack : stacks) {
+            for (int texture : stack) {
+                remaining[texture]++;
+            }
+        }
+
+        IntArray runs = new IntArray();
+        while (true) {
+            Arrays.fill(waiting, 0);
+            for (int i = 0; i < stacks.length; i++) {
+                if (next[i] < stacks[i].length) {
+                    waiting[stacks[i][next[i]]]++;
+                }
+            }
+            int best = -1;
+            for (int texture = 0; texture < textureCount; texture++) {
+                if (waiting[texture] == 0) {
+                    continue;
+                }
+                boolean better;
+                if (best < 0) {
+                    better = true;
+                } else if (byShare) {
+                    long share = (long) waiting[texture] * remaining[best];
+                    long bestShare = (long) waiting[best] * remaining[texture];
+                    better = share > bestShare || (share == bestShare && waiting[texture] > waiting[best]);
+                } else {
+                    better = waiting[texture] > waiting[best];
+                }
+                if (better) {
+                    best = texture;
+                }
+            }
+            if (best < 0) {
+                return runs;
+            }
+
+            runs.add(best);
+            for (int i = 0; i < stacks.length; i++) {
+                while (next[i] < stacks[i].length && stacks[i][next[i]] == best) {
+                    next[i]++;
+                    remaining[best]--;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * A set of trigger volumes, areas of the map which tell their listeners when the player walks into or out of them.
+ * The volumes are kept in a SpatialGrid, so finding the ones the player is in only looks at a single cell, and
+ * nothing is looked up at all while the player stands still. Listeners are only called when the player enters or
+ * leaves a volume, rather than being asked every tick whether the player is in one.
+ */
+package com.eng1.heslingtonhustle.map;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+
+public class TriggerVolumes<T> {
+    private final SpatialGrid<T> grid;
+    private final Array<Listener<? super T>> listeners = new Array<>();
+    private final Array<T> inside = new Array<>();
+    private final Array<T> found = new Array<>(false, 4);
+    private float lastX = Float.NaN;
+    private float lastY = Float.NaN;
+    private boolean enabled = true;
+
+    /**
+     * Listens for the player entering and leaving trigger volumes.
+     */
+    public interface Listener<T> {
+        /**
+         * Called when the player walks into a volume.
+         *
+         * @param volume The volume entered
+         */
+        void entered(T volume);
+
+        /**
+         * Called when the player leaves a volume, or the volumes are reset or disabled while the player is in it.
+         *
+         * @param volume The volume left
+         */
+        void exited(T volume);
+    }
+
+    /**
+     * Constructs a new, empty set of trigger volumes.
+     */
+    public TriggerVolumes() {
+        this(new SpatialGrid<>());
+    }
+
+    /**
+     * Constructs a set of trigger volumes from the items in a grid. The grid is shared rather than copied,
+     * so reset should be called whenever its contents are changed.
+     *
+     * @param grid The grid of volumes, such as one kept up to date by the MapManager
+     */
+    public TriggerVolumes(SpatialGrid<T> grid) {
+        this.grid = grid;
+    }
+
+    /**
+     * Adds a volume. The grid must not be read-only, as the grids of a map are.
+     *
+     * @param volume The volume
+     * @param bounds The area of the volume. The rectangle is kept, so it must not be changed afterwards.
+     */
+    public void add(T volume, Rectangle bounds) {
+        grid.insert(volume, bounds);
+        lastX = Float.NaN;
+    }
+
+    /**
+     * Adds a listener, which is told about every volume entered or left from then on.
+     *
+     * @param listener The listener
+     */
+    public void addListener(Listener<? super T> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Finds the volumes the player is in, telling the listeners about any entered or left since the last update.
+     * Nothing is done if the player has not moved.
+     *
+     * @param position The position of the player
+     */
+    public void update(Vector2 position) {
+        if (!enabled || (position.x == lastX && position.y == lastY)) {
+            return;
+        }
+        lastX = position.x;
+        lastY = position.y;
+        grid.query(position.x, position.y, found);
+        for (int i = inside.size - 1; i >= 0; i--) {
+            T volume = inside.get(i);
+            if (!found.contains(volume, true)) {
+                inside.removeIndex(i);
+                fireExited(volume);
+            }
+        }
+        for (int i = 0; i < found.size; i++) {
+            T volume = found.get(i);
+            if (!inside.contains(volume, true)) {
+                inside.add(volume);
+                fireEntered(volume);
+            }
+        }
+    }
+
+    /**
+     * Leaves every volume the player is in, telling the listeners, so that the volumes are looked up again
+     * on the next update. Should be called when the volumes in the grid change, such as when the map changes.
+     */
+    public void reset() {
+        lastX = Float.NaN;
+        lastY = Float.NaN;
+        while (inside.size > 0) {
+            fireExited(inside.pop());
+        }
+    }
+
+    /**
+     * Sets whether the volumes are active. While they are not, the player is not in any of them.
+     *
+     * @param enabled True to activate the volumes, otherwise false
+     */
+    public void setEnabled(boolean enabled) {
+        if (this.enabled && !enabled) {
+            reset();
+        }
+        this.enabled = enabled;
+    }
+
+    /**
+     * Retrieves the volumes the player was in at the last update.
+     *
+     * @return The volumes the player is in, which must not be changed
+     */
+    public Array<T> getInside() {
+        return inside;
+    }
+
+    /**
+     * Retrieves the first volume the player was in at the last update.
+     *
+     * @return The volume, or null if the player is not in one
+     */
+    public T first() {
+        return inside.size > 0 ? inside.first() : null;
+    }
+
+    /**
+     * Tells the listeners that a volume has been entered.
+     *
+     * @param volume The volume entered
+     */
+    private void fireEntered(T volume) {
+        for (int i = 0; i < listeners.size; i++) {
+            listeners.get(i).entered(volume);
+        }
+    }
+
+    /**
+     * Tells the listeners that a volume has been left.
+     *
+     * @param volume The volume left
+     */
+    private void fireExited(T volume) {
+        for (int i = 0; i < listeners.size; i++) {
+            listeners.get(i).exited(volume);
+        }
+    }
+}
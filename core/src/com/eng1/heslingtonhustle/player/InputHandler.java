@@ -40,7 +40,7 @@ public class InputHandler extends InputAdapter {
     public boolean keyUp(int keycode) {
         handleInput(keycode);
         if (keycode == Input.Keys.E) {
-            playerState.stopInteracting();
+            playerState.releaseInteract();
         }
         return true;
     }
@@ -10,6 +10,7 @@ import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
 import com.eng1.heslingtonhustle.game.Game;
 import com.eng1.heslingtonhustle.helper.ResourceLoader;
+import com.eng1.heslingtonhustle.map.SpatialGrid;
 
 public class Movement {
 	private Game game;
@@ -17,6 +18,8 @@ public class Movement {
     private static final float PLAYER_WIDTH = 16;
     private static final float PLAYER_HEIGHT = 20;
     private final Vector2 position;
+    private final Vector2 previousPosition;
+    private final Vector2 renderPosition;
     private final float speed;
     public final State state;
     private Animation<TextureRegion> downWalkAnimation;
@@ -26,7 +29,9 @@ public class Movement {
     private float stateTime;
     private Animation<TextureRegion> currentAnimation;
     private TextureRegion currentFrame;
-    private Array<Rectangle> collidableTiles;
+    private SpatialGrid<Rectangle> collisionGrid = new SpatialGrid<>();
+    private final Array<Rectangle> nearbyTiles = new Array<>();
+    private final Rectangle playerRect = new Rectangle();
     public boolean movementEnabled = true;
 
     /**
@@ -36,39 +41,55 @@ public class Movement {
      */
     public Movement(Vector2 position, float speed, Game game) {
         this.position = position;
+        this.previousPosition = new Vector2(position);
+        this.renderPosition = new Vector2(position);
         this.speed = speed;
         this.state = new State();
         this.game = game;
-        
-        downWalkAnimation = game.resourceLoader.getDownWalk();
-        upWalkAnimation = game.resourceLoader.getUpWalk();
-        leftWalkAnimation = game.resourceLoader.getLeftWalk();
-        rightWalkAnimation = game.resourceLoader.getRightWalk();
-        
-        currentAnimation = downWalkAnimation;
+        refreshAnimations();
     }
     
+    /**
+     * Switches to the walking animations of the character currently chosen in the ResourceLoader.
+     * The animations are shared and built up front, so this only swaps references.
+     */
     public void refreshAnimations() {
     	downWalkAnimation = game.resourceLoader.getDownWalk();
         upWalkAnimation = game.resourceLoader.getUpWalk();
         leftWalkAnimation = game.resourceLoader.getLeftWalk();
         rightWalkAnimation = game.resourceLoader.getRightWalk();
         currentAnimation = downWalkAnimation;
+        currentFrame = currentAnimation.getKeyFrame(0);
     }
     
     /**
      * Sets the collidable tiles for collision detection.
+     * The tiles are indexed once, so later changes to the Array are not seen.
      * @param collidableTiles Array of collidable tiles represented by rectangles.
      */
     public void setCollidableTiles(Array<Rectangle> collidableTiles) {
-        this.collidableTiles = collidableTiles;
+        SpatialGrid<Rectangle> grid = new SpatialGrid<>();
+        for (Rectangle tile : collidableTiles) {
+            grid.insert(tile, tile);
+        }
+        this.collisionGrid = grid;
+    }
+
+    /**
+     * Sets the spatial grid of collidable tiles used for collision detection.
+     * @param collisionGrid The grid of collidable tiles, such as the one kept up to date by the MapManager.
+     */
+    public void setCollisionGrid(SpatialGrid<Rectangle> collisionGrid) {
+        this.collisionGrid = collisionGrid;
     }
 
     /**
-     * Updates the player's position and animation.
-     * @param deltaTime Time elapsed since the last frame.
+     * Updates the player's position and animation by one tick of the simulation.
+     * The position before the tick is kept, so the player can be drawn between the two.
+     * @param deltaTime Time elapsed since the last tick.
      */
     public void update(float deltaTime) {
+        previousPosition.set(position);
         if (!movementEnabled) {
             return;
         }
@@ -107,8 +128,7 @@ public class Movement {
      * @return True if collision occurs, false otherwise.
      */
     private boolean collidesX(float x, float y) {
-        Rectangle playerRect = new Rectangle(x, y, PLAYER_WIDTH, 0);
-        return collides(playerRect);
+        return collides(playerRect.set(x, y, PLAYER_WIDTH, 0));
     }
 
     /**
@@ -118,18 +138,18 @@ public class Movement {
      * @return True if collision occurs, false otherwise.
      */
     private boolean collidesY(float x, float y) {
-        Rectangle playerRect = new Rectangle(x, y, 0, PLAYER_HEIGHT);
-        return collides(playerRect);
+        return collides(playerRect.set(x, y, 0, PLAYER_HEIGHT));
     }
 
     /**
-     * Checks for collision with collidable tiles.
+     * Checks for collision with the collidable tiles near the player.
      * @param playerRect The rectangle representing the player's position.
      * @return True if collision occurs, false otherwise.
      */
     private boolean collides(Rectangle playerRect) {
-        for (Rectangle rect : collidableTiles) {
-            if (rect.overlaps(playerRect)) {
+        collisionGrid.query(playerRect.x, playerRect.y, playerRect.width, playerRect.height, nearbyTiles);
+        for (int i = 0; i < nearbyTiles.size; i++) {
+            if (nearbyTiles.get(i).overlaps(playerRect)) {
                 return true;
             }
         }
@@ -146,13 +166,13 @@ public class Movement {
 
         if (moveDirectionX == 0 && moveDirectionY == 0) {
             stateTime = 0f;
-        } else if (moveDirectionX == 1 && !currentAnimation.equals(rightWalkAnimation)) {
+        } else if (moveDirectionX == 1 && currentAnimation != rightWalkAnimation) {
             currentAnimation = rightWalkAnimation;
-        } else if (moveDirectionX == -1 && !currentAnimation.equals(leftWalkAnimation)) {
+        } else if (moveDirectionX == -1 && currentAnimation != leftWalkAnimation) {
             currentAnimation = leftWalkAnimation;
-        } else if (moveDirectionY == 1 && !currentAnimation.equals(upWalkAnimation) && moveDirectionX == 0) {
+        } else if (moveDirectionY == 1 && currentAnimation != upWalkAnimation && moveDirectionX == 0) {
             currentAnimation = upWalkAnimation;
-        } else if (moveDirectionY == -1 && !currentAnimation.equals(downWalkAnimation) && moveDirectionX == 0) {
+        } else if (moveDirectionY == -1 && currentAnimation != downWalkAnimation && moveDirectionX == 0) {
             currentAnimation = downWalkAnimation;
         }
     }
@@ -174,12 +194,30 @@ public class Movement {
     }
 
     /**
-     * Sets the position of the player.
+     * Sets the position of the player. The player is moved there at once, rather than drawn moving there.
      * @param newPosition The new position of the player.
      */
     public void setPosition(Vector2 newPosition) {
         this.position.x = newPosition.x;
         this.position.y = newPosition.y;
+        previousPosition.set(position);
+        renderPosition.set(position);
+    }
+
+    /**
+     * Updates the position the player is drawn at, between their positions after the last two ticks.
+     * @param alpha How far between the last two ticks to draw the player, from 0 to 1.
+     */
+    public void interpolate(float alpha) {
+        renderPosition.set(previousPosition).lerp(position, alpha);
+    }
+
+    /**
+     * Retrieves the position the player is drawn at, as of the last call to interpolate.
+     * @return The interpolated position of the player.
+     */
+    public Vector2 getRenderPosition() {
+        return renderPosition;
     }
 
     /**
@@ -190,6 +228,18 @@ public class Movement {
         return state;
     }
 
+    /**
+     * Puts the player back at the given position, facing down and free to move, as when the game starts.
+     * @param newPosition The position to put the player at.
+     */
+    public void reset(Vector2 newPosition) {
+        setPosition(newPosition);
+        state.reset();
+        stateTime = 0;
+        refreshAnimations();
+        enableMovement();
+    }
+
     /**
      * Disables movement of the player.
      */
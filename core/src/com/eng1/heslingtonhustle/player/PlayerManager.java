@@ -39,6 +39,19 @@ public class PlayerManager {
         this.currentDay = currentDay;
     }
 
+    /**
+     * Starts the week again, putting the player back at the given position with full energy
+     * and forgetting the days played so far.
+     * @param position The position to put the player at.
+     */
+    public void reset(Vector2 position) {
+        movement.reset(position);
+        time.resetWeek();
+        energy.reset();
+        week.clear();
+        currentDay = new Day();
+    }
+
     /**
      * Retrieves the state of the player's movement.
      * @return The state of the player's movement.
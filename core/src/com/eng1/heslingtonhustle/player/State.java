@@ -13,6 +13,10 @@ public class State {
     public boolean INTERACTING;
     public boolean IN_MENU;
 
+    // Set when the interact key is pressed and kept once it is released, until interactions have been checked for,
+    // as they are only checked a few times a second and a quick tap would otherwise be missed
+    private boolean interactPressed;
+
     /**
      * Constructs a new State object with default values.
      */
@@ -58,15 +62,41 @@ public class State {
      * Only allows interacting when not in a menu.
      */
     public void interacting() {
-        if (!IN_MENU)
+        if (!IN_MENU) {
             INTERACTING = true;
+            interactPressed = true;
+        }
     }
 
     /**
-     * Signals that the player has stopped interacting with an object.
+     * Signals that the player has stopped interacting with an object, as when the interaction has been handled.
      */
     public void stopInteracting(){
         INTERACTING = false;
+        interactPressed = false;
+    }
+
+    /**
+     * Signals that the interact key has been released. A press that has not been checked for yet is kept
+     * until it has been.
+     */
+    public void releaseInteract() {
+        INTERACTING = false;
+    }
+
+    /**
+     * Checks whether the player is holding the interact key, or has pressed it since interactions were last checked for.
+     * @return true if the player wants to interact, false otherwise.
+     */
+    public boolean isInteractPressed() {
+        return INTERACTING || interactPressed;
+    }
+
+    /**
+     * Signals that interactions have been checked for, dropping a press of the interact key that was not handled.
+     */
+    public void interactionsChecked() {
+        interactPressed = false;
     }
 
     /**
@@ -113,5 +143,18 @@ public class State {
         IN_MENU = false;
     }
 
+    /**
+     * Clears every input and the interaction and menu state, as when the game starts.
+     */
+    public void reset() {
+        UP = false;
+        DOWN = false;
+        LEFT = false;
+        RIGHT = false;
+        INTERACTING = false;
+        interactPressed = false;
+        IN_MENU = false;
+    }
+
 }
 
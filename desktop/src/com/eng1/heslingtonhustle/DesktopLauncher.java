@@ -3,10 +3,16 @@ package com.eng1.heslingtonhustle;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import com.eng1.heslingtonhustle.game.Game;
+import com.eng1.heslingtonhustle.helper.LoadProfiler;
 
 // Please note that on macOS your application needs to be started with the -XstartOnFirstThread JVM argument
 public class DesktopLauncher {
 	public static void main (String[] arg) {
+		// Run with -Dhustle.startupReport=<file> to write a report of where startup time goes
+		String startupReport = System.getProperty("hustle.startupReport");
+		if (startupReport != null) {
+			LoadProfiler.enable(startupReport);
+		}
 		Lwjgl3ApplicationConfiguration config = new Lwjgl3ApplicationConfiguration();
 		config.setForegroundFPS(60);
 		config.setTitle("Heslington Hustle");
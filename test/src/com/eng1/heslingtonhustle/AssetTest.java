@@ -5,18 +5,30 @@
  */
 package com.eng1.heslingtonhustle;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
 import com.eng1.heslingtonhustle.building.BuildingManager;
 import com.eng1.heslingtonhustle.game.Game;
 import com.eng1.heslingtonhustle.game.GameManager;
+import com.eng1.heslingtonhustle.graphics.DaylightShader;
 import com.eng1.heslingtonhustle.graphics.GameUI;
-import com.eng1.heslingtonhustle.graphics.RenderingManager;
+import com.eng1.heslingtonhustle.helper.AssetRegistry;
+import com.eng1.heslingtonhustle.helper.LoadProfiler;
 import com.eng1.heslingtonhustle.helper.ResourceLoader;
+import com.eng1.heslingtonhustle.helper.SpritePacker;
 import com.eng1.heslingtonhustle.map.MapManager;
 
 @RunWith(GdxTestRunner.class)
@@ -72,8 +84,8 @@ public class AssetTest {
      */
 	@Test
 	public void testShaderAssetsExist() {
-		assertTrue("Vertex Shader found", Gdx.files.internal(RenderingManager.vertexShaderPath).exists());
-		assertTrue("Fragment Shader found", Gdx.files.internal(RenderingManager.fragmentShaderPath).exists());
+		assertTrue("Daylight Vertex Shader found", Gdx.files.internal(DaylightShader.vertexShaderPath).exists());
+		assertTrue("Daylight Fragment Shader found", Gdx.files.internal(DaylightShader.fragmentShaderPath).exists());
 	}
 	
 	/**
@@ -87,5 +99,57 @@ public class AssetTest {
 		assertTrue("Building textures found", Gdx.files.internal(ResourceLoader.buildingsPath).exists());
 		assertTrue("Debug textures found", Gdx.files.internal(ResourceLoader.debugPath).exists());
 		assertTrue("Overlay textures found", Gdx.files.internal(ResourceLoader.overlayPath).exists());
+		assertTrue("Sprite atlas found", Gdx.files.internal(SpritePacker.ATLAS_PATH).exists());
+	}
+	
+	/**
+     * Verifies that the AssetRegistry loads an asset once, shares it between holders,
+     * and disposes it when the last holder releases it.
+     */
+	@Test
+	public void testAssetRegistry() {
+		Texture first = AssetRegistry.acquire(Game.backgroundPath, Texture.class);
+		Texture second = AssetRegistry.acquire(Game.backgroundPath, Texture.class);
+		assertSame("Acquiring an asset again shares it", first, second);
+		assertEquals("Each holder is counted", 2, AssetRegistry.getReferenceCount(Game.backgroundPath));
+
+		AssetRegistry.release(Game.backgroundPath);
+		assertTrue("The asset stays loaded while it is held", AssetRegistry.isLoaded(Game.backgroundPath));
+		AssetRegistry.release(Game.backgroundPath);
+		assertFalse("The asset is unloaded once it is released by every holder", AssetRegistry.isLoaded(Game.backgroundPath));
+		assertThrows("Releasing an asset that is not held fails", GdxRuntimeException.class, () -> AssetRegistry.release(Game.backgroundPath));
+	}
+
+	/**
+	 * Tests that asset loads and the parse of the building information are recorded by the LoadProfiler
+	 * with their time and size, and that the report can be read back as JSON.
+	 */
+	@Test
+	public void testLoadProfiler() {
+		LoadProfiler.enable(null);
+		try {
+			AssetRegistry.acquire(Game.backgroundPath, Texture.class);
+			AssetRegistry.release(Game.backgroundPath);
+			BuildingManager.readBuildingInfo();
+			LoadProfiler.mark("firstFrame");
+
+			Array<LoadProfiler.Load> loads = LoadProfiler.getLoads();
+			assertEquals(2, loads.size);
+			assertEquals("Texture", loads.get(0).category);
+			assertEquals(Game.backgroundPath, loads.get(0).name);
+			assertEquals("The size of the file is recorded", Gdx.files.internal(Game.backgroundPath).length(), loads.get(0).bytes);
+			assertEquals("json", loads.get(1).category);
+			assertTrue(LoadProfiler.getMilestoneMillis("firstFrame") >= 0);
+
+			JsonValue report = new JsonReader().parse(LoadProfiler.createReport());
+			assertEquals(2, report.get("loads").size);
+			assertEquals(1, report.get("totals").get("Texture").getInt("count"));
+			assertTrue(report.get("milestones").has("firstFrame"));
+		} finally {
+			LoadProfiler.disable();
+		}
+		AssetRegistry.acquire(Game.backgroundPath, Texture.class);
+		AssetRegistry.release(Game.backgroundPath);
+		assertEquals("Nothing is recorded while the profiler is disabled", 0, LoadProfiler.getLoads().size);
 	}
 }
@@ -0,0 +1,169 @@
+/**
+ * A GL20 that does nothing, like HeadlessGL20, but counts the calls that make a frame expensive to draw:
+ * draw calls, texture binds, shader switches, buffer uploads and render state changes.
+ * The counts are for the current frame, and are cleared with startFrame before each frame is rendered.
+ * Client-side vertex arrays are counted as buffer uploads, as their data is sent to the GPU with every draw call.
+ */
+package com.eng1.heslingtonhustle;
+
+import java.nio.Buffer;
+
+public class CountingGL20 extends HeadlessGL20 {
+    private int drawCalls;
+    private int textureBinds;
+    private int shaderSwitches;
+    private int bufferUploads;
+    private int stateChanges;
+
+    /**
+     * Clears the counts, so that only the calls made by the next frame are counted.
+     */
+    public void startFrame() {
+        drawCalls = 0;
+        textureBinds = 0;
+        shaderSwitches = 0;
+        bufferUploads = 0;
+        stateChanges = 0;
+    }
+
+    /**
+     * Retrieves the number of draw calls made this frame.
+     *
+     * @return The number of glDrawArrays and glDrawElements calls
+     */
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * Retrieves the number of textures bound this frame.
+     *
+     * @return The number of glBindTexture calls
+     */
+    public int getTextureBinds() {
+        return textureBinds;
+    }
+
+    /**
+     * Retrieves the number of shader programs switched to this frame.
+     *
+     * @return The number of glUseProgram calls
+     */
+    public int getShaderSwitches() {
+        return shaderSwitches;
+    }
+
+    /**
+     * Retrieves the number of times vertex, index or texture data was sent to the GPU this frame.
+     *
+     * @return The number of buffer, texture and client-side vertex array uploads
+     */
+    public int getBufferUploads() {
+        return bufferUploads;
+    }
+
+    /**
+     * Retrieves the number of render state changes made this frame, such as enabling blending,
+     * changing the blend function or viewport, or binding a framebuffer.
+     *
+     * @return The number of state changes
+     */
+    public int getStateChanges() {
+        return stateChanges;
+    }
+
+    @Override
+    public void glDrawArrays(int mode, int first, int count) {
+        drawCalls++;
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, Buffer indices) {
+        drawCalls++;
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, int indices) {
+        drawCalls++;
+    }
+
+    @Override
+    public void glBindTexture(int target, int texture) {
+        textureBinds++;
+    }
+
+    @Override
+    public void glUseProgram(int program) {
+        shaderSwitches++;
+    }
+
+    @Override
+    public void glBufferData(int target, int size, Buffer data, int usage) {
+        bufferUploads++;
+    }
+
+    @Override
+    public void glBufferSubData(int target, int offset, int size, Buffer data) {
+        bufferUploads++;
+    }
+
+    @Override
+    public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels) {
+        bufferUploads++;
+    }
+
+    @Override
+    public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels) {
+        bufferUploads++;
+    }
+
+    @Override
+    public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, Buffer ptr) {
+        bufferUploads++;
+    }
+
+    @Override
+    public void glEnable(int cap) {
+        stateChanges++;
+    }
+
+    @Override
+    public void glDisable(int cap) {
+        stateChanges++;
+    }
+
+    @Override
+    public void glBlendFunc(int sfactor, int dfactor) {
+        stateChanges++;
+    }
+
+    @Override
+    public void glBlendFuncSeparate(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+        stateChanges++;
+    }
+
+    @Override
+    public void glDepthMask(boolean flag) {
+        stateChanges++;
+    }
+
+    @Override
+    public void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+        stateChanges++;
+    }
+
+    @Override
+    public void glViewport(int x, int y, int width, int height) {
+        stateChanges++;
+    }
+
+    @Override
+    public void glScissor(int x, int y, int width, int height) {
+        stateChanges++;
+    }
+
+    @Override
+    public void glBindFramebuffer(int target, int framebuffer) {
+        stateChanges++;
+    }
+}
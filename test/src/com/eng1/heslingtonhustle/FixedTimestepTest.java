@@ -0,0 +1,62 @@
+/**
+ * This class contains unit tests for the FixedTimestep the game loop advances the simulation with.
+ * It needs neither a game nor a GL context, so it runs with the rest of the categorised tests.
+ */
+package com.eng1.heslingtonhustle;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import com.eng1.heslingtonhustle.game.FixedTimestep;
+
+@RunWith(GdxTestRunner.class)
+@Category(GdxTestRunner.class)
+public class FixedTimestepTest {
+
+    /**
+     * Tests that the simulation covers the same time at 30 and 165 frames per second,
+     * and that what is drawn is interpolated a tick behind it.
+     */
+    @Test
+    public void testSameTimeAtAnyFrameRate() {
+        float slow = runFrames(30, 1f / 15);
+        float fast = runFrames(165, 1f / 15);
+        assertEquals("The simulation covers the same time at any frame rate", slow, fast, 0.0001f);
+        assertEquals("The scene is drawn a tick behind the simulation", 1f / 15 - FixedTimestep.TICK_SECONDS, slow, 0.0001f);
+    }
+
+    /**
+     * Tests that a hitch runs at most MAX_TICKS_PER_FRAME ticks and that the rest of its time is dropped,
+     * as is the time left over when the timestep is reset.
+     */
+    @Test
+    public void testHitchIsLimited() {
+        FixedTimestep fixedTimestep = new FixedTimestep();
+        assertEquals("A hitch is limited to a few ticks", FixedTimestep.MAX_TICKS_PER_FRAME, fixedTimestep.advance(1));
+        assertEquals("The time lost to a hitch is dropped", 0, fixedTimestep.advance(0));
+
+        assertEquals("Half a tick runs no ticks", 0, fixedTimestep.advance(FixedTimestep.TICK_SECONDS / 2));
+        assertEquals("Half a tick is drawn halfway between ticks", 0.5f, fixedTimestep.getAlpha(), 0.0001f);
+        assertEquals("Negative frame times are ignored", 0, fixedTimestep.advance(-1));
+        fixedTimestep.reset();
+        assertEquals("Resetting drops the time left over", 0, fixedTimestep.getAlpha(), 0);
+    }
+
+    /**
+     * Advances a FixedTimestep at a frame rate, the way the game loop does.
+     * @param framesPerSecond The frame rate.
+     * @param seconds How long to run for.
+     * @return The time the drawn scene is at, interpolated between the last two ticks.
+     */
+    private float runFrames(int framesPerSecond, float seconds) {
+        FixedTimestep fixedTimestep = new FixedTimestep();
+        int ticks = 0;
+        for (int frame = 0; frame < Math.round(seconds * framesPerSecond); frame++) {
+            ticks += fixedTimestep.advance(1f / framesPerSecond);
+        }
+        return (ticks - 1 + fixedTimestep.getAlpha()) * FixedTimestep.TICK_SECONDS;
+    }
+}
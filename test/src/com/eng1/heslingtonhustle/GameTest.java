@@ -4,8 +4,11 @@
 package com.eng1.heslingtonhustle;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 import org.junit.Before;
@@ -14,10 +17,22 @@ import org.junit.runner.RunWith;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.ui.Dialog;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.utils.async.AsyncResult;
 import com.eng1.heslingtonhustle.building.Building;
+import com.eng1.heslingtonhustle.building.BuildingInfo;
+import com.eng1.heslingtonhustle.building.BuildingManager;
+import com.eng1.heslingtonhustle.game.FixedTimestep;
 import com.eng1.heslingtonhustle.game.Game;
 import com.eng1.heslingtonhustle.game.GameManager;
+import com.eng1.heslingtonhustle.game.StartupLoader;
+import com.eng1.heslingtonhustle.game.SubsystemScheduler;
+import com.eng1.heslingtonhustle.map.LoadedMap;
+import com.eng1.heslingtonhustle.map.MapManager;
+import com.eng1.heslingtonhustle.player.PlayerManager;
 
 @RunWith(GdxTestRunner.class)
 public class GameTest {
@@ -70,7 +85,128 @@ public class GameTest {
         
         gameManager.playerManager.movement.state.INTERACTING = true;
         gameManager.interactWithBuilding(testBuilding);
+        assertTrue("Player is held in the menu state while the map transition runs",
+        		gameManager.playerManager.movement.state.IN_MENU);
+        gameManager.mapManager.finishTransition();
+        assertFalse("Player leaves the menu state once the map transition has finished",
+        		gameManager.playerManager.movement.state.IN_MENU);
         assertEquals("Map is set to building's map upon interacting with it",
         		gameManager.mapManager.getMapPath(testBuilding.getName()), gameManager.mapManager.currentMapPath);
     }
+
+    /**
+     * Tests that each subsystem runs at its own rate, with movement on every tick,
+     * and that the time each one takes is recorded.
+     */
+    @Test
+    public void testSubsystemRates() {
+        SubsystemScheduler scheduler = game.subsystemScheduler;
+        for (int tick = 0; tick < FixedTimestep.TICK_RATE; tick++) {
+            scheduler.update(FixedTimestep.TICK_SECONDS);
+        }
+        SubsystemScheduler.Subsystem movement = scheduler.getSubsystem("movement");
+        SubsystemScheduler.Subsystem proximity = scheduler.getSubsystem("proximity");
+        SubsystemScheduler.Subsystem hud = scheduler.getSubsystem("hud");
+        assertEquals("Movement runs on every tick", FixedTimestep.TICK_RATE, movement.getRuns());
+        assertEquals("Proximity runs at its own rate", Game.PROXIMITY_RATE, proximity.getRuns(), 1);
+        assertEquals("The HUD runs at its own rate", Game.HUD_RATE, hud.getRuns(), 1);
+        assertTrue("The time movement takes is recorded", movement.getTotalNanos() > 0);
+
+        movement.resetStats();
+        assertEquals("Timings can be cleared", 0, movement.getAverageMillis(), 0);
+    }
+
+    /**
+     * Tests that the activity dialog is built once and re-populated with each activity it asks about,
+     * rather than a new dialog being created every time.
+     */
+    @Test
+    public void testActivityDialogIsReused() {
+        Dialog activityDialog = gameManager.getActivityDialog();
+        Dialog errorDialog = gameManager.getErrorDialog();
+        for (String name : new String[] {"Pier", "Bus Stop"}) {
+            Building building = null;
+            for (Building candidate : game.buildings) {
+                if (candidate.getName().equals(name)) {
+                    building = candidate;
+                }
+            }
+            gameManager.playerManager.movement.state.INTERACTING = true;
+            gameManager.interactWithBuilding(building);
+            assertSame("The same activity dialog is shown for every activity", activityDialog, gameManager.getActivityDialog());
+            assertEquals("The dialog's text is replaced rather than added to", 1, activityDialog.getContentTable().getChildren().size);
+            Label label = (Label) activityDialog.getContentTable().getChildren().first();
+            assertEquals("The dialog asks about the activity", building.getActivity().toString(), label.getText().toString());
+            assertTrue("Player is held in the menu state while the dialog is open",
+                    gameManager.playerManager.movement.state.IN_MENU);
+            gameManager.playerManager.movement.state.IN_MENU = false;
+        }
+        assertSame("The error dialog is only built once", errorDialog, gameManager.getErrorDialog());
+    }
+
+    /**
+     * Tests that restarting resets the session in place, keeping the loaded map and player rather than creating new ones.
+     */
+    @Test
+    public void testResetSession() {
+        PlayerManager playerManager = game.playerManager;
+        Vector2 spawn = new Vector2(playerManager.getPosition());
+        LoadedMap campus = gameManager.mapManager.getMap(MapManager.defaultMapPath);
+
+        // Play part of the week and walk into a building
+        playerManager.performActivity(30, 4);
+        playerManager.sleep();
+        playerManager.sleep();
+        playerManager.movement.state.INTERACTING = true;
+        gameManager.interactWithBuilding(testBuilding);
+        gameManager.mapManager.finishTransition();
+
+        game.resetSession();
+        assertSame("The same player is kept", playerManager, game.playerManager);
+        assertEquals("The player is back at the spawn point", spawn, playerManager.getPosition());
+        assertEquals("Energy is full again", 100, playerManager.getEnergy().getEnergyLevel());
+        assertEquals("Time is back to 08:00", 8, playerManager.getTime().getTime());
+        assertEquals("The week starts again", "Monday", playerManager.getTime().getDay());
+        assertTrue("The days played are forgotten", playerManager.getWeek().isEmpty());
+        assertFalse("The player can move", playerManager.movement.state.IN_MENU);
+        assertEquals("The campus is shown", MapManager.defaultMapPath, gameManager.mapManager.currentMapPath);
+        assertSame("The campus map is not loaded again", campus, gameManager.mapManager.getMap(MapManager.defaultMapPath));
+        assertTrue("The campus buildings are shown", testBuilding.isVisible());
+    }
+
+    /**
+     * Tests that the StartupLoader runs its stages in order, running a waiting stage again on later frames,
+     * and that work handed to the worker thread can be waited for.
+     */
+    @Test
+    public void testStartupLoader() {
+        StartupLoader loader = new StartupLoader();
+        StringBuilder order = new StringBuilder();
+        AsyncResult<BuildingInfo[]> buildingInfo = loader.submit(BuildingManager::readBuildingInfo);
+        int[] checks = new int[1];
+        loader.add("first", () -> {
+            order.append("first ");
+            return true;
+        });
+        loader.add("waiting", () -> {
+            checks[0]++;
+            return checks[0] == 3;
+        });
+        loader.add("buildings", () -> {
+            if (!buildingInfo.isDone()) {
+                return false;
+            }
+            order.append(buildingInfo.get().length);
+            return true;
+        });
+        assertFalse("Startup has not finished while a stage is waiting", loader.update());
+        assertEquals("waiting", loader.getCurrentStep());
+        assertEquals(1 / 3f, loader.getProgress(), 0.001f);
+
+        loader.finish();
+        assertTrue(loader.isFinished());
+        assertEquals("A waiting stage runs again on later frames", 3, checks[0]);
+        assertEquals("Stages run in order, and the buildings are read on the worker thread",
+                "first " + BuildingManager.readBuildingInfo().length, order.toString());
+    }
 }
@@ -7,11 +7,13 @@ import org.junit.Test;
 
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.eng1.heslingtonhustle.graphics.GameUI;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
 import com.eng1.heslingtonhustle.game.Game;
 import com.eng1.heslingtonhustle.graphics.CameraManager;
+import com.eng1.heslingtonhustle.graphics.DaylightShader;
 
 /**
  * Tests the graphical components of the game including camera settings and game UI elements.
@@ -50,4 +52,19 @@ public class GraphicsTest {
         // Since we cannot simulate full UI interactions, we only verify the initial state of components
         assertNotNull(gameUI.progressBar);
     }
+
+    /**
+     * Tests that the daylight palette is clear in the morning and darkens through the day to the night colour.
+     */
+    @Test
+    public void testDaylightPalette() {
+        assertEquals("No tint in the morning", 0, DaylightShader.getTint(8).a, 0.001);
+        for (int hour = 9; hour <= DaylightShader.HOURS; hour++) {
+            assertTrue("Darker every hour", DaylightShader.getTint(hour).a > DaylightShader.getTint(hour - 1).a);
+        }
+        Color midnight = DaylightShader.getTint(DaylightShader.HOURS);
+        assertEquals("Tinted towards the night colour", DaylightShader.NIGHT_COLOR.r, midnight.r, 0.001);
+        assertEquals("Darkest at midnight", DaylightShader.NIGHT_COLOR.a * 0.8f, midnight.a, 0.001);
+        assertEquals("Hours after midnight are clamped", midnight, DaylightShader.getTint(DaylightShader.HOURS + 1));
+    }
 }
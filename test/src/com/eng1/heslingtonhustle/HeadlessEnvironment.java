@@ -0,0 +1,88 @@
+/**
+ * The HeadlessEnvironment lets a test create and render the game against its real assets, as the game runs.
+ * The mocked application and files set up by the GdxTestRunner are replaced with those of a real headless
+ * application, as Mockito records every call made to a mock and would be measured along with the game.
+ * Rendering goes through the given GL20, and every frame takes one tick rather than however long the headless
+ * application's last frame took. Everything that was replaced is put back by restore, for the other tests.
+ */
+package com.eng1.heslingtonhustle;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Audio;
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.viewport.ScreenViewport;
+import com.eng1.heslingtonhustle.game.FixedTimestep;
+import com.eng1.heslingtonhustle.game.Game;
+
+public class HeadlessEnvironment {
+    private static HeadlessApplication application;
+
+    private final Application app = Gdx.app;
+    private final Files files = Gdx.files;
+    private final Audio audio = Gdx.audio;
+    private final Input input = Gdx.input;
+    private final Graphics graphics = Gdx.graphics;
+    private final GL20 gl = Gdx.gl;
+    private final GL20 gl20 = Gdx.gl20;
+
+    /**
+     * Constructs a HeadlessEnvironment, replacing the application, files, audio, input, graphics and GL20.
+     * The headless application is started the first time, and shared by every test after that.
+     *
+     * @param headlessGl The GL20 to render with, such as a HeadlessGL20
+     */
+    public HeadlessEnvironment(GL20 headlessGl) {
+        if (application == null) {
+            application = new HeadlessApplication(new ApplicationAdapter() {
+            }, new HeadlessApplicationConfiguration());
+        }
+        Gdx.app = application;
+        Gdx.files = application.getFiles();
+        Gdx.audio = application.getAudio();
+        Gdx.input = application.getInput();
+        Gdx.graphics = new MockGraphics() {
+            @Override
+            public float getDeltaTime() {
+                return FixedTimestep.TICK_SECONDS;
+            }
+        };
+        Gdx.gl = headlessGl;
+        Gdx.gl20 = headlessGl;
+    }
+
+    /**
+     * Creates a game on campus, rendering with a real SpriteBatch, map renderer and stage.
+     * The map renderer and stage each have their own batch, as they do in the game.
+     *
+     * @return The game, with the player at the spawn point
+     */
+    public Game createGame() {
+        Game game = new Game();
+        game.testCreate(new OrthogonalTiledMapRenderer(null, Game.SCALE), new Stage(new ScreenViewport()), new SpriteBatch());
+        return game;
+    }
+
+    /**
+     * Puts back the application, files, audio, input, graphics and GL20 that were replaced.
+     */
+    public void restore() {
+        Gdx.app = app;
+        Gdx.files = files;
+        Gdx.audio = audio;
+        Gdx.input = input;
+        Gdx.graphics = graphics;
+        Gdx.gl = gl;
+        Gdx.gl20 = gl20;
+    }
+}
@@ -5,7 +5,11 @@ package com.eng1.heslingtonhustle;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import org.junit.Test;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.eng1.heslingtonhustle.helper.ResourceLoader;
 import com.eng1.heslingtonhustle.helper.ScoreManager;
 
@@ -32,9 +36,7 @@ public class HelperTest {
     public void testResourceLoader() {
     	ResourceLoader resourceLoader = new ResourceLoader();
         // Test whether ResourceLoader successfully loads textures
-        assertNotNull(ResourceLoader.buildings);
-        assertNotNull(ResourceLoader.debug);
-        assertNotNull(ResourceLoader.overlay);
+        assertNotNull(ResourceLoader.getAtlas());
 
         // Test whether ResourceLoader successfully retrieves animations
         assertNotNull(resourceLoader.getDownWalk());
@@ -43,11 +45,29 @@ public class HelperTest {
         assertNotNull(resourceLoader.getLeftWalk());
 
         // Test whether ResourceLoader successfully retrieves building textures
-        assertNotNull(ResourceLoader.getBuildingTextureRegion(0, 0, 1, 1));
+        assertNotNull(ResourceLoader.getBuildingTextureRegion("library"));
 
         // Test whether ResourceLoader successfully retrieves debug texture and overlay
         assertNotNull(ResourceLoader.getDebug());
         assertNotNull(ResourceLoader.getOverlay());
     }
-}
 
+    /**
+     * Tests that the character animations are built once and shared,
+     * so switching character only swaps which animations are used.
+     */
+    @Test
+    public void testCharacterAnimationsAreCached() {
+        ResourceLoader resourceLoader = new ResourceLoader();
+        Animation<TextureRegion> firstCharacter = resourceLoader.getDownWalk();
+        assertSame(firstCharacter, resourceLoader.getDownWalk());
+
+        resourceLoader.character = 2;
+        Animation<TextureRegion> secondCharacter = resourceLoader.getDownWalk();
+        assertNotSame(firstCharacter, secondCharacter);
+        assertSame(secondCharacter, resourceLoader.getDownWalk());
+
+        resourceLoader.character = 1;
+        assertSame(firstCharacter, resourceLoader.getDownWalk());
+    }
+}
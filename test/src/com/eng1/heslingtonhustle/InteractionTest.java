@@ -0,0 +1,119 @@
+/**
+ * This class contains tests of the player interacting with the buildings on campus as the game runs,
+ * with the interact key pressed through the InputHandler and interactions checked at the proximity rate.
+ */
+package com.eng1.heslingtonhustle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import com.badlogic.gdx.Input;
+import com.eng1.heslingtonhustle.building.Building;
+import com.eng1.heslingtonhustle.game.Game;
+import com.eng1.heslingtonhustle.map.MapManager;
+import com.eng1.heslingtonhustle.player.InputHandler;
+import com.eng1.heslingtonhustle.player.State;
+
+@RunWith(GdxTestRunner.class)
+@Category(GdxTestRunner.class)
+public class InteractionTest {
+    // Long enough for the proximity checks to run a few times
+    private static final int CHECK_FRAMES = 10;
+    private static final int TRANSITION_FRAMES = 120;
+
+    private HeadlessEnvironment environment;
+    private Game game;
+    private InputHandler inputHandler;
+
+    /**
+     * Sets up a game on campus in a real headless application, with an InputHandler for the player.
+     */
+    @Before
+    public void setUp() {
+        environment = new HeadlessEnvironment(new HeadlessGL20());
+        game = environment.createGame();
+        inputHandler = new InputHandler(game.playerManager.getState());
+    }
+
+    /**
+     * Restores the application, files, graphics and GL20 used by the other tests.
+     */
+    @After
+    public void tearDown() {
+        environment.restore();
+    }
+
+    /**
+     * Tests that tapping the interact key inside a building's interaction range enters the building,
+     * even though the key is released before the interactions are next checked.
+     */
+    @Test
+    public void testTapEntersBuilding() {
+        Building library = findBuilding("Library");
+        game.playerManager.getMovement().setPosition(library.getInteractSpot());
+        renderFrames(CHECK_FRAMES);
+        assertSame("The player is in range of the library", library, game.gameManager.checkForBuildingInRange());
+
+        inputHandler.keyDown(Input.Keys.E);
+        inputHandler.keyUp(Input.Keys.E);
+        assertFalse("The interact key is no longer held", game.playerManager.getState().isINTERACTING());
+        renderFrames(CHECK_FRAMES);
+        assertTrue("The tap starts the transition into the library", game.mapManager.isTransitioning());
+
+        renderFrames(TRANSITION_FRAMES);
+        assertEquals("The library has been entered", MapManager.libraryMapPath, game.mapManager.currentMapPath);
+    }
+
+    /**
+     * Tests that a tap of the interact key with nothing in range is dropped once interactions have been checked,
+     * rather than entering the next building the player walks up to.
+     */
+    @Test
+    public void testTapWithNothingInRangeIsDropped() {
+        State state = game.playerManager.getState();
+        inputHandler.keyDown(Input.Keys.E);
+        inputHandler.keyUp(Input.Keys.E);
+        renderFrames(CHECK_FRAMES);
+        assertFalse("The tap is dropped", state.isInteractPressed());
+
+        Building library = findBuilding("Library");
+        game.playerManager.getMovement().setPosition(library.getInteractSpot());
+        renderFrames(CHECK_FRAMES);
+        assertSame("The player is in range of the library", library, game.gameManager.checkForBuildingInRange());
+        assertFalse("The library is not entered", game.mapManager.isTransitioning());
+    }
+
+    /**
+     * Renders a number of frames, each of which runs one tick.
+     * @param frames The number of frames.
+     */
+    private void renderFrames(int frames) {
+        for (int frame = 0; frame < frames; frame++) {
+            game.render();
+        }
+    }
+
+    /**
+     * Finds a building on campus by its name.
+     * @param name The name of the building.
+     * @return The building.
+     */
+    private Building findBuilding(String name) {
+        for (Building building : game.buildings) {
+            if (building.getName().equals(name)) {
+                return building;
+            }
+        }
+        fail("The " + name + " is on campus");
+        return null;
+    }
+}
@@ -0,0 +1,211 @@
+/**
+ * This class contains unit tests for the parts of the map system that need neither a map loaded from the assets
+ * nor a GL context, such as the map cache, spatial grid and trigger volumes, so that they run with the rest of
+ * the categorised tests.
+ */
+package com.eng1.heslingtonhustle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.eng1.heslingtonhustle.map.LoadedMap;
+import com.eng1.heslingtonhustle.map.MapCache;
+import com.eng1.heslingtonhustle.map.SpatialGrid;
+import com.eng1.heslingtonhustle.map.TriggerVolumes;
+
+@RunWith(GdxTestRunner.class)
+@Category(GdxTestRunner.class)
+public class MapDataTest {
+
+    /**
+     * Tests that a cached map is returned as it was added, instead of being loaded again,
+     * and that adding the same map again does not count its memory twice.
+     */
+    @Test
+    public void testMapCacheReusesMaps() {
+        MapCache mapCache = new MapCache(2000);
+        assertNull("An uncached map is not found", mapCache.get("a"));
+        LoadedMap map = createMap("a");
+        mapCache.put(map);
+        assertSame("A cached map is reused", map, mapCache.get("a"));
+        mapCache.put(map);
+        assertEquals("Adding a map again does not duplicate it", 1, mapCache.size());
+        assertEquals("Adding a map again does not count its memory twice", 800, mapCache.getUsedBytes());
+
+        assertTrue("A cached map can be removed", mapCache.remove("a"));
+        assertFalse("A removed map is no longer cached", mapCache.contains("a"));
+        assertEquals("A removed map's memory is released", 0, mapCache.getUsedBytes());
+    }
+
+    /**
+     * Tests that the map cache evicts the least recently used map once its budget is exceeded,
+     * and never evicts the pinned map.
+     */
+    @Test
+    public void testMapCacheEviction() {
+        // Each map is a single empty 10x10 layer, which is estimated at 800 bytes
+        MapCache mapCache = new MapCache(2000);
+        mapCache.put(createMap("a"));
+        mapCache.put(createMap("b"));
+        mapCache.get("a");
+        mapCache.put(createMap("c"));
+        assertFalse("Least recently used map is evicted", mapCache.contains("b"));
+        assertTrue("Recently used map is kept", mapCache.contains("a"));
+        assertTrue("Added map is kept", mapCache.contains("c"));
+        assertEquals("Used memory is tracked", 1600, mapCache.getUsedBytes());
+
+        mapCache.pin("a");
+        mapCache.put(createMap("d"));
+        assertTrue("Pinned map is never evicted", mapCache.contains("a"));
+        assertFalse("Unpinned map is evicted instead", mapCache.contains("c"));
+    }
+
+    /**
+     * Tests the SpatialGrid against checking every rectangle.
+     * Verifies that area and point queries find exactly the rectangles they touch, each once,
+     * and that a grid sharing another grid's contents sees its rectangles.
+     */
+    @Test
+    public void testSpatialGrid() {
+        Random random = new Random(1);
+        Array<Rectangle> rectangles = new Array<>();
+        SpatialGrid<Rectangle> grid = new SpatialGrid<>(100);
+        for (int i = 0; i < 2000; i++) {
+            Rectangle rectangle = new Rectangle(random.nextFloat() * 5000 - 1000, random.nextFloat() * 5000 - 1000,
+                    random.nextFloat() * 300, random.nextFloat() * 300);
+            rectangles.add(rectangle);
+            grid.insert(rectangle, rectangle);
+        }
+        assertEquals("Every rectangle is added", 2000, grid.size());
+
+        Array<Rectangle> results = new Array<>();
+        for (int i = 0; i < 200; i++) {
+            Rectangle area = new Rectangle(random.nextFloat() * 5000 - 1000, random.nextFloat() * 5000 - 1000,
+                    random.nextFloat() * 400, random.nextFloat() * 400);
+            grid.query(area.x, area.y, area.width, area.height, results);
+            int expected = 0;
+            for (Rectangle rectangle : rectangles) {
+                if (rectangle.overlaps(area)) {
+                    expected++;
+                    assertTrue("Area query finds overlapping rectangles", results.contains(rectangle, true));
+                }
+            }
+            int found = 0;
+            for (Rectangle rectangle : results) {
+                if (rectangle.overlaps(area)) {
+                    found++;
+                }
+            }
+            assertEquals("Area query returns each rectangle once", expected, found);
+
+            grid.query(area.x, area.y, results);
+            for (Rectangle rectangle : rectangles) {
+                assertEquals("Point query finds exactly the rectangles containing the point",
+                        rectangle.contains(area.x, area.y), results.contains(rectangle, true));
+            }
+        }
+
+        SpatialGrid<Rectangle> view = new SpatialGrid<>();
+        view.setTo(grid);
+        assertEquals("Grid shares the contents of another grid", 2000, view.size());
+    }
+
+    /**
+     * Tests that a map's grids are read-only, and that a grid sharing their contents cannot add to them,
+     * so the cached map is never changed through the grids the MapManager hands out.
+     */
+    @Test
+    public void testMapGridsAreReadOnly() {
+        LoadedMap map = createMap("a");
+        assertTrue("A map's collision grid is read-only", map.getCollisionGrid().isReadOnly());
+        assertTrue("A map's exit grid is read-only", map.getExitGrid().isReadOnly());
+        assertTrue("A map's activity grid is read-only", map.getActivityGrid().isReadOnly());
+
+        SpatialGrid<Rectangle> view = new SpatialGrid<>();
+        view.insert(new Rectangle(), new Rectangle());
+        view.setTo(map.getExitGrid());
+        assertTrue("A grid sharing a read-only grid is read-only", view.isReadOnly());
+        try {
+            view.insert(new Rectangle(), new Rectangle(0, 0, 10, 10));
+            fail("Nothing can be added to a read-only grid");
+        } catch (GdxRuntimeException e) {
+            assertEquals("The map's grid is unchanged", 0, map.getExitGrid().size());
+        }
+    }
+
+    /**
+     * Tests that trigger volumes only tell their listeners when the player enters or leaves one,
+     * and that resetting or disabling them leaves every volume the player is in.
+     */
+    @Test
+    public void testTriggerVolumes() {
+        TriggerVolumes<String> triggers = new TriggerVolumes<>();
+        triggers.add("door", new Rectangle(0, 0, 100, 100));
+        triggers.add("desk", new Rectangle(50, 50, 100, 100));
+        Array<String> events = new Array<>();
+        triggers.addListener(new TriggerVolumes.Listener<String>() {
+            @Override
+            public void entered(String volume) {
+                events.add("+" + volume);
+            }
+
+            @Override
+            public void exited(String volume) {
+                events.add("-" + volume);
+            }
+        });
+
+        Vector2 position = new Vector2(500, 500);
+        triggers.update(position);
+        assertEquals("Nothing happens in open space", 0, events.size);
+
+        triggers.update(position.set(20, 20));
+        assertEquals("Entering a volume is reported", "+door", events.peek());
+        triggers.update(position.set(60, 60));
+        assertEquals("Entering an overlapping volume is reported", "+desk", events.peek());
+        assertEquals("The first volume entered comes first", "door", triggers.first());
+        int count = events.size;
+        triggers.update(position.set(70, 70));
+        assertEquals("Moving within the same volumes reports nothing", count, events.size);
+
+        triggers.update(position.set(120, 120));
+        assertEquals("Leaving a volume is reported", "-door", events.peek());
+        triggers.reset();
+        assertEquals("Resetting leaves every volume", "-desk", events.peek());
+        triggers.update(position);
+        assertEquals("Volumes are looked up again after a reset", "+desk", events.peek());
+
+        triggers.setEnabled(false);
+        assertEquals("Disabling leaves every volume", "-desk", events.peek());
+        triggers.update(position.set(20, 20));
+        assertEquals("Disabled volumes report nothing", "-desk", events.peek());
+        assertNull("The player is in no disabled volume", triggers.first());
+    }
+
+    /**
+     * Creates a loaded map with a single empty layer and no tiles for testing.
+     * @param path The path to give the map.
+     * @return The created map.
+     */
+    private LoadedMap createMap(String path) {
+        TiledMap tiledMap = new TiledMap();
+        tiledMap.getLayers().add(new TiledMapTileLayer(10, 10, 16, 16));
+        return new LoadedMap(path, tiledMap);
+    }
+}
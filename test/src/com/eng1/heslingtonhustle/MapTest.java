@@ -4,17 +4,37 @@
 package com.eng1.heslingtonhustle;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
 import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
+import com.badlogic.gdx.maps.tiled.tiles.AnimatedTiledMapTile;
 import com.badlogic.gdx.math.Rectangle;
+import com.eng1.heslingtonhustle.game.Game;
 import com.eng1.heslingtonhustle.map.ActivityTile;
+import com.eng1.heslingtonhustle.map.CompiledMap;
+import com.eng1.heslingtonhustle.map.LoadedMap;
+import com.eng1.heslingtonhustle.map.MapCompiler;
 import com.eng1.heslingtonhustle.map.MapManager;
+import com.eng1.heslingtonhustle.map.TileChunkCache;
 
 @RunWith(GdxTestRunner.class)
 public class MapTest {
@@ -110,4 +130,168 @@ public class MapTest {
         Rectangle rectangle = activityTile.getRectangle();
         assertEquals("ActivityTile correctly returns its area", testRectangle, rectangle);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Tests that revisiting a map reuses the cached map instead of loading it again.
+     */
+    @Test
+    public void testChangeMapUsesCache() {
+        mapManager.changeMap(MapManager.cafeMapPath);
+        LoadedMap cafe = mapManager.getMapCache().get(MapManager.cafeMapPath);
+        mapManager.changeMapToCampus();
+        mapManager.changeMap(MapManager.cafeMapPath);
+        assertSame("Revisited map is taken from the cache", cafe, mapManager.getMapCache().get(MapManager.cafeMapPath));
+    }
+    
+    /**
+     * Tests that a map transition loads the map in the background and only switches once the screen is dark.
+     */
+    @Test
+    public void testTransitionTo() {
+        boolean[] mapChanged = {false};
+        boolean[] completed = {false};
+        mapManager.transitionTo(MapManager.libraryMapPath, () -> mapChanged[0] = true, () -> completed[0] = true);
+        assertTrue("Transition is in progress", mapManager.isTransitioning());
+        assertEquals("Map is not switched before the screen has faded out", MapManager.defaultMapPath, mapManager.currentMapPath);
+        
+        for (int frame = 0; frame < 10000 && mapManager.isTransitioning(); frame++) {
+            mapManager.update(1 / 60f);
+        }
+        assertFalse("Transition finishes", mapManager.isTransitioning());
+        assertTrue("Map changed callback is run", mapChanged[0]);
+        assertTrue("Completion callback is run", completed[0]);
+        assertEquals("Map is switched by the transition", MapManager.libraryMapPath, mapManager.currentMapPath);
+        assertEquals("Screen is fully visible after the transition", 0f, mapManager.getTransitionAlpha(), 0f);
+    }
+    
+    /**
+     * Tests that a prefetched map is loaded into the cache in the background, and evicted when cancelled.
+     */
+    @Test
+    public void testPrefetch() {
+        assertTrue("Prefetch starts loading an uncached map", mapManager.prefetch(MapManager.cinemaMapPath));
+        assertFalse("Prefetch does not load a map twice", mapManager.prefetch(MapManager.cinemaMapPath));
+        for (int frame = 0; frame < 10000 && !mapManager.getMapCache().contains(MapManager.cinemaMapPath); frame++) {
+            mapManager.update(1 / 60f);
+        }
+        assertTrue("Prefetched map is cached once loaded", mapManager.getMapCache().contains(MapManager.cinemaMapPath));
+        assertEquals("Prefetching does not change the current map", MapManager.defaultMapPath, mapManager.currentMapPath);
+        
+        mapManager.cancelPrefetch(MapManager.cinemaMapPath);
+        assertFalse("Cancelled prefetch is evicted", mapManager.getMapCache().contains(MapManager.cinemaMapPath));
+        mapManager.cancelPrefetch(MapManager.defaultMapPath);
+        assertTrue("The current map is never cancelled", mapManager.getMapCache().contains(MapManager.defaultMapPath));
+    }
+    
+    /**
+     * Tests compiling the campus map into the binary format and reading it back.
+     * Verifies that tile layers are flattened, the overlay is kept separate,
+     * and that the building corners, collisions and lamp lights match the TMX map in world units.
+     * @throws IOException If the compiled map could not be written or read.
+     */
+    @Test
+    public void testMapCompiler() throws IOException {
+        CompiledMap compiledMap = new MapCompiler().compile(Paths.get(MapManager.defaultMapPath), Paths.get(""));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        compiledMap.write(outputStream);
+        CompiledMap map = CompiledMap.read(new ByteArrayInputStream(outputStream.toByteArray()));
+        LoadedMap tmxMap = new LoadedMap(MapManager.defaultMapPath, new TmxMapLoader().load(MapManager.defaultMapPath));
+
+        int tileLayers = tmxMap.getTiledMap().getLayers().getByType(TiledMapTileLayer.class).size;
+        assertTrue("Tile layers are flattened", map.layers.size < tileLayers);
+        boolean hasOverlay = false;
+        for (CompiledMap.LayerData layer : map.layers) {
+            hasOverlay |= layer.name.equals("overlay");
+        }
+        assertTrue("Overlay layer is kept separate", hasOverlay);
+        assertEquals("Building corners are scaled to world units", tmxMap.getBuildingCorners(), map.buildingCorners);
+        assertTrue("Lamp posts are lit", map.lights.size > 0);
+        assertEquals("Lamp lights match the TMX map", tmxMap.getLights(), map.lights);
+        assertTrue("Collisions are merged", map.collisions.size <= tmxMap.getCollidableTiles().size);
+        for (Rectangle collision : tmxMap.getCollidableTiles()) {
+            boolean covered = false;
+            for (Rectangle merged : map.collisions) {
+                // Allow for rounding when the merged bounds were calculated
+                Rectangle bounds = new Rectangle(merged.x - 0.01f, merged.y - 0.01f, merged.width + 0.02f, merged.height + 0.02f);
+                covered |= bounds.contains(collision);
+            }
+            assertTrue("Every collision is covered by a merged collision", covered);
+        }
+    }
+    
+    /**
+     * Tests the TileChunkCache of the campus map.
+     * Verifies that every static layer is cached, that layers with animated tiles are left to the renderer,
+     * and that only the chunks near the camera are drawn.
+     */
+    @Test
+    public void testTileChunkCache() {
+        GL20 gl = Gdx.gl;
+        GL20 gl20 = Gdx.gl20;
+        HeadlessGL20 headlessGl = new HeadlessGL20();
+        Gdx.gl = headlessGl;
+        Gdx.gl20 = headlessGl;
+        try {
+            TiledMap tiledMap = new TmxMapLoader().load(MapManager.defaultMapPath);
+            TileChunkCache tileCache = new TileChunkCache(tiledMap, Game.SCALE, MapCompiler.SEPARATE_LAYERS);
+            tileCache.finishBuilding();
+
+            int cachedTiles = 0;
+            int cachedLayers = 0;
+            for (int i = 0; i < tiledMap.getLayers().size(); i++) {
+                if (!(tiledMap.getLayers().get(i) instanceof TiledMapTileLayer)) {
+                    continue;
+                }
+                TiledMapTileLayer layer = (TiledMapTileLayer) tiledMap.getLayers().get(i);
+                boolean animated = false;
+                int tiles = 0;
+                for (int x = 0; x < layer.getWidth(); x++) {
+                    for (int y = 0; y < layer.getHeight(); y++) {
+                        TiledMapTileLayer.Cell cell = layer.getCell(x, y);
+                        if (cell != null && cell.getTile() != null) {
+                            animated |= cell.getTile() instanceof AnimatedTiledMapTile;
+                            tiles++;
+                        }
+                    }
+                }
+                assertEquals("Only layers without animated tiles are cached", !animated, tileCache.isCached(i));
+                if (tileCache.isCached(i)) {
+                    cachedLayers++;
+                    cachedTiles += tiles;
+                    if (layer.getName().equals("overlay")) {
+                        // The overlay is also cached on its own
+                        cachedTiles += tiles;
+                    }
+                }
+            }
+            assertTrue("Most layers are cached", cachedLayers > 0);
+            assertEquals("Every tile of the cached layers is uploaded", cachedTiles, tileCache.getSpriteCount());
+
+            OrthographicCamera camera = new OrthographicCamera(1440, 810);
+            camera.position.set(4608, 960, 0);
+            camera.update();
+            OrthogonalTiledMapRenderer renderer = new OrthogonalTiledMapRenderer(tiledMap, Game.SCALE);
+            renderer.setView(camera);
+            tileCache.render(renderer);
+            assertTrue("Chunks in view are drawn", tileCache.getChunksDrawn() > 0);
+            assertTrue("At most the four chunks around the camera are drawn for each cached layer",
+                    tileCache.getChunksDrawn() <= cachedLayers * 4);
+            assertTrue("The overlay is drawn on its own",
+                    tileCache.renderLayer(renderer, tiledMap.getLayers().getIndex("overlay")));
+
+            camera.position.set(-10000, -10000, 0);
+            camera.update();
+            renderer.setView(camera);
+            tileCache.render(renderer);
+            assertEquals("No chunks are drawn outside the map", 0, tileCache.getChunksDrawn());
+
+            tileCache.dispose();
+            renderer.dispose();
+            tiledMap.dispose();
+        } finally {
+            Gdx.gl = gl;
+            Gdx.gl20 = gl20;
+        }
+    }
+}
+
@@ -0,0 +1,260 @@
+/**
+ * This class contains performance regression tests for the game loop.
+ * The game is rendered with a real SpriteBatch against a GL20 that does nothing, rather than with mocks,
+ * so that only the game's own work is measured.
+ */
+package com.eng1.heslingtonhustle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.actions.Actions;
+import com.eng1.heslingtonhustle.building.Building;
+import com.eng1.heslingtonhustle.game.Game;
+import com.eng1.heslingtonhustle.graphics.DynamicResolution;
+import com.eng1.heslingtonhustle.graphics.Lightmap;
+import com.eng1.heslingtonhustle.player.Movement;
+import com.eng1.heslingtonhustle.player.State;
+import com.sun.management.ThreadMXBean;
+
+@RunWith(GdxTestRunner.class)
+@Category(GdxTestRunner.class)
+public class PerformanceTest {
+
+    private static final int WARM_UP_FRAMES = 600;
+    private static final int MEASURED_FRAMES = 300;
+    private static final int MEASURED_WINDOWS = 3;
+    private static final int FRAMES_PER_DIRECTION = 30;
+
+    private HeadlessEnvironment environment;
+    private Game game;
+    private final Vector2 spawn = new Vector2();
+
+    /**
+     * Sets up a game that renders with a real SpriteBatch, map renderer and stage,
+     * in a real headless application rather than the mocks of the GdxTestRunner.
+     */
+    @Before
+    public void setUp() {
+        environment = new HeadlessEnvironment(new HeadlessGL20());
+        game = environment.createGame();
+        spawn.set(game.playerManager.getMovement().getPosition());
+    }
+
+    /**
+     * Restores the application, files, graphics and GL20 used by the other tests.
+     */
+    @After
+    public void tearDown() {
+        environment.restore();
+    }
+
+    /**
+     * Tests that a frame of the game loop allocates no memory while the player walks around campus.
+     * Allocations are measured per thread, after a warm up in which maps near the player are prefetched.
+     */
+    @Test
+    public void testFrameIsAllocationFree() {
+        ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue("Thread allocation measurement is supported", threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        int frame = 0;
+        for (; frame < WARM_UP_FRAMES || game.mapManager.isLoading(); frame++) {
+            walk(frame);
+        }
+
+        // Measuring allocates a little itself until it has warmed up, so warm it up and subtract its cost
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            threadBean.getThreadAllocatedBytes(threadId);
+        }
+        long start = threadBean.getThreadAllocatedBytes(threadId);
+        long overhead = threadBean.getThreadAllocatedBytes(threadId) - start;
+
+        // When the JIT throws away compiled code, objects it had optimised away are allocated for real,
+        // so the quietest of a few windows is taken. A frame that allocates does so in every window.
+        long allocated = Long.MAX_VALUE;
+        for (int window = 0; window < MEASURED_WINDOWS; window++) {
+            start = threadBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MEASURED_FRAMES; i++) {
+                walk(frame++);
+            }
+            allocated = Math.min(allocated, threadBean.getThreadAllocatedBytes(threadId) - start - overhead);
+        }
+
+        assertEquals("Walking frames allocate no memory", 0, allocated);
+    }
+
+    /**
+     * Tests that the world is drawn in a single render call, as the buildings, their outlines and the player
+     * are all drawn from the sprite atlas and darkened by the daylight shader. The player walks past the library
+     * at night so that frames with an outlined building, a tint and lights are included.
+     */
+    @Test
+    public void testWorldRenderCalls() {
+        assertNotNull("The world is drawn with the daylight shader", game.renderingManager.getDaylightShader());
+        Lightmap lightmap = game.renderingManager.getLightmap();
+        assertNotNull("The campus is lit at night", lightmap);
+        game.playerManager.getTime().increaseTime(12);
+        assertTrue("It is night", Lightmap.isActive(game.playerManager.getTime().getTime()));
+        Building library = null;
+        for (Building building : game.buildings) {
+            if (building.getName().equals("Library")) {
+                library = building;
+            }
+        }
+        assertNotNull("The library is on campus", library);
+        Vector2 interactSpot = library.getInteractSpot();
+        Movement movement = game.playerManager.getMovement();
+
+        boolean outlined = false;
+        for (int frame = 0; frame < MEASURED_FRAMES; frame++) {
+            // Step the player across the library's interact spot
+            movement.getPosition().set(interactSpot.x + (frame - MEASURED_FRAMES / 2) * 2, interactSpot.y);
+            game.render();
+            outlined |= library.inRange(movement.getPosition());
+            assertTrue("The library's windows are lit", lightmap.getLightsDrawn() > 0);
+            assertEquals("The world is drawn in a single render call", 1, game.renderingManager.getWorldRenderCalls());
+        }
+        assertTrue("The library was outlined", outlined);
+    }
+
+    /**
+     * Tests that the world's resolution is lowered while frames are slower than the target frame rate,
+     * raised again once they keep up, and that the world can be drawn at a lowered resolution.
+     */
+    @Test
+    public void testDynamicResolution() {
+        DynamicResolution dynamicResolution = game.renderingManager.getDynamicResolution();
+        assertNotNull("The world's resolution can be adjusted", dynamicResolution);
+        dynamicResolution.setTargetFrameRate(60);
+        assertEquals("The world starts at full resolution", DynamicResolution.MAX_SCALE, dynamicResolution.getScale(), 0.001);
+
+        for (int i = 0; i < DynamicResolution.ADJUST_INTERVAL_FRAMES; i++) {
+            dynamicResolution.update(1 / 30f);
+        }
+        assertEquals("Slow frames lower the resolution a step",
+                DynamicResolution.MAX_SCALE - DynamicResolution.SCALE_STEP, dynamicResolution.getScale(), 0.001);
+        for (int i = 0; i < DynamicResolution.ADJUST_INTERVAL_FRAMES * 10; i++) {
+            dynamicResolution.update(1 / 30f);
+        }
+        assertEquals("The resolution is not lowered past the minimum",
+                DynamicResolution.MIN_SCALE, dynamicResolution.getScale(), 0.001);
+
+        game.render();
+        assertEquals("The world is drawn in a single render call at a lower resolution", 1, game.renderingManager.getWorldRenderCalls());
+
+        dynamicResolution.setTargetFrameRate(60);
+        for (int i = 0; i < DynamicResolution.ADJUST_INTERVAL_FRAMES * (DynamicResolution.RAISE_AFTER_INTERVALS - 1); i++) {
+            dynamicResolution.update(1 / 60f);
+        }
+        assertEquals("The resolution is not raised straight away", DynamicResolution.MIN_SCALE, dynamicResolution.getScale(), 0.001);
+        for (int i = 0; i < DynamicResolution.ADJUST_INTERVAL_FRAMES; i++) {
+            dynamicResolution.update(1 / 60f);
+        }
+        assertEquals("Frames that keep up raise the resolution a step",
+                DynamicResolution.MIN_SCALE + DynamicResolution.SCALE_STEP, dynamicResolution.getScale(), 0.001);
+
+        dynamicResolution.setEnabled(false);
+        assertEquals("The world is drawn at full resolution when disabled", DynamicResolution.MAX_SCALE, dynamicResolution.getScale(), 0.001);
+    }
+
+    /**
+     * Tests that the resolution is adjusted to the time each frame spends working, that a single long frame
+     * does not lower it, and that frames rendered while idle are not timed.
+     */
+    @Test
+    public void testDynamicResolutionFrameTimes() {
+        DynamicResolution dynamicResolution = game.renderingManager.getDynamicResolution();
+        assertNotNull("The world's resolution can be adjusted", dynamicResolution);
+        dynamicResolution.setTargetFrameRate(60);
+        dynamicResolution.update(1);
+        for (int i = 1; i < DynamicResolution.ADJUST_INTERVAL_FRAMES; i++) {
+            dynamicResolution.update(1 / 60f);
+        }
+        assertEquals("A single long frame does not lower the resolution", DynamicResolution.MAX_SCALE, dynamicResolution.getScale(), 0.001);
+
+        // No frame can be rendered this quickly, so every frame that is timed is slow
+        dynamicResolution.setTargetFrameRate(1000000);
+        Movement movement = game.playerManager.getMovement();
+        movement.disableMovement();
+        for (int frame = 0; frame < WARM_UP_FRAMES && !game.renderScheduler.isIdle(); frame++) {
+            game.render();
+        }
+        assertTrue("Rendering is idle while paused", game.renderScheduler.isIdle());
+        dynamicResolution.setTargetFrameRate(1000000);
+        for (int i = 0; i < DynamicResolution.ADJUST_INTERVAL_FRAMES * 2; i++) {
+            game.render();
+        }
+        assertEquals("Frames rendered while idle are not timed", DynamicResolution.MAX_SCALE, dynamicResolution.getScale(), 0.001);
+
+        movement.enableMovement();
+        game.render();
+        for (int i = 0; i < DynamicResolution.ADJUST_INTERVAL_FRAMES; i++) {
+            game.render();
+        }
+        assertEquals("Frames that spend too long working lower the resolution a step",
+                DynamicResolution.MAX_SCALE - DynamicResolution.SCALE_STEP, dynamicResolution.getScale(), 0.001);
+    }
+
+    /**
+     * Tests that rendering goes idle while the game is paused and nothing is animating,
+     * and that it renders continuously again while an action runs and once the game resumes.
+     */
+    @Test
+    public void testIdleRendering() {
+        Movement movement = game.playerManager.getMovement();
+        game.render();
+        assertFalse("Rendering is continuous while playing", game.renderScheduler.isIdle());
+
+        movement.disableMovement();
+        for (int frame = 0; frame < WARM_UP_FRAMES && game.mapManager.isLoading(); frame++) {
+            game.render();
+        }
+        game.render();
+        assertTrue("Rendering is idle while paused", game.renderScheduler.isIdle());
+
+        Stage uiStage = game.renderingManager.getGameUI().getUiStage();
+        uiStage.getRoot().getChildren().first().addAction(Actions.delay(1));
+        game.render();
+        assertFalse("Rendering is continuous while an action runs", game.renderScheduler.isIdle());
+        uiStage.getRoot().getChildren().first().clearActions();
+        game.render();
+        assertTrue("Rendering is idle once the action has finished", game.renderScheduler.isIdle());
+
+        movement.enableMovement();
+        game.render();
+        assertFalse("Rendering is continuous once the game resumes", game.renderScheduler.isIdle());
+    }
+
+    /**
+     * Renders a frame while the player walks left and right.
+     * The player goes back to where they spawned at the start of each lap, so that walking into a wall
+     * cannot make them drift onto new ground between the warm up and the measured frames.
+     * @param frame The number of the frame.
+     */
+    private void walk(int frame) {
+        State state = game.playerManager.getState();
+        if (frame % (FRAMES_PER_DIRECTION * 2) == 0) {
+            game.playerManager.getMovement().getPosition().set(spawn);
+        }
+        boolean right = (frame / FRAMES_PER_DIRECTION) % 2 == 0;
+        state.RIGHT = right;
+        state.LEFT = !right;
+        game.render();
+    }
+}
@@ -0,0 +1,436 @@
+/**
+ * This class contains tests that the GL work done to draw a frame stays within a budget, so that a change which
+ * makes rendering more expensive, such as one that splits a batch into more flushes, fails the build.
+ * The game is rendered with a real SpriteBatch against a GL20 that counts its calls, and the most expensive of
+ * a number of frames in each scene is compared with the budget for that scene.
+ * The budgets are what each scene costs now with the compiled maps the build copies alongside the assets,
+ * so a change that is meant to draw more has to raise them on purpose.
+ */
+package com.eng1.heslingtonhustle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Paths;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.eng1.heslingtonhustle.building.Building;
+import com.eng1.heslingtonhustle.game.Game;
+import com.eng1.heslingtonhustle.helper.AssetRegistry;
+import com.eng1.heslingtonhustle.map.CompiledMap;
+import com.eng1.heslingtonhustle.map.LoadedMap;
+import com.eng1.heslingtonhustle.map.LoadedMapLoader;
+import com.eng1.heslingtonhustle.map.MapCache;
+import com.eng1.heslingtonhustle.map.MapCompiler;
+import com.eng1.heslingtonhustle.map.MapManager;
+import com.eng1.heslingtonhustle.map.TileChunkCache;
+import com.eng1.heslingtonhustle.player.Movement;
+import com.eng1.heslingtonhustle.player.State;
+
+@RunWith(GdxTestRunner.class)
+@Category(GdxTestRunner.class)
+public class RenderBudgetTest {
+
+    private static final int SETTLE_FRAMES = 600;
+    private static final int MEASURED_FRAMES = 120;
+    // Short frames, so that a transition's fade out lasts long enough for its map to load
+    private static final int TRANSITION_FRAMES = 2000;
+    private static final float TRANSITION_FRAME_SECONDS = 0.001f;
+    private static final String[] COUNT_NAMES = {"draw calls", "texture binds", "shader switches", "buffer uploads", "state changes"};
+    // Each budget is the most draw calls, texture binds, shader switches, buffer uploads and state changes in a frame
+    private static final int[] CAMPUS_IDLE_BUDGET = {9, 9, 5, 27, 33};
+    private static final int[] OUTLINED_BUILDING_BUDGET = {12, 12, 5, 36, 39};
+    private static final int[] SCORE_SCREEN_BUDGET = {5, 5, 4, 15, 22};
+    private static final String[] INTERIOR_BUILDINGS = {"Library", "Computer Science Building", "Cafe", "Cinema", "Home"};
+    private static final String[] MAP_PATHS = {MapManager.defaultMapPath, MapManager.cafeMapPath, MapManager.cinemaMapPath,
+            MapManager.compSciMapPath, MapManager.endGameMapPath, MapManager.homeMapPath, MapManager.libraryMapPath};
+    private static final int[][] INTERIOR_BUDGETS = {
+            {7, 7, 4, 21, 26},
+            {13, 13, 4, 39, 38},
+            {10, 10, 4, 30, 32},
+            {7, 7, 4, 21, 26},
+            {6, 6, 4, 18, 24}
+    };
+
+    private HeadlessEnvironment environment;
+    private Skin menuSkin;
+    private CountingGL20 countingGl;
+    private Game game;
+
+    /**
+     * Sets up a game that renders with a real SpriteBatch, map renderer and stage against a counting GL20,
+     * with the menu skin the score screen is built with.
+     */
+    @Before
+    public void setUp() {
+        countingGl = new CountingGL20();
+        environment = new HeadlessEnvironment(countingGl);
+        menuSkin = Game.menuSkin;
+        Game.menuSkin = AssetRegistry.acquire(Game.menuSkinPath, Skin.class);
+        game = environment.createGame();
+        settle();
+    }
+
+    /**
+     * Restores the environment and menu skin used by the other tests.
+     */
+    @After
+    public void tearDown() {
+        AssetRegistry.release(Game.menuSkinPath);
+        Game.menuSkin = menuSkin;
+        environment.restore();
+    }
+
+    /**
+     * Tests the cost of a frame on campus while the player stands at the spawn point.
+     */
+    @Test
+    public void testCampusIdleBudget() {
+        assertWithinBudget("Campus idle", CAMPUS_IDLE_BUDGET, measureFrames());
+    }
+
+    /**
+     * Tests the cost of a frame on campus while the player stands by the library, so that it is outlined.
+     */
+    @Test
+    public void testOutlinedBuildingBudget() {
+        Building library = findBuilding("Library");
+        Movement movement = game.playerManager.getMovement();
+        movement.setPosition(library.getInteractSpot());
+        settle();
+        assertTrue("The player is in range of the library", library.inRange(movement.getPosition()));
+        assertSame("The library is outlined", library, game.gameManager.checkForBuildingInRange());
+
+        assertWithinBudget("Campus with an outlined building", OUTLINED_BUILDING_BUDGET, measureFrames());
+    }
+
+    /**
+     * Tests the cost of a frame inside each building with a map, once the player has entered it
+     * and the map has faded in.
+     */
+    @Test
+    public void testInteriorBudget() {
+        State state = game.playerManager.getState();
+        for (int i = 0; i < INTERIOR_BUILDINGS.length; i++) {
+            Building building = findBuilding(INTERIOR_BUILDINGS[i]);
+            state.interacting();
+            game.gameManager.interactWithBuilding(building);
+            assertTrue("The map starts fading out", game.mapManager.isTransitioning());
+            settle();
+            assertFalse("The building has been entered", game.mapManager.currentMapPath.equals(MapManager.defaultMapPath));
+
+            assertWithinBudget(INTERIOR_BUILDINGS[i], INTERIOR_BUDGETS[i], measureFrames());
+            game.resetSession();
+            settle();
+        }
+    }
+
+    /**
+     * Tests the cost of a frame on the score screen shown at the end of the game.
+     */
+    @Test
+    public void testScoreScreenBudget() {
+        game.gameManager.endGame();
+        settle();
+        assertWithinBudget("Score screen", SCORE_SCREEN_BUDGET, measureFrames());
+    }
+
+    /**
+     * Tests that every map is drawn in no more draw calls once it has been compiled than from its TMX file,
+     * both through the map renderer and from the tile cache, with the whole map in view.
+     *
+     * @throws IOException If a compiled map could not be written
+     */
+    @Test
+    public void testCompiledMapDrawCalls() throws IOException {
+        for (String mapPath : MAP_PATHS) {
+            LoadedMap tmxMap = new LoadedMap(mapPath, new TmxMapLoader().load(mapPath));
+            AssetManager assetManager = loadCompiledMap(mapPath);
+            try {
+                LoadedMap compiledMap = assetManager.get(mapPath, LoadedMap.class);
+                int tmxDrawCalls = countMapDrawCalls(tmxMap, false);
+                int compiledDrawCalls = countMapDrawCalls(compiledMap, false);
+                assertTrue(mapPath + " is rendered in no more draw calls once compiled: "
+                        + compiledDrawCalls + " > " + tmxDrawCalls, compiledDrawCalls <= tmxDrawCalls);
+                tmxDrawCalls = countMapDrawCalls(tmxMap, true);
+                compiledDrawCalls = countMapDrawCalls(compiledMap, true);
+                assertTrue(mapPath + " is drawn from the tile cache in no more draw calls once compiled: "
+                        + compiledDrawCalls + " > " + tmxDrawCalls, compiledDrawCalls <= tmxDrawCalls);
+            } finally {
+                tmxMap.dispose();
+                assetManager.dispose();
+            }
+        }
+    }
+
+    /**
+     * Tests that a chunk of the tile cache is drawn in one draw call per texture, however its layers mix textures.
+     * The chunk's ground alternates between two textures from tile to tile, and a layer above it uses a third.
+     */
+    @Test
+    public void testChunkDrawCallsPerTexture() {
+        TiledMap tiledMap = new TiledMap();
+        int size = TileChunkCache.CHUNK_TILES;
+        tiledMap.getProperties().put("width", size);
+        tiledMap.getProperties().put("height", size);
+        tiledMap.getProperties().put("tilewidth", 16);
+        tiledMap.getProperties().put("tileheight", 16);
+        Texture[] textures = new Texture[3];
+        StaticTiledMapTile[] tiles = new StaticTiledMapTile[textures.length];
+        for (int i = 0; i < textures.length; i++) {
+            Pixmap pixmap = new Pixmap(16, 16, Pixmap.Format.RGBA8888);
+            textures[i] = new Texture(pixmap);
+            pixmap.dispose();
+            tiles[i] = new StaticTiledMapTile(new TextureRegion(textures[i]));
+        }
+        TiledMapTileLayer ground = new TiledMapTileLayer(size, size, 16, 16);
+        TiledMapTileLayer above = new TiledMapTileLayer(size, size, 16, 16);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                ground.setCell(x, y, new TiledMapTileLayer.Cell().setTile(tiles[(x + y) % 2]));
+                above.setCell(x, y, new TiledMapTileLayer.Cell().setTile(tiles[2]));
+            }
+        }
+        tiledMap.getLayers().add(ground);
+        tiledMap.getLayers().add(above);
+
+        TileChunkCache tileCache = new TileChunkCache(tiledMap, Game.SCALE);
+        tileCache.finishBuilding();
+        OrthographicCamera camera = new OrthographicCamera(size * 16 * Game.SCALE, size * 16 * Game.SCALE);
+        camera.position.set(camera.viewportWidth / 2, camera.viewportHeight / 2, 0);
+        camera.update();
+        OrthogonalTiledMapRenderer renderer = new OrthogonalTiledMapRenderer(tiledMap, Game.SCALE);
+        try {
+            renderer.setView(camera);
+            countingGl.startFrame();
+            tileCache.render(renderer);
+            assertEquals("One chunk is drawn", 1, tileCache.getChunksDrawn());
+            assertEquals("The chunk is drawn in one draw call per texture", textures.length, countingGl.getDrawCalls());
+        } finally {
+            renderer.dispose();
+            tileCache.dispose();
+            for (Texture texture : textures) {
+                texture.dispose();
+            }
+        }
+    }
+
+    /**
+     * Tests that the tile cache is built a chunk at a time when its time budget runs out, and that only the chunks
+     * built so far are drawn. The map is two chunks wide and two high, with a single texture.
+     */
+    @Test
+    public void testTileCacheBuildsInSteps() {
+        TiledMap tiledMap = new TiledMap();
+        int size = TileChunkCache.CHUNK_TILES * 2;
+        tiledMap.getProperties().put("width", size);
+        tiledMap.getProperties().put("height", size);
+        tiledMap.getProperties().put("tilewidth", 16);
+        tiledMap.getProperties().put("tileheight", 16);
+        Pixmap pixmap = new Pixmap(16, 16, Pixmap.Format.RGBA8888);
+        Texture texture = new Texture(pixmap);
+        pixmap.dispose();
+        StaticTiledMapTile tile = new StaticTiledMapTile(new TextureRegion(texture));
+        TiledMapTileLayer ground = new TiledMapTileLayer(size, size, 16, 16);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                ground.setCell(x, y, new TiledMapTileLayer.Cell().setTile(tile));
+            }
+        }
+        tiledMap.getLayers().add(ground);
+
+        TileChunkCache tileCache = new TileChunkCache(tiledMap, Game.SCALE);
+        OrthographicCamera camera = new OrthographicCamera(size * 16 * Game.SCALE, size * 16 * Game.SCALE);
+        camera.position.set(camera.viewportWidth / 2, camera.viewportHeight / 2, 0);
+        camera.update();
+        OrthogonalTiledMapRenderer renderer = new OrthogonalTiledMapRenderer(tiledMap, Game.SCALE);
+        try {
+            renderer.setView(camera);
+            assertFalse("Nothing is built until the cache is built", tileCache.isBuilt());
+            for (int chunk = 1; chunk < 4; chunk++) {
+                assertFalse("A spent budget builds a single chunk", tileCache.build(0));
+                tileCache.render(renderer);
+                assertEquals("Only the chunks built so far are drawn", chunk, tileCache.getChunksDrawn());
+            }
+            assertTrue("The last chunk finishes the cache", tileCache.build(0));
+            tileCache.render(renderer);
+            assertEquals("Every chunk is drawn once the cache is built", 4, tileCache.getChunksDrawn());
+        } finally {
+            renderer.dispose();
+            tileCache.dispose();
+            texture.dispose();
+        }
+    }
+
+    /**
+     * Tests that the tile cache of a map being changed to is built over the frames of the transition,
+     * before the screen has faded out, and that the map is never switched to before its tile cache is built.
+     */
+    @Test
+    public void testTransitionBuildsTileCache() {
+        MapManager mapManager = new MapManager(MapCache.DEFAULT_BUDGET_BYTES);
+        try {
+            mapManager.transitionTo(MapManager.libraryMapPath, null, null);
+            boolean builtWhileFading = false;
+            for (int frame = 0; frame < TRANSITION_FRAMES && mapManager.isTransitioning(); frame++) {
+                mapManager.update(TRANSITION_FRAME_SECONDS);
+                LoadedMap map = mapManager.getMapCache().get(MapManager.libraryMapPath);
+                if (MapManager.libraryMapPath.equals(mapManager.currentMapPath)) {
+                    assertTrue("The map is switched to once its tile cache is built", map.getTileCache().isBuilt());
+                } else if (map != null && map.getTileCache().isBuilt() && mapManager.getTransitionAlpha() < 1) {
+                    builtWhileFading = true;
+                }
+            }
+            assertEquals("The transition finishes on the new map", MapManager.libraryMapPath, mapManager.currentMapPath);
+            assertTrue("The tile cache is built while the screen fades out", builtWhileFading);
+        } finally {
+            mapManager.dispose();
+        }
+    }
+
+    /**
+     * Renders frames for long enough that any map load, transition or change in the buildings the player is near
+     * has finished, so that only the cost of frames that are drawn over and over again is measured.
+     */
+    private void settle() {
+        for (int frame = 0; frame < SETTLE_FRAMES; frame++) {
+            game.render();
+        }
+    }
+
+    /**
+     * Renders a number of frames, keeping the highest count of each kind of GL call made in any one of them.
+     *
+     * @return The highest counts, in the order of COUNT_NAMES
+     */
+    private int[] measureFrames() {
+        int[] maxCounts = new int[COUNT_NAMES.length];
+        for (int frame = 0; frame < MEASURED_FRAMES; frame++) {
+            countingGl.startFrame();
+            game.render();
+            maxCounts[0] = Math.max(maxCounts[0], countingGl.getDrawCalls());
+            maxCounts[1] = Math.max(maxCounts[1], countingGl.getTextureBinds());
+            maxCounts[2] = Math.max(maxCounts[2], countingGl.getShaderSwitches());
+            maxCounts[3] = Math.max(maxCounts[3], countingGl.getBufferUploads());
+            maxCounts[4] = Math.max(maxCounts[4], countingGl.getStateChanges());
+        }
+        return maxCounts;
+    }
+
+    /**
+     * Compiles a map and loads it as the game loads compiled maps, with the tileset textures it depends on.
+     *
+     * @param mapPath The path of the TMX map
+     * @return The AssetManager the compiled map was loaded through, under the TMX map's path
+     * @throws IOException If the compiled map could not be written
+     */
+    private AssetManager loadCompiledMap(String mapPath) throws IOException {
+        CompiledMap compiledMap = new MapCompiler().compile(Paths.get(mapPath), Paths.get(""));
+        File compiledFile = File.createTempFile("map", "." + CompiledMap.EXTENSION);
+        compiledFile.deleteOnExit();
+        try (OutputStream outputStream = new FileOutputStream(compiledFile)) {
+            compiledMap.write(outputStream);
+        }
+        FileHandleResolver resolver = fileName -> fileName.equals(mapPath)
+                ? new FileHandle(compiledFile) : Gdx.files.internal(fileName);
+        AssetManager assetManager = new AssetManager(resolver);
+        assetManager.setLoader(LoadedMap.class, new LoadedMapLoader(resolver));
+        assetManager.load(mapPath, LoadedMap.class);
+        assetManager.finishLoading();
+        return assetManager;
+    }
+
+    /**
+     * Counts the draw calls made rendering every layer of a map with the whole map in view.
+     *
+     * @param map    The map
+     * @param cached True to draw the static tiles from the map's tile cache, false to draw every tile through the renderer
+     * @return The number of draw calls
+     */
+    private int countMapDrawCalls(LoadedMap map, boolean cached) {
+        TiledMap tiledMap = map.getTiledMap();
+        float width = tiledMap.getProperties().get("width", Integer.class) * tiledMap.getProperties().get("tilewidth", Integer.class) * Game.SCALE;
+        float height = tiledMap.getProperties().get("height", Integer.class) * tiledMap.getProperties().get("tileheight", Integer.class) * Game.SCALE;
+        OrthographicCamera camera = new OrthographicCamera(width, height);
+        camera.position.set(width / 2, height / 2, 0);
+        camera.update();
+        OrthogonalTiledMapRenderer renderer = new OrthogonalTiledMapRenderer(tiledMap, Game.SCALE);
+        try {
+            renderer.setView(camera);
+            countingGl.startFrame();
+            if (cached) {
+                TileChunkCache tileCache = map.getTileCache();
+                tileCache.finishBuilding();
+                tileCache.render(renderer);
+            } else {
+                renderer.render();
+            }
+            return countingGl.getDrawCalls();
+        } finally {
+            renderer.dispose();
+        }
+    }
+
+    /**
+     * Asserts that none of the counts of a scene's frames are over its budget.
+     * Every count is reported, so that a regression shows how far over budget the scene went.
+     *
+     * @param scene  The name of the scene
+     * @param budget The budget of each count, in the order of COUNT_NAMES
+     * @param counts The highest counts of the scene's frames
+     */
+    private void assertWithinBudget(String scene, int[] budget, int[] counts) {
+        assertTrue(scene + " draws something", counts[0] > 0);
+        StringBuilder overBudget = new StringBuilder();
+        for (int i = 0; i < COUNT_NAMES.length; i++) {
+            if (counts[i] > budget[i]) {
+                overBudget.append(", ").append(COUNT_NAMES[i]).append(' ').append(counts[i]).append(" > ").append(budget[i]);
+            }
+        }
+        if (overBudget.length() > 0) {
+            fail(scene + " is over budget" + overBudget);
+        }
+    }
+
+    /**
+     * Finds a campus building by name.
+     *
+     * @param name The name of the building
+     * @return The building
+     */
+    private Building findBuilding(String name) {
+        for (Building building : game.buildings) {
+            if (building.getName().equals(name)) {
+                return building;
+            }
+        }
+        fail("The " + name + " is on campus");
+        return null;
+    }
+}